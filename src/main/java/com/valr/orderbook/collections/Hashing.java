@@ -0,0 +1,21 @@
+package com.valr.orderbook.collections;
+
+/**
+ * Hash functions shared by the primitive collections and the price level tree of the order book.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * Spreads the bits of a key, so sequential keys such as ids do not cluster in neighbouring slots.
+     *
+     * @param key the key to hash
+     * @return the mixed hash
+     */
+    public static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
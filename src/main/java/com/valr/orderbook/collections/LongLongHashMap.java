@@ -0,0 +1,216 @@
+package com.valr.orderbook.collections;
+
+import java.util.Arrays;
+
+/**
+ * Hash map with primitive {@code long} keys and values, using open addressing with linear probing.
+ * Keys and values are interleaved in a single array, so a lookup usually reads one cache line and never boxes.
+ * Removal shifts the following entries of the probe sequence back instead of leaving tombstones, so the map
+ * never degrades and only allocates when it grows.
+ * <p>
+ * Absent keys are reported with a missing value chosen at construction. The map is not thread-safe.
+ */
+public class LongLongHashMap {
+    private static final long EMPTY_KEY = 0;
+    private static final int MIN_CAPACITY = 8;
+
+    private final long missingValue;
+    private long[] entries;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private boolean hasZeroKey;
+    private long zeroKeyValue;
+
+    /**
+     * Constructor for LongLongHashMap.
+     *
+     * @param expectedSize the number of entries the map holds without growing
+     * @param missingValue the value returned for keys that are not mapped
+     */
+    public LongLongHashMap(int expectedSize, long missingValue) {
+        this.missingValue = missingValue;
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value mapped to the specified key.
+     *
+     * @param key the key
+     * @return the value or the missing value if the key is not mapped
+     */
+    public long get(long key) {
+        if (key == EMPTY_KEY) {
+            return hasZeroKey ? zeroKeyValue : missingValue;
+        }
+        long[] entries = this.entries;
+        for (int index = slot(key); ; index = next(index)) {
+            long candidate = entries[index];
+            if (candidate == key) {
+                return entries[index + 1];
+            }
+            if (candidate == EMPTY_KEY) {
+                return missingValue;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the specified key is mapped.
+     *
+     * @param key the key
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(long key) {
+        if (key == EMPTY_KEY) {
+            return hasZeroKey;
+        }
+        for (int index = slot(key); entries[index] != EMPTY_KEY; index = next(index)) {
+            if (entries[index] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Maps the specified key to the specified value, replacing any previous value.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value or the missing value if the key was not mapped
+     */
+    public long put(long key, long value) {
+        if (key == EMPTY_KEY) {
+            long previous = hasZeroKey ? zeroKeyValue : missingValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroKeyValue = value;
+            return previous;
+        }
+        int index = slot(key);
+        while (entries[index] != EMPTY_KEY) {
+            if (entries[index] == key) {
+                long previous = entries[index + 1];
+                entries[index + 1] = value;
+                return previous;
+            }
+            index = next(index);
+        }
+        entries[index] = key;
+        entries[index + 1] = value;
+        if (++size > resizeThreshold) {
+            rehash(entries.length);
+        }
+        return missingValue;
+    }
+
+    /**
+     * Removes the mapping of the specified key.
+     *
+     * @param key the key
+     * @return the removed value or the missing value if the key was not mapped
+     */
+    public long remove(long key) {
+        if (key == EMPTY_KEY) {
+            if (!hasZeroKey) {
+                return missingValue;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroKeyValue;
+        }
+        for (int index = slot(key); entries[index] != EMPTY_KEY; index = next(index)) {
+            if (entries[index] == key) {
+                long previous = entries[index + 1];
+                shiftBack(index);
+                size--;
+                return previous;
+            }
+        }
+        return missingValue;
+    }
+
+    /**
+     * Returns the number of mappings.
+     *
+     * @return the size of the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map is empty.
+     *
+     * @return true if there are no mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all mappings. The capacity is kept.
+     */
+    public void clear() {
+        Arrays.fill(entries, EMPTY_KEY);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * Closes the gap left by a removed entry by moving back the following entries of the probe sequence
+     * that would otherwise no longer be reachable from their home slot.
+     *
+     * @param gap the index of the removed entry
+     */
+    private void shiftBack(int gap) {
+        int entryMask = mask << 1;
+        for (int index = next(gap); entries[index] != EMPTY_KEY; index = next(index)) {
+            int home = slot(entries[index]);
+            if (((index - home) & entryMask) >= ((index - gap) & entryMask)) {
+                entries[gap] = entries[index];
+                entries[gap + 1] = entries[index + 1];
+                gap = index;
+            }
+        }
+        entries[gap] = EMPTY_KEY;
+        entries[gap + 1] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldEntries = entries;
+        allocate(capacity);
+        for (int i = 0; i < oldEntries.length; i += 2) {
+            long key = oldEntries[i];
+            if (key != EMPTY_KEY) {
+                int index = slot(key);
+                while (entries[index] != EMPTY_KEY) {
+                    index = next(index);
+                }
+                entries[index] = key;
+                entries[index + 1] = oldEntries[i + 1];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        entries = new long[capacity << 1];
+        mask = capacity - 1;
+        resizeThreshold = capacity >> 1;
+    }
+
+    private int slot(long key) {
+        return (Hashing.mix(key) & mask) << 1;
+    }
+
+    private int next(int index) {
+        return (index + 2) & ((mask << 1) | 1);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+    }
+}
@@ -0,0 +1,210 @@
+package com.valr.orderbook.collections;
+
+import java.util.Arrays;
+
+/**
+ * Hash map with primitive {@code long} keys, using open addressing with linear probing.
+ * Keys and values are kept in two parallel arrays, so lookups never box the key and probe contiguous memory.
+ * Removal shifts the following entries of the probe sequence back instead of leaving tombstones, so the map
+ * never degrades and only allocates when it grows.
+ * <p>
+ * Values must not be null. The map is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public class LongObjectHashMap<V> {
+    private static final long EMPTY_KEY = 0;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private V zeroKeyValue;
+
+    /**
+     * Constructor for LongObjectHashMap.
+     *
+     * @param expectedSize the number of entries the map holds without growing
+     */
+    public LongObjectHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value mapped to the specified key.
+     *
+     * @param key the key
+     * @return the value or null if the key is not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == EMPTY_KEY) {
+            return zeroKeyValue;
+        }
+        long[] keys = this.keys;
+        for (int index = slot(key); ; index = (index + 1) & mask) {
+            long candidate = keys[index];
+            if (candidate == key) {
+                return (V) values[index];
+            }
+            if (candidate == EMPTY_KEY) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the specified key is mapped.
+     *
+     * @param key the key
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps the specified key to the specified value, replacing any previous value.
+     *
+     * @param key the key
+     * @param value the value, must not be null
+     * @return the previous value or null if the key was not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported.");
+        }
+        if (key == EMPTY_KEY) {
+            V previous = zeroKeyValue;
+            zeroKeyValue = value;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+        int index = slot(key);
+        while (keys[index] != EMPTY_KEY) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the specified key.
+     *
+     * @param key the key
+     * @return the removed value or null if the key was not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == EMPTY_KEY) {
+            V previous = zeroKeyValue;
+            if (previous != null) {
+                zeroKeyValue = null;
+                size--;
+            }
+            return previous;
+        }
+        for (int index = slot(key); keys[index] != EMPTY_KEY; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                shiftBack(index);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of mappings.
+     *
+     * @return the size of the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map is empty.
+     *
+     * @return true if there are no mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all mappings. The capacity is kept.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        Arrays.fill(values, null);
+        zeroKeyValue = null;
+        size = 0;
+    }
+
+    /**
+     * Closes the gap left by a removed entry by moving back the following entries of the probe sequence
+     * that would otherwise no longer be reachable from their home slot.
+     *
+     * @param gap the index of the removed entry
+     */
+    private void shiftBack(int gap) {
+        for (int index = (gap + 1) & mask; keys[index] != EMPTY_KEY; index = (index + 1) & mask) {
+            int home = slot(keys[index]);
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = EMPTY_KEY;
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY_KEY) {
+                int index = slot(key);
+                while (keys[index] != EMPTY_KEY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity >> 1;
+    }
+
+    private int slot(long key) {
+        return Hashing.mix(key) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+    }
+}
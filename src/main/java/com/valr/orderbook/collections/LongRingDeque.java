@@ -0,0 +1,135 @@
+package com.valr.orderbook.collections;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Double-ended queue of primitive {@code long} values with a fixed capacity, backed by a circular array.
+ * Adding and removing at either end is O(1) and never allocates or boxes.
+ * <p>
+ * The deque is not thread-safe.
+ */
+public class LongRingDeque {
+    private final long[] elements;
+    private int head;
+    private int size;
+
+    /**
+     * Constructor for LongRingDeque.
+     *
+     * @param capacity the maximum number of values the deque holds
+     */
+    public LongRingDeque(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Deque capacity must be positive: " + capacity);
+        }
+        this.elements = new long[capacity];
+    }
+
+    /**
+     * Appends a value at the end of the deque.
+     *
+     * @param value the value
+     * @throws IllegalStateException if the deque is full
+     */
+    public void addLast(long value) {
+        if (size == elements.length) {
+            throw new IllegalStateException("Deque is full.");
+        }
+        elements[index(size)] = value;
+        size++;
+    }
+
+    /**
+     * Returns the first value of the deque.
+     *
+     * @return the first value
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public long peekFirst() {
+        checkNotEmpty();
+        return elements[head];
+    }
+
+    /**
+     * Returns the last value of the deque.
+     *
+     * @return the last value
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public long peekLast() {
+        checkNotEmpty();
+        return elements[index(size - 1)];
+    }
+
+    /**
+     * Removes the first value of the deque.
+     *
+     * @return the removed value
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public long removeFirst() {
+        checkNotEmpty();
+        long value = elements[head];
+        head = index(1);
+        size--;
+        return value;
+    }
+
+    /**
+     * Removes the last value of the deque.
+     *
+     * @return the removed value
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public long removeLast() {
+        checkNotEmpty();
+        size--;
+        return elements[index(size)];
+    }
+
+    /**
+     * Returns the number of values in the deque.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the deque is empty.
+     *
+     * @return true if the deque holds no values
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values from the deque.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Maps an offset from the head to an array index.
+     *
+     * @param offset the offset from the head
+     * @return the index in the circular array
+     */
+    private int index(int offset) {
+        int index = head + offset;
+        return index >= elements.length ? index - elements.length : index;
+    }
+
+    /**
+     * Fails if the deque is empty.
+     */
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("Deque is empty.");
+        }
+    }
+}
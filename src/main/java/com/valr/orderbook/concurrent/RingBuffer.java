@@ -0,0 +1,150 @@
+package com.valr.orderbook.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, pre-allocated ring buffer for passing entries from many producers to a single consumer without locks.
+ * <p>
+ * Producers claim a sequence, fill the entry at that sequence in place and publish it. The consumer reads published
+ * entries in sequence order and releases them once processed, which makes their slots available to producers again.
+ * Entries are allocated once up front and reused for the lifetime of the buffer.
+ * <p>
+ * The consumer closes the buffer when it stops: no sequence can be claimed afterwards, so the consumer knows the
+ * last entry it still has to account for, and producers waiting for a free slot fail instead of waiting forever.
+ *
+ * @param <E> the type of the entries
+ */
+public class RingBuffer<E> {
+    private static final long PRODUCER_BACKOFF_NANOS = 1_000;
+    private static final long CLOSED = Long.MAX_VALUE;
+
+    private final Object[] entries;
+    private final AtomicLongArray publishedSequences;
+    private final int mask;
+    private final AtomicLong claimedSequence = new AtomicLong(-1);
+    private volatile long releasedSequence = -1;
+    private volatile long lastSequence = -1;
+
+    /**
+     * Constructor for RingBuffer.
+     *
+     * @param capacity the number of entries, must be a power of two
+     * @param entryFactory the factory used to pre-allocate the entries
+     */
+    public RingBuffer(int capacity, Supplier<E> entryFactory) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a positive power of two: " + capacity);
+        }
+        this.entries = new Object[capacity];
+        this.publishedSequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = entryFactory.get();
+            publishedSequences.set(i, -1);
+        }
+    }
+
+    /**
+     * Claims the next sequence for a producer. Waits while the buffer is full, i.e. until the consumer
+     * releases the entry that previously occupied the slot.
+     *
+     * @return the claimed sequence
+     * @throws IllegalStateException if the buffer is closed, also while waiting for a free slot
+     */
+    public long claim() {
+        while (true) {
+            long current = claimedSequence.get();
+            if (current == CLOSED) {
+                throw new IllegalStateException("Ring buffer is closed.");
+            }
+            long next = current + 1;
+            if (next - entries.length > releasedSequence) {
+                LockSupport.parkNanos(PRODUCER_BACKOFF_NANOS);
+            } else if (claimedSequence.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Returns the entry for a claimed or published sequence.
+     *
+     * @param sequence the sequence
+     * @return the pre-allocated entry at that sequence
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    /**
+     * Makes the entry of a claimed sequence visible to the consumer.
+     *
+     * @param sequence the claimed sequence
+     */
+    public void publish(long sequence) {
+        publishedSequences.set((int) sequence & mask, sequence);
+    }
+
+    /**
+     * Returns the highest sequence, starting at {@code from}, up to which all entries are published.
+     * Entries are published out of order by concurrent producers, so the consumer may only read the
+     * contiguous range.
+     *
+     * @param from the first sequence the consumer has not read yet
+     * @return the last contiguously published sequence, or {@code from - 1} if {@code from} is not published yet
+     */
+    public long getHighestPublishedSequence(long from) {
+        long claimed = claimedSequence.get();
+        if (claimed == CLOSED) {
+            claimed = lastSequence;
+        }
+        for (long sequence = from; sequence <= claimed; sequence++) {
+            if (publishedSequences.get((int) sequence & mask) != sequence) {
+                return sequence - 1;
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Releases all entries up to and including the given sequence, allowing producers to reuse their slots.
+     * Must only be called by the consumer.
+     *
+     * @param sequence the last processed sequence
+     */
+    public void release(long sequence) {
+        releasedSequence = sequence;
+    }
+
+    /**
+     * Closes the buffer for producers. Sequences claimed before are still published by their producers and must
+     * be read by the consumer as usual; every later claim fails. Must only be called by the consumer.
+     *
+     * @return the last sequence claimed before the buffer was closed, or -1 if none was ever claimed
+     */
+    public synchronized long close() {
+        while (true) {
+            long current = claimedSequence.get();
+            if (current == CLOSED) {
+                return lastSequence;
+            }
+            lastSequence = current;
+            if (claimedSequence.compareAndSet(current, CLOSED)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries of the buffer.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return entries.length;
+    }
+}
@@ -0,0 +1,245 @@
+package com.valr.orderbook.event;
+
+import com.valr.orderbook.concurrent.RingBuffer;
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process bus carrying executed trades and order book updates from the matching threads to their downstream
+ * consumers. Matching threads publish into a bounded, pre-allocated ring buffer without locks and return to
+ * matching straight away; a single dispatching thread drains the buffer in batches and hands its content to every
+ * listener in turn. Order entry therefore costs the same however many listeners exist, while a full buffer makes
+ * the matching threads wait instead of growing without bound.
+ * <p>
+ * Trades and updates share the buffer, so listeners of both see the trades of a batch of orders before the update
+ * of the book the batch produced.
+ * <p>
+ * Trades are copied into the buffer and listeners receive new trade objects created by the dispatching thread, so
+ * the trades a publisher returns to its own caller are never written by a listener, for example when the trade
+ * history assigns ids and sequence numbers.
+ */
+@Component
+public class MarketDataBus implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataBus.class);
+    private static final int SPIN_TRIES = 10_000;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final List<TradeListener> tradeListeners;
+    private final List<OrderBookUpdateListener> updateListeners;
+    private final RingBuffer<MarketDataEvent> ringBuffer;
+    private final List<Trade> batch;
+    private final Thread thread;
+    private long nextSequence;
+    private volatile boolean running = true;
+    private volatile boolean waiting;
+
+    /**
+     * Constructor for MarketDataBus without listeners. Publishing to it does nothing.
+     */
+    public MarketDataBus() {
+        this(List.of(), List.of(), 1);
+    }
+
+    /**
+     * Constructor for MarketDataBus. The dispatching thread is started by {@link #start()}.
+     *
+     * @param tradeListeners the listeners receiving every published trade
+     * @param updateListeners the listeners receiving every published order book update
+     * @param ringSize the number of event slots, must be a power of two
+     */
+    @Autowired
+    public MarketDataBus(List<TradeListener> tradeListeners, List<OrderBookUpdateListener> updateListeners,
+                         @Value("${orderbook.events.ring-size}") int ringSize) {
+        this.tradeListeners = List.copyOf(tradeListeners);
+        this.updateListeners = List.copyOf(updateListeners);
+        this.ringBuffer = new RingBuffer<>(ringSize, MarketDataEvent::new);
+        this.batch = new ArrayList<>(ringSize);
+        this.thread = new Thread(this, "market-data-bus");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the dispatching thread, if there is any listener.
+     */
+    @PostConstruct
+    public void start() {
+        if (!tradeListeners.isEmpty() || !updateListeners.isEmpty()) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Publishes one executed trade, given by its fields, to the trade listeners. Does not allocate, so a matching
+     * thread can publish its fills without creating trade objects. Returns once the trade is queued, waiting only
+     * while the buffer is full. Events published by one thread are dispatched in the order they were published.
+     *
+     * @param currencyPair the currency pair of the trade
+     * @param takerSide the side of the incoming order
+     * @param price the execution price
+     * @param quantity the traded quantity
+     * @param quoteVolume the quote volume of the trade
+     * @param tradedAt the execution time in nanoseconds since the epoch
+     */
+    public void publishTrade(String currencyPair, Side takerSide, long price, long quantity, long quoteVolume,
+                             long tradedAt) {
+        if (tradeListeners.isEmpty()) {
+            return;
+        }
+        long sequence = ringBuffer.claim();
+        ringBuffer.get(sequence).setTrade(currencyPair, takerSide, price, quantity, quoteVolume, tradedAt);
+        ringBuffer.publish(sequence);
+        wakeUp();
+    }
+
+    /**
+     * Publishes an order book update to the update listeners. Returns once the update is queued, waiting only
+     * while the buffer is full.
+     *
+     * @param update the update to publish
+     */
+    public void publish(OrderBookUpdate update) {
+        if (updateListeners.isEmpty()) {
+            return;
+        }
+        long sequence = ringBuffer.claim();
+        ringBuffer.get(sequence).update = update;
+        ringBuffer.publish(sequence);
+        wakeUp();
+    }
+
+    /**
+     * Dispatching loop. Drains all published events as one batch, then spins and finally parks until new events
+     * are published.
+     */
+    @Override
+    public void run() {
+        int idleCount = 0;
+        while (running) {
+            if (dispatchBatch()) {
+                idleCount = 0;
+            } else {
+                idleCount = idle(idleCount);
+            }
+        }
+        while (dispatchBatch()) {
+            // drain the events published before shutdown
+        }
+    }
+
+    /**
+     * Hands all published events to the listeners and releases their slots. Consecutive trades are handed over as
+     * one batch; an update first flushes the trades published before it.
+     *
+     * @return true if there were events to dispatch
+     */
+    private boolean dispatchBatch() {
+        long availableSequence = ringBuffer.getHighestPublishedSequence(nextSequence);
+        if (availableSequence < nextSequence) {
+            return false;
+        }
+        for (long sequence = nextSequence; sequence <= availableSequence; sequence++) {
+            MarketDataEvent event = ringBuffer.get(sequence);
+            if (event.isTrade()) {
+                batch.add(event.toTrade());
+            } else {
+                dispatchTrades();
+                dispatchUpdate(event.update);
+            }
+            event.clear();
+        }
+        dispatchTrades();
+        ringBuffer.release(availableSequence);
+        nextSequence = availableSequence + 1;
+        return true;
+    }
+
+    /**
+     * Hands the trades collected since the last flush to every trade listener as one batch, logging listener
+     * failures, then empties the batch.
+     */
+    private void dispatchTrades() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (TradeListener listener : tradeListeners) {
+            try {
+                listener.onTrades(batch);
+            } catch (RuntimeException e) {
+                logger.error("Trade listener {} failed for {} trades", listener.getClass().getSimpleName(),
+                        batch.size(), e);
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * Hands an order book update to every update listener, logging listener failures.
+     *
+     * @param update the update to dispatch
+     */
+    private void dispatchUpdate(OrderBookUpdate update) {
+        for (OrderBookUpdateListener listener : updateListeners) {
+            try {
+                listener.onOrderBookUpdate(update);
+            } catch (RuntimeException e) {
+                logger.error("Order book update listener {} failed for {} version {}",
+                        listener.getClass().getSimpleName(), update.getCurrencyPair(), update.getVersion(), e);
+            }
+        }
+    }
+
+    /**
+     * Unparks the dispatching thread if it is parked waiting for events.
+     */
+    private void wakeUp() {
+        if (waiting) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Waits for new events after an empty poll: spins first, then parks for a bounded time, re-checking the buffer
+     * after announcing the wait so a publication racing with parking is not missed.
+     *
+     * @param idleCount the number of empty polls so far
+     * @return the new number of empty polls
+     */
+    private int idle(int idleCount) {
+        if (idleCount < SPIN_TRIES) {
+            Thread.onSpinWait();
+            return idleCount + 1;
+        }
+        waiting = true;
+        if (ringBuffer.getHighestPublishedSequence(nextSequence) < nextSequence && running) {
+            LockSupport.parkNanos(this, MAX_PARK_NANOS);
+        }
+        waiting = false;
+        return idleCount;
+    }
+
+    /**
+     * Stops the dispatching thread once the events already published have been dispatched.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(MAX_PARK_NANOS / 1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.valr.orderbook.event;
+
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+
+/**
+ * A pre-allocated ring buffer slot carrying either one executed trade or one order book update to the
+ * dispatching thread. Slots are reused, so they are cleared as soon as their content has been dispatched.
+ * <p>
+ * A trade is carried as a copy of its fields rather than as the trade object: the object stays with the publisher,
+ * which may hand it to its own caller, and the dispatching thread creates the trade its listeners receive.
+ */
+class MarketDataEvent {
+    String currencyPair;
+    Side takerSide;
+    long price;
+    long quantity;
+    long quoteVolume;
+    long tradedAt;
+    OrderBookUpdate update;
+
+    /**
+     * Stores the fields of an executed trade in this slot.
+     *
+     * @param currencyPair the currency pair of the trade
+     * @param takerSide the side of the incoming order
+     * @param price the execution price
+     * @param quantity the traded quantity
+     * @param quoteVolume the quote volume of the trade
+     * @param tradedAt the execution time in nanoseconds since the epoch
+     */
+    void setTrade(String currencyPair, Side takerSide, long price, long quantity, long quoteVolume, long tradedAt) {
+        this.currencyPair = currencyPair;
+        this.takerSide = takerSide;
+        this.price = price;
+        this.quantity = quantity;
+        this.quoteVolume = quoteVolume;
+        this.tradedAt = tradedAt;
+    }
+
+    /**
+     * Tells whether this slot carries a trade.
+     *
+     * @return true for a trade, false for an order book update
+     */
+    boolean isTrade() {
+        return currencyPair != null;
+    }
+
+    /**
+     * Creates a new trade from the fields carried by this slot, owned by the dispatching thread.
+     *
+     * @return the trade, without id and sequence
+     */
+    Trade toTrade() {
+        return Trade.builder()
+                .price(price)
+                .quantity(quantity)
+                .currencyPair(currencyPair)
+                .tradedAt(tradedAt)
+                .takerSide(takerSide)
+                .quoteVolume(quoteVolume)
+                .build();
+    }
+
+    /**
+     * Drops the references held by this slot once its content has been dispatched.
+     */
+    void clear() {
+        currencyPair = null;
+        takerSide = null;
+        update = null;
+    }
+}
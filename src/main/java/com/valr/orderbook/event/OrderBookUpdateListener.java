@@ -0,0 +1,18 @@
+package com.valr.orderbook.event;
+
+import com.valr.orderbook.model.OrderBookUpdate;
+
+/**
+ * Consumer of the order book updates published on the {@link MarketDataBus}.
+ * Every Spring bean implementing this interface is registered with the bus.
+ */
+public interface OrderBookUpdateListener {
+
+    /**
+     * Handles the update of an order book. Called on the dispatching thread of the bus, after the trades executed
+     * in the batch of changes the update describes. The updates of a currency pair arrive in version order.
+     *
+     * @param update the levels of the book that changed in one batch
+     */
+    void onOrderBookUpdate(OrderBookUpdate update);
+}
@@ -0,0 +1,20 @@
+package com.valr.orderbook.event;
+
+import com.valr.orderbook.model.Trade;
+
+import java.util.List;
+
+/**
+ * Consumer of the trades published on the {@link MarketDataBus}.
+ * Every Spring bean implementing this interface is registered with the bus.
+ */
+public interface TradeListener {
+
+    /**
+     * Handles a batch of executed trades. Called on the dispatching thread of the bus, one batch at a time.
+     * The trades of a currency pair arrive in execution order.
+     *
+     * @param trades the trades of the batch; the list is reused by the bus and is only valid during the call
+     */
+    void onTrades(List<Trade> trades);
+}
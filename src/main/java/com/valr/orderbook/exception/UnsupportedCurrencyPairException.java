@@ -0,0 +1,16 @@
+package com.valr.orderbook.exception;
+
+/**
+ * Thrown when a command targets a currency pair that is not traded, so no order book exists for it.
+ */
+public class UnsupportedCurrencyPairException extends IllegalArgumentException {
+
+    /**
+     * Constructor for UnsupportedCurrencyPairException.
+     *
+     * @param currencyPair the currency pair that is not traded
+     */
+    public UnsupportedCurrencyPairException(String currencyPair) {
+        super("Unsupported currency pair " + currencyPair + ".");
+    }
+}
@@ -0,0 +1,24 @@
+package com.valr.orderbook.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The order book of a currency pair with its orders summed by price level, best levels first.
+ */
+@Data
+@Builder
+public class AggregatedOrderBook {
+    private String currencyPair;
+    private List<OrderBookLevel> asks;
+    private List<OrderBookLevel> bids;
+    private String lastChange;
+    /**
+     * Version of the book the levels were taken from.
+     */
+    @JsonIgnore
+    private long version;
+}
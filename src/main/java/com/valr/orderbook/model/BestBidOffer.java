@@ -0,0 +1,22 @@
+package com.valr.orderbook.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * The top of the order book of a currency pair: its best bid and best ask level.
+ */
+@Data
+@Builder
+public class BestBidOffer {
+    private String currencyPair;
+    /**
+     * The best bid level, or null if there is no bid.
+     */
+    private OrderBookLevel bid;
+    /**
+     * The best ask level, or null if there is no ask.
+     */
+    private OrderBookLevel ask;
+    private String lastChange;
+}
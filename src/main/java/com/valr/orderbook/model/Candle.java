@@ -0,0 +1,32 @@
+package com.valr.orderbook.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.valr.orderbook.model.json.PriceSerializer;
+import com.valr.orderbook.model.json.QuantitySerializer;
+import com.valr.orderbook.model.json.WideQuoteVolumeSerializer;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigInteger;
+
+@Data
+@Builder
+public class Candle implements CurrencyPairAware {
+    private String currencyPair;
+    private String interval;
+    private String openTime;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long open;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long high;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long low;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long close;
+    @JsonSerialize(using = QuantitySerializer.class)
+    private long volume;
+    @JsonSerialize(using = WideQuoteVolumeSerializer.class)
+    @Builder.Default
+    private BigInteger quoteVolume = BigInteger.ZERO;
+    private int tradeCount;
+}
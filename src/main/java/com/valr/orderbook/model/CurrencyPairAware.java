@@ -0,0 +1,8 @@
+package com.valr.orderbook.model;
+
+/**
+ * Implemented by models whose scaled amounts are interpreted using the precision of their currency pair.
+ */
+public interface CurrencyPairAware {
+    String getCurrencyPair();
+}
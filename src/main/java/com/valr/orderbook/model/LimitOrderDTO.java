@@ -1,16 +1,62 @@
 package com.valr.orderbook.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.model.json.PriceSerializer;
+import com.valr.orderbook.model.json.QuantitySerializer;
+import com.valr.orderbook.util.FixedPoint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class LimitOrderDTO {
+public class LimitOrderDTO implements CurrencyPairAware {
     private Side side;
-    private double quantity;
-    private int price;
+    @JsonSerialize(using = QuantitySerializer.class)
+    private long quantity;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long price;
     private String currencyPair;
-}
\ No newline at end of file
+
+    /**
+     * Creates a limit order from the decimal amounts of a request, scaling them with the precision of the
+     * currency pair. Missing amounts are treated as zero.
+     * Orders whose quote volume (price times quantity) does not fit the scaled representation are rejected, so an
+     * accepted order can never overflow while it is matched.
+     *
+     * @param side the side of the order
+     * @param quantity the decimal quantity
+     * @param price the decimal price
+     * @param currencyPair the currency pair of the order
+     * @return the limit order with scaled amounts
+     * @throws IllegalArgumentException if an amount has more decimal places than the pair supports or the quote
+     *                                  volume of the order is too large
+     */
+    @JsonCreator
+    public static LimitOrderDTO fromDecimals(@JsonProperty("side") Side side,
+                                             @JsonProperty("quantity") BigDecimal quantity,
+                                             @JsonProperty("price") BigDecimal price,
+                                             @JsonProperty("currencyPair") String currencyPair) {
+        LimitOrderDTO limitOrder;
+        try {
+            limitOrder = new LimitOrderDTO(side,
+                    quantity == null ? 0 : FixedPoint.toScaledQuantity(quantity, currencyPair),
+                    price == null ? 0 : FixedPoint.toScaledPrice(price, currencyPair),
+                    currencyPair);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Quantity or price exceeds the precision supported by currency pair "
+                    + currencyPair + ".", e);
+        }
+        if (!FixedPoint.isQuoteVolumeInRange(limitOrder.getPrice(), limitOrder.getQuantity())) {
+            throw new IllegalArgumentException("Quantity times price exceeds the quote volume supported by currency "
+                    + "pair " + currencyPair + ".");
+        }
+        return limitOrder;
+    }
+}
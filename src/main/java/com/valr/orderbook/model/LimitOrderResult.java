@@ -0,0 +1,16 @@
+package com.valr.orderbook.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Result of creating a limit order: the id assigned to the order and the trades it executed.
+ */
+@Data
+@AllArgsConstructor
+public class LimitOrderResult {
+    private long orderId;
+    private List<Trade> trades;
+}
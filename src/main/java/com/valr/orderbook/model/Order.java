@@ -1,31 +1,32 @@
 package com.valr.orderbook.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.model.json.PriceSerializer;
+import com.valr.orderbook.model.json.QuantitySerializer;
 import lombok.*;
 
 @Data
 @Builder
 @AllArgsConstructor
-public class Order implements Comparable<Order> {
+public class Order implements CurrencyPairAware {
+    private long id;
     private Side side;
-    private double quantity;
-    private int price;
+    @JsonSerialize(using = QuantitySerializer.class)
+    private long quantity;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long price;
     private String currencyPair;
 
+    public Order(Side side, long quantity, long price, String currencyPair) {
+        this(0, side, quantity, price, currencyPair);
+    }
+
     public Order(Order order) {
-        this(order.side, order.quantity, order.price, order.currencyPair);
+        this(order.id, order.side, order.quantity, order.price, order.currencyPair);
     }
 
     public Order(LimitOrderDTO orderDTO) {
         this(orderDTO.getSide(), orderDTO.getQuantity(), orderDTO.getPrice(), orderDTO.getCurrencyPair());
     }
-
-    @Override
-    public int compareTo(@NonNull Order order) {
-        if (side == Side.SELL) {
-            return Integer.compare(this.price, order.price);
-        } else {
-            return Integer.compare(this.price, order.price) * -1;
-        }
-    }
-}
\ No newline at end of file
+}
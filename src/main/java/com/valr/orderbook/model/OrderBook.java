@@ -1,5 +1,6 @@
 package com.valr.orderbook.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Data;
 
@@ -11,4 +12,19 @@ public class OrderBook {
     private List<Order> asks;
     private List<Order> bids;
     private String lastChange;
+    /**
+     * Price levels of the asks, best first, in step with {@link #asks}.
+     */
+    @JsonIgnore
+    private List<OrderBookLevel> askLevels;
+    /**
+     * Price levels of the bids, best first, in step with {@link #bids}.
+     */
+    @JsonIgnore
+    private List<OrderBookLevel> bidLevels;
+    /**
+     * Version of the book this snapshot was taken at; it increases with every change of the book.
+     */
+    @JsonIgnore
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.valr.orderbook.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.valr.orderbook.model.json.PriceSerializer;
+import com.valr.orderbook.model.json.QuantitySerializer;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * A price level of one side of the order book: the total quantity and number of the orders resting at a price.
+ */
+@Data
+@Builder
+public class OrderBookLevel implements CurrencyPairAware {
+    @JsonSerialize(using = PriceSerializer.class)
+    private long price;
+    @JsonSerialize(using = QuantitySerializer.class)
+    private long quantity;
+    private int orderCount;
+    @JsonIgnore
+    private String currencyPair;
+}
@@ -0,0 +1,21 @@
+package com.valr.orderbook.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The price levels of an order book that changed in one batch of changes, with their state after the batch.
+ * A level with no orders left has a quantity and order count of zero and is no longer part of the book.
+ * Applying the updates with a version greater than the version of a snapshot, in order, yields the current book.
+ */
+@Data
+@Builder
+public class OrderBookUpdate {
+    private String currencyPair;
+    private long version;
+    private List<OrderBookLevel> asks;
+    private List<OrderBookLevel> bids;
+    private String lastChange;
+}
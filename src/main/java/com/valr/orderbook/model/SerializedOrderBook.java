@@ -0,0 +1,14 @@
+package com.valr.orderbook.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * An order book snapshot serialized as JSON, together with the version of the book it was taken at.
+ */
+@Data
+@AllArgsConstructor
+public class SerializedOrderBook {
+    private long version;
+    private byte[] json;
+}
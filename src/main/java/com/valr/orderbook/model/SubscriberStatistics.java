@@ -0,0 +1,38 @@
+package com.valr.orderbook.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * How far a market data stream subscriber lags behind the order book it follows.
+ */
+@Data
+@Builder
+public class SubscriberStatistics {
+    private long id;
+    private String currencyPair;
+    /**
+     * Version of the last update handed to the subscriber.
+     */
+    private long publishedVersion;
+    /**
+     * Version of the last snapshot or update written to the client.
+     */
+    private long deliveredVersion;
+    /**
+     * Number of book changes the client has not received yet.
+     */
+    private long versionLag;
+    /**
+     * Time the oldest update not yet written to the client has been waiting, or 0 if none is waiting.
+     */
+    private long lagNanos;
+    private int pendingLevels;
+    private int pendingTradeEvents;
+    private long deliveredUpdates;
+    /**
+     * Number of updates merged into a pending update instead of being written on their own.
+     */
+    private long conflatedUpdates;
+    private long deliveredTradeEvents;
+}
@@ -0,0 +1,34 @@
+package com.valr.orderbook.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.valr.orderbook.model.json.PriceSerializer;
+import com.valr.orderbook.model.json.QuantitySerializer;
+import com.valr.orderbook.model.json.WideQuoteVolumeSerializer;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+@Data
+@Builder
+public class Ticker implements CurrencyPairAware {
+    private String currencyPair;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long lastPrice;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long openPrice;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long highPrice;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long lowPrice;
+    @JsonSerialize(using = QuantitySerializer.class)
+    private long baseVolume;
+    @JsonSerialize(using = WideQuoteVolumeSerializer.class)
+    @Builder.Default
+    private BigInteger quoteVolume = BigInteger.ZERO;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long vwap;
+    private BigDecimal changePercent;
+    private long tradeCount;
+}
@@ -1,23 +1,36 @@
 package com.valr.orderbook.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.model.json.EpochNanosSerializer;
+import com.valr.orderbook.model.json.PriceSerializer;
+import com.valr.orderbook.model.json.QuantitySerializer;
+import com.valr.orderbook.model.json.QuoteVolumeSerializer;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
-import java.time.Instant;
-
 @Data
 @Builder
-public class Trade {
-    private int id;
-    private int price;
-    private double quantity;
+@AllArgsConstructor
+public class Trade implements CurrencyPairAware {
+    private long id;
+    /**
+     * Position of the trade in the history of its currency pair, starting at 1 and increasing by 1 per trade.
+     */
+    private long sequence;
+    @JsonSerialize(using = PriceSerializer.class)
+    private long price;
+    @JsonSerialize(using = QuantitySerializer.class)
+    private long quantity;
     private String currencyPair;
-    private String tradedAt;
+    @JsonSerialize(using = EpochNanosSerializer.class)
+    private long tradedAt;
     private Side takerSide;
-    private double quoteVolume;
+    @JsonSerialize(using = QuoteVolumeSerializer.class)
+    private long quoteVolume;
 
-    public Trade(int id, int price, double quantity, String currencyPair, String tradedAt, Side takerSide, double quoteVolume) {
+    public Trade(long id, long price, long quantity, String currencyPair, long tradedAt, Side takerSide, long quoteVolume) {
         this.id = id;
         this.price = price;
         this.quantity = quantity;
@@ -26,14 +39,4 @@ public class Trade {
         this.takerSide = takerSide;
         this.quoteVolume = quoteVolume;
     }
-
-    public Trade(Order order, int id) {
-        this.id = id;
-        this.price = order.getPrice();
-        this.quantity = order.getQuantity();
-        this.currencyPair = order.getCurrencyPair();
-        this.tradedAt = Instant.now().toString();
-        this.takerSide = order.getSide();
-        this.quoteVolume = order.getPrice() * order.getQuantity();
-    }
-}
\ No newline at end of file
+}
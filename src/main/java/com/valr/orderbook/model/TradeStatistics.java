@@ -0,0 +1,16 @@
+package com.valr.orderbook.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class TradeStatistics {
+    private String currencyPair;
+    private long tradeCount;
+    private BigDecimal baseVolume;
+    private BigDecimal quoteVolume;
+    private BigDecimal vwap;
+}
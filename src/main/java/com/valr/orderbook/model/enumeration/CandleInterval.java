@@ -0,0 +1,42 @@
+package com.valr.orderbook.model.enumeration;
+
+import lombok.Getter;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Supported candle intervals, each with the number of candles kept per currency pair.
+ */
+@Getter
+public enum CandleInterval {
+    ONE_MINUTE("1m", TimeUnit.MINUTES.toNanos(1), 1440),
+    FIVE_MINUTES("5m", TimeUnit.MINUTES.toNanos(5), 2016),
+    ONE_HOUR("1h", TimeUnit.HOURS.toNanos(1), 720),
+    ONE_DAY("1d", TimeUnit.DAYS.toNanos(1), 365);
+
+    private final String code;
+    private final long nanos;
+    private final int capacity;
+
+    CandleInterval(String code, long nanos, int capacity) {
+        this.code = code;
+        this.nanos = nanos;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Finds the interval with the specified code.
+     *
+     * @param code the code of the interval, e.g. 5m
+     * @return the interval, or an empty Optional if the code is not supported
+     */
+    public static Optional<CandleInterval> fromCode(String code) {
+        for (CandleInterval interval : values()) {
+            if (interval.code.equals(code)) {
+                return Optional.of(interval);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,37 @@
+package com.valr.orderbook.model.enumeration;
+
+import lombok.Getter;
+
+import java.util.Optional;
+
+/**
+ * Supported formats of a trade history export, each with the media type of the response.
+ */
+@Getter
+public enum TradeExportFormat {
+    CSV("csv", "text/csv"),
+    NDJSON("ndjson", "application/x-ndjson");
+
+    private final String code;
+    private final String mediaType;
+
+    TradeExportFormat(String code, String mediaType) {
+        this.code = code;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Finds the format with the specified code.
+     *
+     * @param code the code of the format, e.g. csv
+     * @return the format, or an empty Optional if the code is not supported
+     */
+    public static Optional<TradeExportFormat> fromCode(String code) {
+        for (TradeExportFormat format : values()) {
+            if (format.code.equals(code)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
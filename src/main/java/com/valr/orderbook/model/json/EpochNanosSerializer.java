@@ -0,0 +1,19 @@
+package com.valr.orderbook.model.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.valr.orderbook.util.EpochClock;
+
+import java.io.IOException;
+
+/**
+ * Writes a timestamp held as nanoseconds since the epoch as an ISO-8601 string.
+ */
+public class EpochNanosSerializer extends JsonSerializer<Long> {
+
+    @Override
+    public void serialize(Long value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeString(EpochClock.toIsoString(value));
+    }
+}
@@ -0,0 +1,16 @@
+package com.valr.orderbook.model.json;
+
+import com.valr.orderbook.util.FixedPoint;
+
+import java.math.BigDecimal;
+
+/**
+ * Writes a scaled price using the price precision of the owning currency pair.
+ */
+public class PriceSerializer extends ScaledAmountSerializer {
+
+    @Override
+    protected BigDecimal toDecimal(long value, String currencyPair) {
+        return FixedPoint.toDecimalPrice(value, currencyPair);
+    }
+}
@@ -0,0 +1,31 @@
+package com.valr.orderbook.model.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.valr.orderbook.model.CurrencyPairAware;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Base serializer writing a scaled long amount as a plain decimal number.
+ * The scale is taken from the currency pair of the object that owns the field.
+ */
+public abstract class ScaledAmountSerializer extends JsonSerializer<Long> {
+
+    @Override
+    public void serialize(Long value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        String currencyPair = gen.currentValue() instanceof CurrencyPairAware owner ? owner.getCurrencyPair() : null;
+        gen.writeNumber(toDecimal(value, currencyPair).stripTrailingZeros().toPlainString());
+    }
+
+    /**
+     * Converts the scaled amount to a decimal.
+     *
+     * @param value the scaled amount
+     * @param currencyPair the currency pair of the owning object, may be null
+     * @return the decimal amount
+     */
+    protected abstract BigDecimal toDecimal(long value, String currencyPair);
+}
@@ -0,0 +1,23 @@
+package com.valr.orderbook.model.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.valr.orderbook.model.CurrencyPairAware;
+import com.valr.orderbook.util.FixedPoint;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Writes a scaled sum of quote volumes, which may exceed a long, as a plain decimal number using the quote volume
+ * precision of the owning currency pair.
+ */
+public class WideQuoteVolumeSerializer extends JsonSerializer<BigInteger> {
+
+    @Override
+    public void serialize(BigInteger value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        String currencyPair = gen.currentValue() instanceof CurrencyPairAware owner ? owner.getCurrencyPair() : null;
+        gen.writeNumber(FixedPoint.toDecimalQuoteVolume(value, currencyPair).stripTrailingZeros().toPlainString());
+    }
+}
@@ -0,0 +1,69 @@
+package com.valr.orderbook.repository;
+
+import com.valr.orderbook.model.Candle;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.CandleInterval;
+import com.valr.orderbook.repository.candle.CandleSeries;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository class for OHLCV candles.
+ * Candles are maintained incrementally for every supported interval as trades are recorded, so reading them
+ * never touches the trade history.
+ */
+@Component
+public class CandleRepository {
+    private static final CandleInterval[] INTERVALS = CandleInterval.values();
+
+    private final Map<String, CandleSeries[]> candlesByPair;
+
+    /**
+     * Constructor for CandleRepository.
+     */
+    public CandleRepository() {
+        candlesByPair = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Folds a trade into the candles of every interval of its currency pair.
+     *
+     * @param trade the executed trade
+     */
+    public void addTrade(Trade trade) {
+        CandleSeries[] series = candlesByPair.computeIfAbsent(trade.getCurrencyPair(), this::createSeries);
+        for (CandleSeries candles : series) {
+            candles.addTrade(trade.getTradedAt(), trade.getPrice(), trade.getQuantity(), trade.getQuoteVolume());
+        }
+    }
+
+    /**
+     * Returns the most recent candles of a currency pair.
+     *
+     * @param currencyPair the currency pair
+     * @param interval the candle interval
+     * @param limit the maximum number of candles to return
+     * @return the candles in ascending time order
+     */
+    public List<Candle> getCandles(String currencyPair, CandleInterval interval, int limit) {
+        CandleSeries[] series = candlesByPair.get(currencyPair);
+        return series == null ? List.of() : series[interval.ordinal()].latest(limit);
+    }
+
+    /**
+     * Creates an empty series for every interval.
+     *
+     * @param currencyPair the currency pair of the series
+     * @return the series, indexed by interval ordinal
+     */
+    private CandleSeries[] createSeries(String currencyPair) {
+        CandleSeries[] series = new CandleSeries[INTERVALS.length];
+        for (CandleInterval interval : INTERVALS) {
+            series[interval.ordinal()] = new CandleSeries(currencyPair, interval);
+        }
+        return series;
+    }
+}
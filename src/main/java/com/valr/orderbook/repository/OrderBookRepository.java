@@ -1,222 +1,228 @@
 package com.valr.orderbook.repository;
 
+import com.valr.orderbook.event.MarketDataBus;
+import com.valr.orderbook.model.BestBidOffer;
 import com.valr.orderbook.model.Order;
 import com.valr.orderbook.model.OrderBook;
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.Trade;
 import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.repository.book.CurrencyPairOrderBook;
+import com.valr.orderbook.repository.book.FillBuffer;
+import com.valr.orderbook.repository.book.OrderStorageType;
+import com.valr.orderbook.util.FixedPoint;
 import jakarta.annotation.PostConstruct;
-import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static com.valr.orderbook.util.CurrencyPairConstants.*;
 
 /**
  * Repository class for managing the order book (in memory - easily switchable to database if needed).
+ * Orders are partitioned by currency pair, each pair having its own independent book. Executed trades and the
+ * level updates of every published snapshot are put on the market data bus for downstream consumers.
  */
 @Component
-@Data
 public class OrderBookRepository {
-    OrderBook orderBook;
+    private final Map<String, CurrencyPairOrderBook> orderBooks;
+    private final AtomicLong orderIdSequence;
+    private final OrderStorageType storageType;
+    private final MarketDataBus marketDataBus;
 
     /**
      * Constructor for OrderBookRepository.
-     * Initializes the order book.
+     * Initializes the order book, storing resting orders on the heap and publishing market data nowhere.
      */
     public OrderBookRepository() {
-        orderBook = OrderBook.builder().build();
+        this(OrderStorageType.HEAP, new MarketDataBus());
     }
 
     /**
-     * Filters the order book by the specified currency pair.
+     * Constructor for OrderBookRepository.
+     * Initializes the order book.
      *
-     * @param currencyPair the currency pair to filter by
-     * @return a filtered OrderBook object
+     * @param storageType where the books store their resting orders
+     * @param marketDataBus the bus executed trades and order book updates are published on
      */
-    public OrderBook filterOrderBookBy(String currencyPair) {
-        return OrderBook.builder()
-                .asks(filterOrderBookList(orderBook.getAsks(), currencyPair))
-                .bids(filterOrderBookList(orderBook.getBids(), currencyPair))
-                .lastChange(orderBook.getLastChange())
-                .build();
+    @Autowired
+    public OrderBookRepository(@Value("${orderbook.storage-type}") OrderStorageType storageType,
+                               MarketDataBus marketDataBus) {
+        orderBooks = new ConcurrentHashMap<>();
+        orderIdSequence = new AtomicLong();
+        this.storageType = storageType;
+        this.marketDataBus = marketDataBus;
     }
 
     /**
-     * Filters a list of orders by the specified currency pair.
+     * Returns the next unique order id. Ids are unique across all currency pairs.
      *
-     * @param orderBook the list of orders to filter
-     * @param currencyPair the currency pair to filter by
-     * @return a filtered list of orders
+     * @return a new order id, starting at 1
      */
-    private List<Order> filterOrderBookList(List<Order> orderBook, String currencyPair) {
-        return orderBook.stream()
-                .filter(order -> order.getCurrencyPair().equals(currencyPair))
-                .collect(Collectors.toList());
+    public long nextOrderId() {
+        return orderIdSequence.incrementAndGet();
     }
 
     /**
-     * Creates a new order and tries to match it with existing orders if possible.
-     * Also does the necessary housekeeping activities like updating the quantity or removing the matched order
-     * from the list.
+     * Replaces the content of all books with the orders of the given read model.
+     * Orders are distributed to the book of their currency pair; orders without an id are assigned one.
      *
-     * @param order the order to create
-     * @return the matched order if a match is found, otherwise null
+     * @param orderBook the order book to load
      */
-    public Order createOrder(Order order) {
-        Optional<Order> matchOrder = matchOppositeOrderType(order);
-        if (matchOrder.isPresent()) {
-            return matchedOrderExecution(order, matchOrder.get());
-        }
-        unmatchedOrderExecution(order);
-        return null;
+    public void setOrderBook(OrderBook orderBook) {
+        orderBooks.clear();
+        Stream.of(orderBook.getBids(), orderBook.getAsks())
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .forEach(order -> {
+                    if (order.getId() == 0) {
+                        order.setId(nextOrderId());
+                    }
+                    getOrCreateOrderBook(order.getCurrencyPair()).loadOrder(order);
+                });
+        orderBooks.values().forEach(book -> {
+            book.setLastChange(orderBook.getLastChange());
+            publishUpdate(book.publishSnapshot());
+        });
     }
 
     /**
-     * Executes logic for matched order. If the quantities are equal, the matched order is removed.
-     * Otherwise, the matched order's quantity is updated and the order book is sorted to reflect possible
-     * order update due to change in quantity.
+     * Returns the last published snapshot of the order book of the specified currency pair.
+     * Reading never blocks the matching thread of the pair; an empty book is returned for pairs without orders.
      *
-     * @param order the order to execute
-     * @param matchedOrder the matched order
-     * @return the executed order
+     * @param currencyPair the currency pair to filter by
+     * @return the immutable OrderBook object of the pair
      */
-    private Order matchedOrderExecution(Order order, Order matchedOrder) {
-        double quantityDiff = subQuantities(order, matchedOrder);
-        if (quantityDiff == 0) {
-            removeOrder(matchedOrder);
-        } else {
-            matchedOrder.setQuantity(quantityDiff);
+    public OrderBook filterOrderBookBy(String currencyPair) {
+        CurrencyPairOrderBook book = orderBooks.get(currencyPair);
+        if (book == null) {
+            return OrderBook.builder()
+                    .asks(List.of())
+                    .bids(List.of())
+                    .askLevels(List.of())
+                    .bidLevels(List.of())
+                    .build();
         }
-        return order;
-    }
-
-    /**
-     * Executes logic for unmatched order in opposite Side.
-     * It tries to match the order with the same price. If found, the quantities are added.
-        * Otherwise, the order is added to the order book and the order book is sorted.
-     *
-     * @param order the order to execute
-     */
-    private void unmatchedOrderExecution(Order order) {
-        matchSamePriceOrder(order).ifPresentOrElse(
-                matchedOrder -> matchedOrder.setQuantity(addQuantities(order, matchedOrder)),
-                () -> addToOrderBook(order)
-        );
+        return book.getSnapshot();
     }
 
     /**
-     * Subtracts the quantities of two orders.
+     * Returns the best bid and offer last published for the book of the specified currency pair.
+     * Costs a map lookup and a volatile read; an empty top of book is returned for pairs without orders.
      *
-     * @param order the order to subtract from
-     * @param matchedOrder the order to subtract
-     * @return the difference in quantities
+     * @param currencyPair the currency pair
+     * @return the immutable top of the book of the pair
      */
-    private static double subQuantities(Order order, Order matchedOrder) {
-        return matchedOrder.getQuantity() - order.getQuantity();
+    public BestBidOffer getBestBidOffer(String currencyPair) {
+        CurrencyPairOrderBook book = orderBooks.get(currencyPair);
+        return book == null ? BestBidOffer.builder().currencyPair(currencyPair).build() : book.getBestBidOffer();
     }
 
     /**
-     * Adds the quantities of two orders.
+     * Returns the best bid and offer last published for every book.
      *
-     * @param order the order to add to
-     * @param matchedOrder the order to add
-     * @return the sum of quantities
+     * @return the tops of all books, ordered by currency pair
      */
-    private static double addQuantities(Order order, Order matchedOrder) {
-        return matchedOrder.getQuantity() + order.getQuantity();
-    }
-
-    /**
-     * Sorts the order book by inspecting the Side of specified order.
-     *
-     * @param order the order to sort by
-     */
-    private void sortOrderBookBy(Order order) {
-        if (order.getSide() == Side.BUY) {
-            Collections.sort(orderBook.getBids());
-        } else {
-            Collections.sort(orderBook.getAsks());
+    public List<BestBidOffer> getBestBidOffers() {
+        List<BestBidOffer> result = new ArrayList<>(orderBooks.size());
+        for (CurrencyPairOrderBook book : orderBooks.values()) {
+            result.add(book.getBestBidOffer());
         }
+        result.sort(Comparator.comparing(BestBidOffer::getCurrencyPair));
+        return result;
     }
 
     /**
-     * Adds a new order to the order book list.
+     * Publishes the changes made to the book of the specified currency pair to readers, and the levels they
+     * touched as an update on the market data bus.
+     * Must be called by the thread that writes to the book, typically once per batch of orders.
      *
-     * @param newOrder the order to add
+     * @param currencyPair the currency pair of the book
      */
-    private void addToOrderBook(Order newOrder) {
-        if (newOrder.getSide() == Side.BUY) {
-            orderBook.getBids().add(newOrder);
-        } else {
-            orderBook.getAsks().add(newOrder);
+    public void publishSnapshot(String currencyPair) {
+        CurrencyPairOrderBook book = orderBooks.get(currencyPair);
+        if (book != null) {
+            publishUpdate(book.publishSnapshot());
         }
-        sortOrderBookBy(newOrder);
     }
 
     /**
-     * Removes an order from the corresponding collection Asks/Bids by inspecting the Side of the Order.
+     * Creates a new order in the book of its currency pair and matches it with existing orders
+     * of the same pair if possible. The change becomes visible to readers with the next published snapshot.
+     * An order without an id is assigned one before it enters the book. The executed trades are published on the
+     * market data bus, which records them asynchronously.
      *
-     * @param order the order to remove
+     * @param order the order to create
+     * @return the trades executed for the order, empty if the order did not match
      */
-    private void removeOrder(Order order) {
-        if (order.getSide() == Side.BUY) {
-            orderBook.getBids().remove(order);
-        }
-        orderBook.getAsks().remove(order);
+    public List<Trade> createOrder(Order order) {
+        FillBuffer fills = new FillBuffer();
+        createOrder(order, fills);
+        return fills.toTrades(order.getCurrencyPair());
     }
 
     /**
-     * Matches an order with the opposite order type.
+     * Creates a new order like {@link #createOrder(Order)}, recording its fills in a buffer owned by the calling
+     * writer thread instead of creating trades. Matching and publishing the fills on the market data bus do not
+     * allocate once the buffer has grown, so the caller decides whether and when trade objects are created.
      *
-     * @param order the order to match
-     * @return an optional containing the matched order if found, otherwise empty
+     * @param order the order to create
+     * @param fills the buffer receiving the fills of the order; cleared first
      */
-    private Optional<Order> matchOppositeOrderType(Order order) {
-        if (order.getSide() == Side.BUY) {
-            return matchBuyOrdersByPriceAndQuantity(order);
+    public void createOrder(Order order, FillBuffer fills) {
+        if (order.getId() == 0) {
+            order.setId(nextOrderId());
+        }
+        String currencyPair = order.getCurrencyPair();
+        fills.clear();
+        getOrCreateOrderBook(currencyPair).createOrder(order, fills);
+        for (int i = 0; i < fills.size(); i++) {
+            marketDataBus.publishTrade(currencyPair, fills.getTakerSide(), fills.getPrice(i), fills.getQuantity(i),
+                    fills.getQuoteVolume(i), fills.getExecutedAt(i));
         }
-        return matchSellOrdersByPriceAndQuantity(order);
     }
 
     /**
-     * Matches a buy order with the asks.
+     * Cancels a resting order in the book of the specified currency pair.
+     * The change becomes visible to readers with the next published snapshot.
      *
-     * @param order the buy order to match
-     * @return an optional containing the matched ask if found, otherwise empty
+     * @param currencyPair the currency pair of the order
+     * @param orderId the id of the order to cancel
+     * @return true if the order was resting in the book and has been cancelled, otherwise false
      */
-    private Optional<Order> matchBuyOrdersByPriceAndQuantity(Order order) {
-        return orderBook.getAsks().stream()
-                .filter(ask -> ask.getPrice() <= order.getPrice())
-                .filter(ask -> ask.getQuantity() >= order.getQuantity())
-                .findFirst();
+    public boolean cancelOrder(String currencyPair, long orderId) {
+        CurrencyPairOrderBook book = orderBooks.get(currencyPair);
+        return book != null && book.cancelOrder(orderId);
     }
 
     /**
-     * Matches a sell order with the bids.
+     * Puts the update of a published snapshot on the market data bus.
      *
-     * @param order the sell order to match
-     * @return an optional containing the matched bid if found, otherwise empty
+     * @param update the update, or null if the book did not change
      */
-    private Optional<Order> matchSellOrdersByPriceAndQuantity(Order order) {
-        return orderBook.getBids().stream()
-                .filter(bid -> bid.getPrice() >= order.getPrice())
-                .filter(bid -> bid.getQuantity() >= order.getQuantity())
-                .findFirst();
+    private void publishUpdate(OrderBookUpdate update) {
+        if (update != null) {
+            marketDataBus.publish(update);
+        }
     }
 
     /**
-     * Matches an order with the same price.
+     * Returns the book of the specified currency pair, creating an empty one on first use.
      *
-     * @param order the order to match
-     * @return an optional containing the matched order if found, otherwise empty
+     * @param currencyPair the currency pair of the book
+     * @return the book of the pair
      */
-    private Optional<Order> matchSamePriceOrder(Order order) {
-        List<Order> orders = order.getSide() == Side.BUY ? orderBook.getBids() : orderBook.getAsks();
-        return orders.stream()
-                .filter(filterOrder -> filterOrder.getPrice() == order.getPrice())
-                .findFirst();
+    private CurrencyPairOrderBook getOrCreateOrderBook(String currencyPair) {
+        CurrencyPairOrderBook book = orderBooks.get(currencyPair);
+        return book != null ? book : orderBooks.computeIfAbsent(currencyPair,
+                pair -> new CurrencyPairOrderBook(pair, storageType));
     }
 
     /**
@@ -239,23 +245,37 @@ public class OrderBookRepository {
         OrderBook orderBook = OrderBook.builder()
                 .build();
         orderBook.setAsks(new ArrayList<>(Arrays.asList(
-                new Order(Side.SELL, 0.90038334, 1186331, BTC_EUR),
-                new Order(Side.SELL, 0.02350766, 1202530, BTC_EUR),
-                new Order(Side.SELL, 0.00100004, 1203000, BTC_ZAR),
-                new Order(Side.SELL, 0.02352094, 1205649, BTC_ZAR),
-                new Order(Side.SELL, 0.552, 1205653, BTC_ZAR),
-                new Order(Side.SELL, 0.0008979, 1205748, ETH_USD),
-                new Order(Side.SELL, 0.001, 1207000, BTC_ZAR)
+                exampleOrder(Side.SELL, "0.90038334", "1186331", BTC_EUR),
+                exampleOrder(Side.SELL, "0.02350766", "1202530", BTC_EUR),
+                exampleOrder(Side.SELL, "0.00100004", "1203000", BTC_ZAR),
+                exampleOrder(Side.SELL, "0.02352094", "1205649", BTC_ZAR),
+                exampleOrder(Side.SELL, "0.552", "1205653", BTC_ZAR),
+                exampleOrder(Side.SELL, "0.0008979", "1205748", ETH_USD),
+                exampleOrder(Side.SELL, "0.001", "1207000", BTC_ZAR)
         )));
         orderBook.setBids(new ArrayList<>(Arrays.asList(
-                new Order(Side.BUY, 0.016, 1204994, BTC_ZAR),
-                new Order(Side.BUY, 0.002036, 1204993, BTC_ZAR),
-                new Order(Side.BUY, 0.18443981, 1204991, ETH_USD),
-                new Order(Side.BUY, 0.00008142, 1204811, BTC_EUR),
-                new Order(Side.BUY, 0.02354031, 1204657, BTC_EUR),
-                new Order(Side.BUY, 0.11498758, 1204532, BTC_ZAR),
-                new Order(Side.BUY, 0.05, 1164656, BTC_ZAR)
+                exampleOrder(Side.BUY, "0.016", "1204994", BTC_ZAR),
+                exampleOrder(Side.BUY, "0.002036", "1204993", BTC_ZAR),
+                exampleOrder(Side.BUY, "0.18443981", "1204991", ETH_USD),
+                exampleOrder(Side.BUY, "0.00008142", "1204811", BTC_EUR),
+                exampleOrder(Side.BUY, "0.02354031", "1204657", BTC_EUR),
+                exampleOrder(Side.BUY, "0.11498758", "1204532", BTC_ZAR),
+                exampleOrder(Side.BUY, "0.05", "1164656", BTC_ZAR)
         )));
         return orderBook;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates an example order from decimal amounts.
+     *
+     * @param side the side of the order
+     * @param quantity the decimal quantity
+     * @param price the decimal price
+     * @param currencyPair the currency pair of the order
+     * @return the order with scaled amounts
+     */
+    private static Order exampleOrder(Side side, String quantity, String price, String currencyPair) {
+        return new Order(side, FixedPoint.toScaledQuantity(new BigDecimal(quantity), currencyPair),
+                FixedPoint.toScaledPrice(new BigDecimal(price), currencyPair), currencyPair);
+    }
+}
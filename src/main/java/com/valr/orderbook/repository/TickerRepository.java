@@ -0,0 +1,70 @@
+package com.valr.orderbook.repository;
+
+import com.valr.orderbook.model.Ticker;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.repository.ticker.TickerWindow;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository class for rolling 24 hour ticker statistics.
+ * Statistics are updated as trades are recorded, so reading the ticker of a pair is constant-time and never
+ * touches the trade history.
+ */
+@Component
+public class TickerRepository {
+    private final Map<String, TickerWindow> windowsByPair;
+
+    /**
+     * Constructor for TickerRepository.
+     */
+    public TickerRepository() {
+        windowsByPair = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Records a trade in the statistics of its currency pair.
+     *
+     * @param trade the executed trade
+     */
+    public void addTrade(Trade trade) {
+        windowsByPair.computeIfAbsent(trade.getCurrencyPair(), TickerWindow::new)
+                .addTrade(trade.getTradedAt(), trade.getPrice(), trade.getQuantity(), trade.getQuoteVolume());
+    }
+
+    /**
+     * Returns the ticker of a currency pair for the last 24 hours.
+     *
+     * @param currencyPair the currency pair
+     * @param nowNanos the end of the window in nanoseconds since the epoch
+     * @return the ticker, with zero values if the pair has never traded
+     */
+    public Ticker getTicker(String currencyPair, long nowNanos) {
+        TickerWindow window = windowsByPair.get(currencyPair);
+        if (window == null) {
+            return Ticker.builder()
+                    .currencyPair(currencyPair)
+                    .changePercent(BigDecimal.ZERO)
+                    .build();
+        }
+        return window.ticker(nowNanos);
+    }
+
+    /**
+     * Returns the tickers of all currency pairs that have traded.
+     *
+     * @param nowNanos the end of the window in nanoseconds since the epoch
+     * @return the tickers ordered by currency pair
+     */
+    public List<Ticker> getTickers(long nowNanos) {
+        return windowsByPair.values().stream()
+                .map(window -> window.ticker(nowNanos))
+                .sorted(Comparator.comparing(Ticker::getCurrencyPair))
+                .toList();
+    }
+}
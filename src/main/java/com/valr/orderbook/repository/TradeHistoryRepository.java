@@ -2,32 +2,88 @@ package com.valr.orderbook.repository;
 
 import com.valr.orderbook.model.Trade;
 import com.valr.orderbook.model.TradeHistory;
+import com.valr.orderbook.model.TradeStatistics;
 import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.repository.trade.PairTradeLog;
+import com.valr.orderbook.util.EpochClock;
+import com.valr.orderbook.util.FixedPoint;
 import jakarta.annotation.PostConstruct;
-import lombok.Data;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static com.valr.orderbook.util.CurrencyPairConstants.*;
 
 /**
  * Repository class for managing trade history.
+ * Trades are partitioned by currency pair into append-only logs, so reading the trades of one pair never
+ * scans the trades of others. In memory, each log stores trades column by column in primitive arrays, so
+ * aggregates run as plain loops over the columns they need. Ids are allocated from a single sequence in O(1) and
+ * increase along each log, which lets a page following an id cursor be read in O(limit) regardless of how many
+ * trades precede it.
+ * <p>
+ * When a journal directory is configured, the logs are journaled to memory-mapped segment files and recovered
+ * on startup, otherwise trades are only kept in memory. The heap used by in-memory logs can be bounded by a hot
+ * capacity, beyond which the oldest trades are moved to cold files and read back on demand.
  */
 @Component
-@Data
 public class TradeHistoryRepository {
-    TradeHistory tradeHistory;
+    private final Map<String, PairTradeLog> tradeLogs;
+    private final AtomicLong tradeIdSequence;
+    private final Function<String, PairTradeLog> logFactory;
 
     /**
-     * Constructor for TradeHistoryRepository.
+     * Constructor for TradeHistoryRepository, keeping trades in memory only.
      * Initializes the trade history.
      */
     public TradeHistoryRepository() {
-        tradeHistory = TradeHistory.builder().build();
+        this("", 0, 0, "", 0);
+    }
+
+    /**
+     * Constructor for TradeHistoryRepository.
+     * Initializes the trade history, recovering the journaled trades of every currency pair if a journal
+     * directory is set. The id sequence continues after the highest recovered trade id. Without a journal, a
+     * positive hot capacity bounds the trades each pair keeps on the heap and spills older ones to cold files.
+     *
+     * @param journalDirectory the root directory of the trade journal, or blank to keep trades in memory only
+     * @param segmentSize the size in bytes of the journal segment files
+     * @param hotCapacity the number of most recent trades per pair kept on the heap, or 0 to keep all of them
+     * @param coldDirectory the root directory of the cold trade files
+     * @param coldCacheSegments the number of cold files per pair kept loaded
+     */
+    @Autowired
+    public TradeHistoryRepository(@Value("${orderbook.trades.journal-directory}") String journalDirectory,
+                                  @Value("${orderbook.trades.segment-size}") int segmentSize,
+                                  @Value("${orderbook.trades.hot-capacity}") int hotCapacity,
+                                  @Value("${orderbook.trades.cold-directory}") String coldDirectory,
+                                  @Value("${orderbook.trades.cold-cache-segments}") int coldCacheSegments) {
+        tradeLogs = new ConcurrentHashMap<>();
+        tradeIdSequence = new AtomicLong();
+        if (!journalDirectory.isBlank()) {
+            Path root = Path.of(journalDirectory);
+            logFactory = currencyPair -> PairTradeLog.journaled(currencyPair, root, segmentSize);
+            recoverJournal(root);
+        } else if (hotCapacity > 0) {
+            Path root = Path.of(coldDirectory);
+            logFactory = currencyPair -> PairTradeLog.tiered(currencyPair, root, hotCapacity, coldCacheSegments);
+        } else {
+            logFactory = PairTradeLog::inMemory;
+        }
     }
 
     /**
@@ -39,65 +95,165 @@ public class TradeHistoryRepository {
      * @return a filtered TradeHistory object
      */
     public TradeHistory filterTradeHistoryBy(String currencyPair, int skip, int limit) {
+        PairTradeLog log = tradeLogs.get(currencyPair);
+        return TradeHistory.builder()
+                .trades(log == null ? List.of() : log.page(skip, limit))
+                .build();
+    }
+
+    /**
+     * Returns the trades of the specified currency pair that follow a sequence number and a trade id cursor and
+     * were executed within a time range, skipping a number of records and limiting the result.
+     * A sequence number is a position of the pair's log and the other bounds are found by binary search on its
+     * ids and times, so the query costs O(log n + skip + limit), or O(skip + limit) with a sequence number only.
+     *
+     * @param currencyPair the currency pair to filter by
+     * @param since the sequence number of the last trade of the pair already seen; only later trades are returned
+     * @param afterId the id of the last trade already seen; only trades with a greater id are returned
+     * @param fromNanos the start of the time range in nanoseconds since the epoch, inclusive
+     * @param toNanos the end of the time range in nanoseconds since the epoch, exclusive
+     * @param skip the number of matching records to skip
+     * @param limit the maximum number of records to return
+     * @return a filtered TradeHistory object
+     */
+    public TradeHistory filterTradeHistoryBy(String currencyPair, long since, long afterId, long fromNanos,
+                                             long toNanos, int skip, int limit) {
+        PairTradeLog log = tradeLogs.get(currencyPair);
+        if (log == null) {
+            return TradeHistory.builder().trades(List.of()).build();
+        }
+        long start = log.positionAfterSequence(since);
+        if (afterId >= 0) {
+            start = Math.max(start, log.positionAfter(afterId));
+        }
+        if (fromNanos != Long.MIN_VALUE) {
+            start = Math.max(start, log.positionAtOrAfter(fromNanos));
+        }
         return TradeHistory.builder()
-                .trades(Optional.ofNullable(tradeHistory.getTrades()).orElse(Collections.emptyList())
-                        .stream()
-                        .filter(trade -> trade.getCurrencyPair().equals(currencyPair))
-                        .skip(skip)
-                        .limit(limit)
-                        .toList())
+                .trades(log.page((int) Math.min(Integer.MAX_VALUE, start + skip), limit, toNanos))
                 .build();
     }
 
     /**
-     * Adds a trade to the trade history.
+     * Aggregates the trades of the specified currency pair executed within a time range.
+     * The aggregation scans the primitive columns of the pair's log and does not create trade objects.
+     *
+     * @param currencyPair the currency pair to aggregate
+     * @param fromNanos the start of the range in nanoseconds since the epoch, inclusive
+     * @param toNanos the end of the range in nanoseconds since the epoch, exclusive
+     * @return the trade count, base and quote volumes and VWAP of the trades in the range
+     */
+    public TradeStatistics getTradeStatistics(String currencyPair, long fromNanos, long toNanos) {
+        PairTradeLog log = tradeLogs.get(currencyPair);
+        if (log == null) {
+            return TradeStatistics.builder()
+                    .currencyPair(currencyPair)
+                    .baseVolume(BigDecimal.ZERO)
+                    .quoteVolume(BigDecimal.ZERO)
+                    .build();
+        }
+        return log.statistics(fromNanos, toNanos);
+    }
+
+    /**
+     * Adds a trade to the trade history of its currency pair, assigning it the next trade id.
      *
      * @param trade the trade to add
+     * @return the id assigned to the trade
      */
-    public void addTrade(Trade trade) {
-        tradeHistory.addTrade(trade);
+    public long addTrade(Trade trade) {
+        return tradeLogs.computeIfAbsent(trade.getCurrencyPair(), logFactory)
+                .append(trade, tradeIdSequence);
     }
 
     /**
-     * Gets the next available ID for a new trade.
+     * Finds a trade by its id.
      *
-     * @return the next available ID
+     * @param id the id of the trade
+     * @return the trade, or an empty Optional if no trade has that id
      */
-    public int getNextAvailableId() {
-        return tradeHistory.getTrades().stream()
-                .map(Trade::getId)
-                .max(Integer::compareTo)
-                .map(num -> num + 1)
-                .orElse(0);
+    public Optional<Trade> findTradeById(long id) {
+        for (PairTradeLog log : tradeLogs.values()) {
+            Trade trade = log.find(id);
+            if (trade != null) {
+                return Optional.of(trade);
+            }
+        }
+        return Optional.empty();
     }
 
     /**
-     * Adds initial data to the repository on startup.
+     * Adds initial data to the repository on startup, unless trades were recovered from the journal.
      * This is just for easier presentation purposes; for a live system, initialization would be added in unit tests.
      */
     @PostConstruct
     public void insertData() {
-        createExampleTradesList(tradeHistory);
+        if (tradeLogs.isEmpty()) {
+            createExampleTradesList();
+        }
+    }
+
+    /**
+     * Makes the journaled trades durable on shutdown.
+     */
+    @PreDestroy
+    public void close() {
+        tradeLogs.values().forEach(PairTradeLog::close);
+    }
+
+    /**
+     * Opens the journal of every currency pair found in the journal directory.
+     *
+     * @param root the root directory of the trade journal
+     */
+    private void recoverJournal(Path root) {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> pairDirectories = Files.list(root)) {
+            pairDirectories.filter(Files::isDirectory)
+                    .map(directory -> directory.getFileName().toString())
+                    .forEach(currencyPair -> {
+                        PairTradeLog log = logFactory.apply(currencyPair);
+                        tradeLogs.put(currencyPair, log);
+                        tradeIdSequence.set(Math.max(tradeIdSequence.get(), log.lastId() + 1));
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover trade journal " + root, e);
+        }
+    }
+
+    /**
+     * Creates example trades and adds them to the trade history.
+     */
+    private void createExampleTradesList() {
+        addTrade(exampleTrade("1199677", "0.00213752", BTC_EUR, "2024-07-11T08:50:12.453Z", Side.SELL));
+        addTrade(exampleTrade("1200677", "0.03225700", BTC_USD, "2024-08-10T09:22:15.363Z", Side.SELL));
+        addTrade(exampleTrade("1230650", "0.00456120", ETH_ZAR, "2024-09-15T18:32:16.363Z", Side.SELL));
+        addTrade(exampleTrade("1358400", "0.75689132", ETH_EUR, "2024-10-17T14:22:18.433Z", Side.SELL));
+        addTrade(exampleTrade("1005522", "2.56879135", ETH_USD, "2024-11-19T03:52:17.413Z", Side.SELL));
+        addTrade(exampleTrade("1015459", "0.56879135", BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL));
+        addTrade(exampleTrade("5168975", "0.56879135", BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL));
+        addTrade(exampleTrade("2159877", "0.56879135", BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL));
+        addTrade(exampleTrade("1111115", "0.56879135", BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL));
+        addTrade(exampleTrade("2222222", "0.56879135", BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL));
+        addTrade(exampleTrade("4567895", "0.56879135", BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL));
     }
 
     /**
-     * Creates an example list of trades and adds it to the trade history.
+     * Creates an example trade from decimal amounts. The id is assigned when the trade is added.
      *
-     * @param tradeHistory the trade history to add the example trades to
+     * @param price the decimal price
+     * @param quantity the decimal quantity
+     * @param currencyPair the currency pair of the trade
+     * @param tradedAt the ISO-8601 time of the trade
+     * @param takerSide the side of the taker
+     * @return the trade with scaled amounts
      */
-    private void createExampleTradesList(TradeHistory tradeHistory) {
-        List<Trade> trades = new LinkedList<>();
-        tradeHistory.setTrades(trades);
-        trades.add(new Trade(getNextAvailableId(),1199677, 0.00213752, BTC_EUR, "2024-07-11T08:50:12.453Z", Side.SELL, 2564.33358104));
-        trades.add(new Trade(getNextAvailableId(),1200677, 0.03225700, BTC_USD, "2024-08-10T09:22:15.363Z", Side.SELL, 38730.237989));
-        trades.add(new Trade(getNextAvailableId(),1230650, 0.00456120, ETH_ZAR, "2024-09-15T18:32:16.363Z", Side.SELL, 5613.24078));
-        trades.add(new Trade(getNextAvailableId(),1358400, 0.75689132, ETH_EUR, "2024-10-17T14:22:18.433Z", Side.SELL, 1028161.169088));
-        trades.add(new Trade(getNextAvailableId(),1005522, 2.56879135, ETH_USD, "2024-11-19T03:52:17.413Z", Side.SELL, 2582976.2158347));
-        trades.add(new Trade(getNextAvailableId(),1015459, 0.56879135, BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL, 570680.8748647));
-        trades.add(new Trade(getNextAvailableId(),5168975, 0.56879135, BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL, 570680.8748647));
-        trades.add(new Trade(getNextAvailableId(),2159877, 0.56879135, BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL, 570680.8748647));
-        trades.add(new Trade(getNextAvailableId(),1111115, 0.56879135, BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL, 570680.8748647));
-        trades.add(new Trade(getNextAvailableId(),2222222, 0.56879135, BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL, 570680.8748647));
-        trades.add(new Trade(getNextAvailableId(),4567895, 0.56879135, BTC_ZAR, "2022-10-11T13:44:24.571Z", Side.SELL, 570680.8748647));
+    private Trade exampleTrade(String price, String quantity, String currencyPair, String tradedAt, Side takerSide) {
+        long scaledPrice = FixedPoint.toScaledPrice(new BigDecimal(price), currencyPair);
+        long scaledQuantity = FixedPoint.toScaledQuantity(new BigDecimal(quantity), currencyPair);
+        return new Trade(0, scaledPrice, scaledQuantity, currencyPair, EpochClock.fromIsoString(tradedAt), takerSide,
+                FixedPoint.quoteVolume(scaledPrice, scaledQuantity));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,317 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.collections.LongLongHashMap;
+import com.valr.orderbook.model.BestBidOffer;
+import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.OrderBook;
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.util.EpochClock;
+import com.valr.orderbook.util.FixedPoint;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The order book of a single currency pair. Bids and asks only ever contain orders of this pair,
+ * so matching and snapshots never touch orders of unrelated pairs.
+ * <p>
+ * The book is mutated by a single writer thread only. Readers never access the levels directly; they read
+ * an immutable snapshot that the writer publishes atomically after a batch of changes, so reads never block
+ * the writer and always see one consistent state together with its {@code lastChange} and version. The version
+ * is bumped by every change of the book and starts at the creation time of the book in epoch nanoseconds, so a
+ * version is not reused when a book is recreated or the service restarts. Snapshots are persistent: a new snapshot
+ * copies only the levels that changed and shares the others with the previous one.
+ * <p>
+ * Matching and cancelling do not allocate in the steady state: resting orders are held in recycled slots of an
+ * {@link OrderStore}, on or off the heap, indexed by id in a primitive map, fills are reported through a
+ * {@link FillListener} and the time of the last change is kept as epoch nanoseconds until a snapshot is published.
+ * <p>
+ * The best bid and offer are published with every snapshot as a separate immutable object taken from the best
+ * levels of the snapshot, whose totals are kept by every mutation, so reading the top of the book is a single
+ * volatile read that touches neither the levels nor the orders.
+ */
+public class CurrencyPairOrderBook {
+    private static final int INITIAL_ORDER_CAPACITY = 1024;
+
+    @Getter
+    private final String currencyPair;
+    private final OrderBookSide bids;
+    private final OrderBookSide asks;
+    private final OrderStore store;
+    private final LongLongHashMap slotsById;
+    private long lastChange;
+    private boolean bidsChanged;
+    private boolean asksChanged;
+    private long version;
+    private volatile OrderBook snapshot;
+    private volatile BestBidOffer bestBidOffer;
+
+    /**
+     * Constructor for CurrencyPairOrderBook, storing resting orders on the heap.
+     *
+     * @param currencyPair the currency pair this book holds orders for
+     */
+    public CurrencyPairOrderBook(String currencyPair) {
+        this(currencyPair, OrderStorageType.HEAP);
+    }
+
+    /**
+     * Constructor for CurrencyPairOrderBook.
+     *
+     * @param currencyPair the currency pair this book holds orders for
+     * @param storageType where the resting orders of the book are stored
+     */
+    public CurrencyPairOrderBook(String currencyPair, OrderStorageType storageType) {
+        this.currencyPair = currencyPair;
+        this.store = OrderStore.create(storageType);
+        this.bids = new OrderBookSide(Side.BUY, store);
+        this.asks = new OrderBookSide(Side.SELL, store);
+        this.slotsById = new LongLongHashMap(INITIAL_ORDER_CAPACITY, OrderStore.NULL_SLOT);
+        this.version = EpochClock.nanos();
+        this.snapshot = OrderBook.builder()
+                .asks(List.of())
+                .bids(List.of())
+                .askLevels(List.of())
+                .bidLevels(List.of())
+                .version(version)
+                .build();
+        this.bestBidOffer = BestBidOffer.builder()
+                .currencyPair(currencyPair)
+                .build();
+    }
+
+    /**
+     * Returns the best bid and offer of the last published snapshot. Safe to call from any thread, never blocks and
+     * does not allocate.
+     *
+     * @return the immutable top of the book
+     */
+    public BestBidOffer getBestBidOffer() {
+        return bestBidOffer;
+    }
+
+    /**
+     * Returns the last published snapshot of the book. Safe to call from any thread and never blocks.
+     *
+     * @return an immutable OrderBook object with orders in price-time priority
+     */
+    public OrderBook getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes a new snapshot if the book changed since the last publication.
+     * Only the levels that changed are copied; all other levels, and a side without changes as a whole, are shared
+     * with the previous snapshot, so publishing costs O(log n) per changed level plus the orders of the changed
+     * levels, whatever the depth of the book. The levels touched since the last publication are returned as an
+     * update carrying the version of the new snapshot, so consumers can follow the book without reading snapshots.
+     * Must be called by the writer thread.
+     *
+     * @return the update from the previous snapshot to the new one, or null if the book did not change
+     */
+    public OrderBookUpdate publishSnapshot() {
+        if (!bidsChanged && !asksChanged) {
+            return null;
+        }
+        List<OrderBookLevel> changedAsks = asks.publishChangedLevels(currencyPair);
+        List<OrderBookLevel> changedBids = bids.publishChangedLevels(currencyPair);
+        SideSnapshot publishedAsks = asks.getPublished();
+        SideSnapshot publishedBids = bids.getPublished();
+        OrderBook published = OrderBook.builder()
+                .asks(publishedAsks.getOrders())
+                .bids(publishedBids.getOrders())
+                .askLevels(publishedAsks.getLevels())
+                .bidLevels(publishedBids.getLevels())
+                .lastChange(lastChange == 0 ? null : EpochClock.toIsoString(lastChange))
+                .version(version)
+                .build();
+        snapshot = published;
+        bestBidOffer = BestBidOffer.builder()
+                .currencyPair(currencyPair)
+                .bid(published.getBidLevels().isEmpty() ? null : published.getBidLevels().get(0))
+                .ask(published.getAskLevels().isEmpty() ? null : published.getAskLevels().get(0))
+                .lastChange(published.getLastChange())
+                .build();
+        bidsChanged = false;
+        asksChanged = false;
+        return OrderBookUpdate.builder()
+                .currencyPair(currencyPair)
+                .version(version)
+                .asks(changedAsks)
+                .bids(changedBids)
+                .lastChange(published.getLastChange())
+                .build();
+    }
+
+    /**
+     * Adds an order directly to its side, without trying to match it.
+     * Used for loading existing book data.
+     *
+     * @param order the order to add
+     * @throws IllegalArgumentException if the quote volume of the order does not fit a long
+     */
+    public void loadOrder(Order order) {
+        checkQuoteVolume(order);
+        restOrder(order.getId(), order.getSide(), order.getQuantity(), order.getPrice());
+    }
+
+    /**
+     * Sets the time of the last change of this book.
+     *
+     * @param lastChange the ISO-8601 timestamp of the last change, or null if unknown
+     */
+    public void setLastChange(String lastChange) {
+        this.lastChange = lastChange == null ? 0 : EpochClock.fromIsoString(lastChange);
+    }
+
+    /**
+     * Creates a new order and matches it against the opposite side of the book, sweeping as many price levels
+     * and resting orders as needed. Whatever quantity is left after matching rests in the book at the order price,
+     * behind the orders already resting at that price.
+     *
+     * @param order the order to create, with its unique id already assigned
+     * @return the trades executed for the order, one per fill, in execution order
+     */
+    public List<Trade> createOrder(Order order) {
+        FillBuffer fills = new FillBuffer();
+        createOrder(order, fills);
+        return fills.toTrades(currencyPair);
+    }
+
+    /**
+     * Creates a new order and matches it against the opposite side of the book without allocating.
+     * Levels are walked best price first and resting orders are filled in time priority, partially if needed.
+     * Matching stops as soon as the order is fully filled or the best level no longer crosses its limit price,
+     * so only the levels actually traded against are visited. Each fill, including its quote volume, is computed
+     * before the book is touched and applied as a whole before it is reported. The remainder rests in the book;
+     * the order object itself is not retained and may be reused by the caller.
+     *
+     * @param order the order to create, with its unique id already assigned; its quantity is reduced by the
+     *              filled quantity
+     * @param listener the listener receiving each fill, once the fill has been applied to the book
+     * @throws IllegalArgumentException if the quote volume of the order does not fit a long; the book is unchanged
+     * @throws RuntimeException if the listener throws; matching stops there, the fills reported so far stay
+     *                          applied, the book remains consistent and the remainder of the order does not rest
+     */
+    public void createOrder(Order order, FillListener listener) {
+        checkQuoteVolume(order);
+        lastChange = EpochClock.nanos();
+        Side takerSide = order.getSide();
+        OrderBookSide oppositeSide = takerSide == Side.BUY ? asks : bids;
+        long remaining = order.getQuantity();
+        long limitPrice = order.getPrice();
+        PriceLevel level = oppositeSide.getBestLevel();
+        while (level != null && remaining > 0 && oppositeSide.crosses(level.getPrice(), limitPrice)) {
+            int maker = level.getHead();
+            long makerId = store.id(maker);
+            long price = level.getPrice();
+            long fillQuantity = Math.min(remaining, store.quantity(maker));
+            long quoteVolume = FixedPoint.quoteVolume(price, fillQuantity);
+            remaining -= fillQuantity;
+            applyFill(oppositeSide, level, maker, fillQuantity);
+            order.setQuantity(remaining);
+            listener.onFill(makerId, takerSide, price, fillQuantity, quoteVolume, lastChange);
+            level = oppositeSide.getBestLevel();
+        }
+        if (remaining > 0) {
+            restOrder(order.getId(), takerSide, remaining, limitPrice);
+        }
+    }
+
+    /**
+     * Applies one fill to a resting order: reduces its quantity and the total of its level, marks its side as
+     * changed and unlinks and releases the order once it is fully filled. None of these steps can fail, so the
+     * book is never left with a fill applied only in part.
+     *
+     * @param side the side the resting order belongs to
+     * @param level the level of the resting order
+     * @param maker the slot of the resting order
+     * @param fillQuantity the filled quantity, at most the quantity of the resting order
+     */
+    private void applyFill(OrderBookSide side, PriceLevel level, int maker, long fillQuantity) {
+        long makerQuantity = store.quantity(maker) - fillQuantity;
+        store.setQuantity(maker, makerQuantity);
+        side.reduceQuantity(level, fillQuantity);
+        markChanged(side.getSide());
+        if (makerQuantity == 0) {
+            slotsById.remove(store.id(maker));
+            side.removeOrder(maker);
+            store.release(maker);
+        }
+    }
+
+    /**
+     * Cancels a resting order. The order is found through the id index and unlinked from its level in O(1),
+     * regardless of the depth of the book.
+     *
+     * @param orderId the id of the order to cancel
+     * @return true if the order was resting in the book and has been removed, otherwise false
+     */
+    public boolean cancelOrder(long orderId) {
+        int slot = (int) slotsById.remove(orderId);
+        if (slot == OrderStore.NULL_SLOT) {
+            return false;
+        }
+        lastChange = EpochClock.nanos();
+        Side side = store.side(slot);
+        markChanged(side);
+        sideOf(side).removeOrder(slot);
+        store.release(slot);
+        return true;
+    }
+
+    /**
+     * Adds an order to the end of the queue of its price level and indexes it by id.
+     *
+     * @param id the id of the order
+     * @param side the side of the order
+     * @param quantity the quantity left to rest
+     * @param price the limit price of the order
+     */
+    private void restOrder(long id, Side side, long quantity, long price) {
+        int slot = store.allocate(id, side, quantity, price);
+        slotsById.put(id, slot);
+        sideOf(side).addOrder(slot);
+        markChanged(side);
+    }
+
+    /**
+     * Marks a side as changed since the last published snapshot and bumps the version of the book.
+     *
+     * @param side the side that changed
+     */
+    private void markChanged(Side side) {
+        version++;
+        if (side == Side.BUY) {
+            bidsChanged = true;
+        } else {
+            asksChanged = true;
+        }
+    }
+
+    /**
+     * Rejects an order whose quote volume does not fit a long. Fills of accepted orders can then never overflow,
+     * see {@link FixedPoint#isQuoteVolumeInRange}.
+     *
+     * @param order the order entering the book
+     */
+    private static void checkQuoteVolume(Order order) {
+        if (!FixedPoint.isQuoteVolumeInRange(order.getPrice(), order.getQuantity())) {
+            throw new IllegalArgumentException("Quote volume of order " + order.getId() + " exceeds the supported range");
+        }
+    }
+
+    /**
+     * Returns the book side orders of the specified side rest on.
+     *
+     * @param side the side of an order
+     * @return bids for BUY orders, asks for SELL orders
+     */
+    private OrderBookSide sideOf(Side side) {
+        return side == Side.BUY ? bids : asks;
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reusable holder of the fills of one incoming order, kept in primitive arrays.
+ * A writer thread owns one buffer, clears it before each order and reads the fills back once matching is done, so
+ * recording fills allocates nothing once the arrays have grown to the largest number of fills of an order.
+ * <p>
+ * The buffer is not thread-safe.
+ */
+public class FillBuffer implements FillListener {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Side takerSide;
+    private long[] makerOrderIds = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private long[] quantities = new long[INITIAL_CAPACITY];
+    private long[] quoteVolumes = new long[INITIAL_CAPACITY];
+    private long[] executedAts = new long[INITIAL_CAPACITY];
+    private int size;
+
+    @Override
+    public void onFill(long makerOrderId, Side takerSide, long price, long quantity, long quoteVolume,
+                       long executedAt) {
+        if (size == prices.length) {
+            grow();
+        }
+        this.takerSide = takerSide;
+        makerOrderIds[size] = makerOrderId;
+        prices[size] = price;
+        quantities[size] = quantity;
+        quoteVolumes[size] = quoteVolume;
+        executedAts[size] = executedAt;
+        size++;
+    }
+
+    /**
+     * Forgets the fills of the previous order, keeping the arrays.
+     */
+    public void clear() {
+        takerSide = null;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of fills recorded since the last clear.
+     *
+     * @return the number of fills
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the side of the incoming order the fills belong to.
+     *
+     * @return the taker side, or null if there are no fills
+     */
+    public Side getTakerSide() {
+        return takerSide;
+    }
+
+    /**
+     * Returns the id of the resting order of a fill.
+     *
+     * @param index the position of the fill, in execution order
+     * @return the id of the maker order
+     */
+    public long getMakerOrderId(int index) {
+        return makerOrderIds[checkIndex(index)];
+    }
+
+    /**
+     * Returns the execution price of a fill.
+     *
+     * @param index the position of the fill, in execution order
+     * @return the scaled price
+     */
+    public long getPrice(int index) {
+        return prices[checkIndex(index)];
+    }
+
+    /**
+     * Returns the filled quantity of a fill.
+     *
+     * @param index the position of the fill, in execution order
+     * @return the scaled quantity
+     */
+    public long getQuantity(int index) {
+        return quantities[checkIndex(index)];
+    }
+
+    /**
+     * Returns the quote volume of a fill.
+     *
+     * @param index the position of the fill, in execution order
+     * @return the scaled quote volume
+     */
+    public long getQuoteVolume(int index) {
+        return quoteVolumes[checkIndex(index)];
+    }
+
+    /**
+     * Returns the execution time of a fill.
+     *
+     * @param index the position of the fill, in execution order
+     * @return the execution time in nanoseconds since the epoch
+     */
+    public long getExecutedAt(int index) {
+        return executedAts[checkIndex(index)];
+    }
+
+    /**
+     * Creates the trades of the recorded fills, for handing them to a caller outside the writer thread. This is
+     * the only step allocating per fill; the trades do not reference the buffer.
+     *
+     * @param currencyPair the currency pair of the book the fills were executed in
+     * @return a new list of trades in execution order, without ids, or an empty immutable list without fills
+     */
+    public List<Trade> toTrades(String currencyPair) {
+        if (size == 0) {
+            return List.of();
+        }
+        List<Trade> trades = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            trades.add(new Trade(0, prices[i], quantities[i], currencyPair, executedAts[i], takerSide,
+                    quoteVolumes[i]));
+        }
+        return trades;
+    }
+
+    /**
+     * Doubles the capacity of all arrays.
+     */
+    private void grow() {
+        int capacity = prices.length * 2;
+        makerOrderIds = Arrays.copyOf(makerOrderIds, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        quoteVolumes = Arrays.copyOf(quoteVolumes, capacity);
+        executedAts = Arrays.copyOf(executedAts, capacity);
+    }
+
+    /**
+     * Checks that a fill has been recorded at a position.
+     *
+     * @param index the position of the fill
+     * @return the position
+     */
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size);
+    }
+}
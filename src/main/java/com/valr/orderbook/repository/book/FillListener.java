@@ -0,0 +1,25 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.enumeration.Side;
+
+/**
+ * Receives the fills of an incoming order while it is matched.
+ * Fills are passed as primitives, so matching never has to allocate a trade object. Implementations must not
+ * modify the book they are called from.
+ */
+@FunctionalInterface
+public interface FillListener {
+
+    /**
+     * Called once per fill, in execution order, after the fill has been applied to the book. An exception stops
+     * matching but leaves the book consistent.
+     *
+     * @param makerOrderId the id of the resting order that was filled
+     * @param takerSide the side of the incoming order
+     * @param price the execution price, always the price of the resting order
+     * @param quantity the filled quantity
+     * @param quoteVolume the quote volume of the fill, price times quantity in the scale of the quote currency
+     * @param executedAt the execution time in nanoseconds since the epoch
+     */
+    void onFill(long makerOrderId, Side takerSide, long price, long quantity, long quoteVolume, long executedAt);
+}
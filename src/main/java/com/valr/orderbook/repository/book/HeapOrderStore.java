@@ -0,0 +1,95 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.enumeration.Side;
+
+import java.util.Arrays;
+
+/**
+ * Order store keeping each field in its own primitive array on the heap.
+ * The whole book costs a handful of arrays instead of one object per order, and the arrays only grow, by doubling.
+ */
+class HeapOrderStore extends OrderStore {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final Side[] SIDES = Side.values();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] quantities = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private int[] previous = new int[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private byte[] sides = new byte[INITIAL_CAPACITY];
+
+    @Override
+    long id(int slot) {
+        return ids[slot];
+    }
+
+    @Override
+    Side side(int slot) {
+        return SIDES[sides[slot]];
+    }
+
+    @Override
+    long quantity(int slot) {
+        return quantities[slot];
+    }
+
+    @Override
+    void setQuantity(int slot, long quantity) {
+        quantities[slot] = quantity;
+    }
+
+    @Override
+    long price(int slot) {
+        return prices[slot];
+    }
+
+    @Override
+    int previous(int slot) {
+        return previous[slot];
+    }
+
+    @Override
+    void setPrevious(int slot, int previous) {
+        this.previous[slot] = previous;
+    }
+
+    @Override
+    int next(int slot) {
+        return next[slot];
+    }
+
+    @Override
+    void setNext(int slot, int next) {
+        this.next[slot] = next;
+    }
+
+    @Override
+    void setId(int slot, long id) {
+        ids[slot] = id;
+    }
+
+    @Override
+    void setSide(int slot, Side side) {
+        sides[slot] = (byte) side.ordinal();
+    }
+
+    @Override
+    void setPrice(int slot, long price) {
+        prices[slot] = price;
+    }
+
+    @Override
+    void ensureCapacity(int slots) {
+        if (slots <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(slots, ids.length << 1);
+        ids = Arrays.copyOf(ids, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        next = Arrays.copyOf(next, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+    }
+}
@@ -0,0 +1,95 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.enumeration.Side;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Immutable copy of one price level, taken by the writer when a snapshot is published after the level changed.
+ * A level that does not change is not copied again; its last copy is shared by every later snapshot.
+ * <p>
+ * The orders of the level are packed into a buffer as id and remaining quantity, in time priority, so a copy costs
+ * one buffer instead of one object per order. The buffer is on the heap whatever the storage of the book: copies are
+ * taken on every publication, and a direct buffer per copy would be far more expensive to allocate and release.
+ * {@link Order} objects are only created when a reader asks for them.
+ */
+class LevelSnapshot {
+    private static final int ORDER_SIZE = 16;
+    private static final int QUANTITY_OFFSET = 8;
+
+    @Getter
+    private final OrderBookLevel level;
+    private final Side side;
+    private final ByteBuffer orders;
+
+    /**
+     * Constructor for LevelSnapshot.
+     *
+     * @param level the price, total quantity and order count of the level
+     * @param side the side of the book the level belongs to
+     * @param orders the packed orders of the level, not modified afterwards
+     */
+    private LevelSnapshot(OrderBookLevel level, Side side, ByteBuffer orders) {
+        this.level = level;
+        this.side = side;
+        this.orders = orders;
+    }
+
+    /**
+     * Copies the current state of a level. Must be called by the writer thread.
+     *
+     * @param level the level to copy
+     * @param side the side of the book the level belongs to
+     * @param store the store holding the orders of the level
+     * @param currencyPair the currency pair of the book
+     * @return the copy of the level
+     */
+    static LevelSnapshot of(PriceLevel level, Side side, OrderStore store, String currencyPair) {
+        ByteBuffer orders = ByteBuffer.allocate(level.getOrderCount() * ORDER_SIZE);
+        int offset = 0;
+        for (int slot = level.getHead(); slot != OrderStore.NULL_SLOT; slot = store.next(slot)) {
+            orders.putLong(offset, store.id(slot));
+            orders.putLong(offset + QUANTITY_OFFSET, store.quantity(slot));
+            offset += ORDER_SIZE;
+        }
+        return new LevelSnapshot(OrderBookLevel.builder()
+                .price(level.getPrice())
+                .quantity(level.getTotalQuantity())
+                .orderCount(level.getOrderCount())
+                .currencyPair(currencyPair)
+                .build(), side, orders);
+    }
+
+    /**
+     * Returns the price of the level.
+     *
+     * @return the price
+     */
+    long getPrice() {
+        return level.getPrice();
+    }
+
+    /**
+     * Returns the number of orders resting on the level.
+     *
+     * @return the order count
+     */
+    int getOrderCount() {
+        return level.getOrderCount();
+    }
+
+    /**
+     * Creates the order at a position of the level queue.
+     *
+     * @param index the position of the order, 0 for the order with the highest time priority
+     * @return a new order object holding the state of the order at the time of the copy
+     */
+    Order getOrder(int index) {
+        int offset = index * ORDER_SIZE;
+        return new Order(orders.getLong(offset), side, orders.getLong(offset + QUANTITY_OFFSET), level.getPrice(),
+                level.getCurrencyPair());
+    }
+}
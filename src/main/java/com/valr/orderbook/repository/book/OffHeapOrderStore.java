@@ -0,0 +1,114 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.enumeration.Side;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Order store keeping slots in direct buffers outside the Java heap.
+ * Slots are fixed-width records in chunks of {@value #SLOTS_PER_CHUNK}; growing adds a chunk and never copies
+ * existing slots. The heap only holds the chunk references, so heap usage and GC work do not grow with the depth
+ * of the book. The memory is released when the store becomes unreachable.
+ * <p>
+ * Only the live orders are stored off the heap. The copies of changed levels taken for published snapshots are
+ * small, short-lived heap buffers, which the collector reclaims cheaply, unlike a direct buffer per copy.
+ * <p>
+ * Slot layout: id (8 bytes), quantity (8), price (8), previous (4), next (4), side (1), padding (7).
+ */
+class OffHeapOrderStore extends OrderStore {
+    static final int SLOT_SIZE = 40;
+    static final int SLOTS_PER_CHUNK = 1 << 14;
+
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(SLOTS_PER_CHUNK);
+    private static final int SLOT_MASK = SLOTS_PER_CHUNK - 1;
+    private static final int ID_OFFSET = 0;
+    private static final int QUANTITY_OFFSET = 8;
+    private static final int PRICE_OFFSET = 16;
+    private static final int PREVIOUS_OFFSET = 24;
+    private static final int NEXT_OFFSET = 28;
+    private static final int SIDE_OFFSET = 32;
+    private static final Side[] SIDES = Side.values();
+
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount;
+
+    @Override
+    long id(int slot) {
+        return chunk(slot).getLong(offset(slot) + ID_OFFSET);
+    }
+
+    @Override
+    Side side(int slot) {
+        return SIDES[chunk(slot).get(offset(slot) + SIDE_OFFSET)];
+    }
+
+    @Override
+    long quantity(int slot) {
+        return chunk(slot).getLong(offset(slot) + QUANTITY_OFFSET);
+    }
+
+    @Override
+    void setQuantity(int slot, long quantity) {
+        chunk(slot).putLong(offset(slot) + QUANTITY_OFFSET, quantity);
+    }
+
+    @Override
+    long price(int slot) {
+        return chunk(slot).getLong(offset(slot) + PRICE_OFFSET);
+    }
+
+    @Override
+    int previous(int slot) {
+        return chunk(slot).getInt(offset(slot) + PREVIOUS_OFFSET);
+    }
+
+    @Override
+    void setPrevious(int slot, int previous) {
+        chunk(slot).putInt(offset(slot) + PREVIOUS_OFFSET, previous);
+    }
+
+    @Override
+    int next(int slot) {
+        return chunk(slot).getInt(offset(slot) + NEXT_OFFSET);
+    }
+
+    @Override
+    void setNext(int slot, int next) {
+        chunk(slot).putInt(offset(slot) + NEXT_OFFSET, next);
+    }
+
+    @Override
+    void setId(int slot, long id) {
+        chunk(slot).putLong(offset(slot) + ID_OFFSET, id);
+    }
+
+    @Override
+    void setSide(int slot, Side side) {
+        chunk(slot).put(offset(slot) + SIDE_OFFSET, (byte) side.ordinal());
+    }
+
+    @Override
+    void setPrice(int slot, long price) {
+        chunk(slot).putLong(offset(slot) + PRICE_OFFSET, price);
+    }
+
+    @Override
+    void ensureCapacity(int slots) {
+        while ((long) chunkCount << CHUNK_SHIFT < slots) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount << 1);
+            }
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(SLOTS_PER_CHUNK * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    private ByteBuffer chunk(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int slot) {
+        return (slot & SLOT_MASK) * SLOT_SIZE;
+    }
+}
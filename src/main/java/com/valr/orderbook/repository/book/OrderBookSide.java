@@ -0,0 +1,392 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.collections.Hashing;
+import com.valr.orderbook.collections.LongLongHashMap;
+import com.valr.orderbook.collections.LongObjectHashMap;
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.enumeration.Side;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One side (bids or asks) of the order book, indexed by price level.
+ * Levels form a treap ordered by price: a binary search tree whose nodes are the levels themselves, kept balanced
+ * in expectation by a random priority per level, so inserting and removing a level are O(log n) whatever the depth
+ * of the book, and need no allocation. The best level is cached and read in O(1).
+ * A primitive price index resolves the level of an existing price in O(1), so the tree is only walked when a level
+ * is created or removed.
+ * Orders themselves live in the {@link OrderStore} of the book and are referenced by slot.
+ * Empty levels are pooled and reused, so adding and removing levels does not allocate in the steady state.
+ * <p>
+ * Every mutation records the price of the level it touched, so the levels that changed since the last publication
+ * are known without comparing snapshots; the record is a primitive set and an array of prices, both reused. Only
+ * those levels are copied into the next published {@link SideSnapshot}.
+ */
+public class OrderBookSide {
+    private static final int INITIAL_LEVEL_CAPACITY = 64;
+
+    @Getter
+    private final Side side;
+    private final OrderStore store;
+    private final LongObjectHashMap<PriceLevel> levelsByPrice;
+    private final long prioritySeed;
+    private PriceLevel root;
+    private PriceLevel bestLevel;
+    private int levelCount;
+    private PriceLevel freeLevels;
+    private final LongLongHashMap changedPrices;
+    private long[] changedLevels;
+    private int changedCount;
+    private SideSnapshot published;
+
+    /**
+     * Constructor for OrderBookSide.
+     * Bids (BUY) are ordered by descending price, asks (SELL) by ascending price.
+     *
+     * @param side the side of the book this instance represents
+     * @param store the store holding the orders of the book
+     */
+    OrderBookSide(Side side, OrderStore store) {
+        this.side = side;
+        this.store = store;
+        this.prioritySeed = ThreadLocalRandom.current().nextLong();
+        this.levelsByPrice = new LongObjectHashMap<>(INITIAL_LEVEL_CAPACITY);
+        this.changedPrices = new LongLongHashMap(INITIAL_LEVEL_CAPACITY, 0);
+        this.changedLevels = new long[INITIAL_LEVEL_CAPACITY];
+        this.published = SideSnapshot.empty(side);
+    }
+
+    /**
+     * Returns the level with the best price on this side.
+     *
+     * @return the best price level or null if the side is empty
+     */
+    public PriceLevel getBestLevel() {
+        return bestLevel;
+    }
+
+    /**
+     * Returns the level for the exact price.
+     *
+     * @param price the price of the level
+     * @return the price level or null if no orders rest at that price
+     */
+    public PriceLevel getLevel(long price) {
+        return levelsByPrice.get(price);
+    }
+
+    /**
+     * Returns the number of price levels on this side.
+     *
+     * @return the number of non-empty levels
+     */
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * Checks whether a price on this side crosses the given price of an incoming opposite order,
+     * i.e. whether an opposite order at {@code limitPrice} may trade with a level at {@code levelPrice}.
+     *
+     * @param levelPrice the price of a level on this side
+     * @param limitPrice the limit price of the incoming opposite order
+     * @return true if the prices cross
+     */
+    public boolean crosses(long levelPrice, long limitPrice) {
+        return side == Side.BUY ? levelPrice >= limitPrice : levelPrice <= limitPrice;
+    }
+
+    /**
+     * Adds an order to the end of the queue of its price level, creating the level if needed.
+     *
+     * @param slot the slot of the order to add
+     */
+    void addOrder(int slot) {
+        long price = store.price(slot);
+        PriceLevel level = levelsByPrice.get(price);
+        if (level == null) {
+            level = insertLevel(price);
+        }
+        level.append(slot);
+        markChanged(price);
+    }
+
+    /**
+     * Reduces the total quantity of a level after one of its orders was partially or fully filled.
+     *
+     * @param level the level of the filled order
+     * @param quantity the filled quantity
+     */
+    void reduceQuantity(PriceLevel level, long quantity) {
+        level.reduceQuantity(quantity);
+        markChanged(level.getPrice());
+    }
+
+    /**
+     * Removes an order from its price level in O(1). A level left empty is removed and returned to the pool.
+     *
+     * @param slot the slot of the order to remove
+     */
+    void removeOrder(int slot) {
+        long price = store.price(slot);
+        PriceLevel level = levelsByPrice.get(price);
+        level.unlink(slot);
+        markChanged(price);
+        if (level.isEmpty()) {
+            removeLevel(level);
+        }
+    }
+
+    /**
+     * Removes all levels from this side.
+     */
+    public void clear() {
+        for (PriceLevel level : bestFirst()) {
+            markChanged(level.getPrice());
+        }
+        root = null;
+        bestLevel = null;
+        levelCount = 0;
+        levelsByPrice.clear();
+    }
+
+    /**
+     * Returns the copy of this side published with the last snapshot. Safe to read from any thread once the
+     * snapshot holding it has been published.
+     *
+     * @return the immutable published side
+     */
+    SideSnapshot getPublished() {
+        return published;
+    }
+
+    /**
+     * Publishes the levels changed since the last publication and forgets the changes. Only the changed levels are
+     * copied, with their orders; all other levels are shared with the previously published side, so the cost
+     * depends on what changed, not on the depth of the book. Must be called by the writer thread.
+     * A level that was emptied is listed with a quantity and order count of zero.
+     *
+     * @param currencyPair the currency pair of the book this side belongs to
+     * @return an unmodifiable list of the changed levels with their current totals, in the order they first changed
+     */
+    List<OrderBookLevel> publishChangedLevels(String currencyPair) {
+        List<OrderBookLevel> result = new ArrayList<>(changedCount);
+        SideSnapshot snapshot = published;
+        for (int i = 0; i < changedCount; i++) {
+            long price = changedLevels[i];
+            changedPrices.remove(price);
+            PriceLevel level = levelsByPrice.get(price);
+            if (level == null) {
+                snapshot = snapshot.without(price);
+                result.add(OrderBookLevel.builder()
+                        .price(price)
+                        .currencyPair(currencyPair)
+                        .build());
+            } else {
+                LevelSnapshot copy = LevelSnapshot.of(level, side, store, currencyPair);
+                snapshot = snapshot.with(copy);
+                result.add(copy.getLevel());
+            }
+        }
+        changedCount = 0;
+        published = snapshot;
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Records a change of the level at a price, once per publication.
+     *
+     * @param price the price of the changed level
+     */
+    private void markChanged(long price) {
+        if (changedPrices.put(price, 1) != 0) {
+            return;
+        }
+        if (changedCount == changedLevels.length) {
+            changedLevels = Arrays.copyOf(changedLevels, changedCount << 1);
+        }
+        changedLevels[changedCount++] = price;
+    }
+
+    /**
+     * Inserts a new level, taken from the pool if possible, into the tree.
+     *
+     * @param price the price of the level
+     * @return the new level
+     */
+    private PriceLevel insertLevel(long price) {
+        PriceLevel level = freeLevels;
+        if (level == null) {
+            level = new PriceLevel(store, price);
+        } else {
+            freeLevels = level.nextFree;
+            level.reset(price);
+        }
+        level.priority = Hashing.mix(price ^ prioritySeed);
+        root = insert(root, level);
+        if (bestLevel == null || rank(price) > rank(bestLevel.getPrice())) {
+            bestLevel = level;
+        }
+        levelCount++;
+        levelsByPrice.put(price, level);
+        return level;
+    }
+
+    /**
+     * Removes an empty level from the tree and returns it to the pool.
+     *
+     * @param level the level to remove
+     */
+    private void removeLevel(PriceLevel level) {
+        root = remove(root, level);
+        if (level == bestLevel) {
+            bestLevel = last(root);
+        }
+        levelCount--;
+        levelsByPrice.remove(level.getPrice());
+        level.nextFree = freeLevels;
+        freeLevels = level;
+    }
+
+    /**
+     * Inserts a level into a subtree as a leaf, then rotates it up while its priority is higher than its parent's.
+     *
+     * @param node the root of the subtree, or null
+     * @param level the level to insert
+     * @return the new root of the subtree
+     */
+    private PriceLevel insert(PriceLevel node, PriceLevel level) {
+        if (node == null) {
+            return level;
+        }
+        if (rank(level.getPrice()) < rank(node.getPrice())) {
+            node.left = insert(node.left, level);
+            return node.left.priority > node.priority ? rotateRight(node) : node;
+        }
+        node.right = insert(node.right, level);
+        return node.right.priority > node.priority ? rotateLeft(node) : node;
+    }
+
+    /**
+     * Removes a level from a subtree by replacing it with the merge of its children.
+     *
+     * @param node the root of the subtree containing the level
+     * @param level the level to remove
+     * @return the new root of the subtree
+     */
+    private PriceLevel remove(PriceLevel node, PriceLevel level) {
+        if (node == level) {
+            return merge(node.left, node.right);
+        }
+        if (rank(level.getPrice()) < rank(node.getPrice())) {
+            node.left = remove(node.left, level);
+        } else {
+            node.right = remove(node.right, level);
+        }
+        return node;
+    }
+
+    /**
+     * Merges two subtrees where every level of the first ranks below every level of the second.
+     *
+     * @param left the lower subtree, or null
+     * @param right the higher subtree, or null
+     * @return the root of the merged subtree
+     */
+    private static PriceLevel merge(PriceLevel left, PriceLevel right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        return right;
+    }
+
+    /**
+     * Rotates a subtree to the right, lifting its left child.
+     *
+     * @param node the root of the subtree
+     * @return the new root of the subtree
+     */
+    private static PriceLevel rotateRight(PriceLevel node) {
+        PriceLevel left = node.left;
+        node.left = left.right;
+        left.right = node;
+        return left;
+    }
+
+    /**
+     * Rotates a subtree to the left, lifting its right child.
+     *
+     * @param node the root of the subtree
+     * @return the new root of the subtree
+     */
+    private static PriceLevel rotateLeft(PriceLevel node) {
+        PriceLevel right = node.right;
+        node.right = right.left;
+        right.left = node;
+        return right;
+    }
+
+    /**
+     * Returns the highest ranked level of a subtree.
+     *
+     * @param node the root of the subtree, or null
+     * @return the best level of the subtree, or null if it is empty
+     */
+    private static PriceLevel last(PriceLevel node) {
+        if (node == null) {
+            return null;
+        }
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    /**
+     * Lists the levels best first. Allocates, so it is only used off the matching path.
+     *
+     * @return the levels of this side, best first
+     */
+    private List<PriceLevel> bestFirst() {
+        List<PriceLevel> result = new ArrayList<>(levelCount);
+        collectBestFirst(root, result);
+        return result;
+    }
+
+    /**
+     * Adds the levels of a subtree to a list, highest rank first.
+     *
+     * @param node the root of the subtree, or null
+     * @param result the list to add to
+     */
+    private static void collectBestFirst(PriceLevel node, List<PriceLevel> result) {
+        if (node != null) {
+            collectBestFirst(node.right, result);
+            result.add(node);
+            collectBestFirst(node.left, result);
+        }
+    }
+
+    /**
+     * Maps a price to its rank on this side, where a better price has a higher rank.
+     *
+     * @param price the price
+     * @return the rank of the price
+     */
+    private long rank(long price) {
+        return side == Side.BUY ? price : -price;
+    }
+}
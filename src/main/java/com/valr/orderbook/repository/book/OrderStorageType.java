@@ -0,0 +1,16 @@
+package com.valr.orderbook.repository.book;
+
+/**
+ * Where the resting orders of a book are stored.
+ */
+public enum OrderStorageType {
+    /**
+     * Slots in primitive arrays on the Java heap.
+     */
+    HEAP,
+    /**
+     * Slots in direct buffers outside the Java heap, for very deep books: heap usage and GC pauses stay flat
+     * as the number of resting orders grows.
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,144 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.enumeration.Side;
+
+/**
+ * Storage of the resting orders of one book in fixed-width slots addressed by an int index.
+ * A slot holds the fields of one order together with the links of the intrusive queue of its price level, so
+ * levels reference orders by slot index only. Freed slots are kept in a free list, linked through their
+ * {@code next} field, and reused before the store grows, so resting orders do not allocate in the steady state.
+ * <p>
+ * Implementations decide where the slots live, and where the copies of levels published in snapshots live; the
+ * free-list management is shared. Not thread-safe.
+ */
+abstract class OrderStore {
+    static final int NULL_SLOT = -1;
+
+    private int freeSlot = NULL_SLOT;
+    private int usedSlots;
+    private int size;
+
+    /**
+     * Creates a store with the specified storage type.
+     *
+     * @param type the storage type
+     * @return an empty store
+     */
+    static OrderStore create(OrderStorageType type) {
+        return type == OrderStorageType.OFF_HEAP ? new OffHeapOrderStore() : new HeapOrderStore();
+    }
+
+    /**
+     * Takes a slot from the free list, or a new one if the list is empty, and writes an order into it.
+     *
+     * @param id the id of the order
+     * @param side the side of the order
+     * @param quantity the remaining quantity of the order
+     * @param price the limit price of the order
+     * @return the slot of the order, unlinked
+     */
+    int allocate(long id, Side side, long quantity, long price) {
+        int slot = freeSlot;
+        if (slot == NULL_SLOT) {
+            slot = usedSlots++;
+            ensureCapacity(usedSlots);
+        } else {
+            freeSlot = next(slot);
+        }
+        setId(slot, id);
+        setSide(slot, side);
+        setQuantity(slot, quantity);
+        setPrice(slot, price);
+        setPrevious(slot, NULL_SLOT);
+        setNext(slot, NULL_SLOT);
+        size++;
+        return slot;
+    }
+
+    /**
+     * Returns a slot to the free list once its order is filled or cancelled.
+     *
+     * @param slot the slot, already unlinked from its level
+     */
+    void release(int slot) {
+        setNext(slot, freeSlot);
+        freeSlot = slot;
+        size--;
+    }
+
+    /**
+     * Returns the number of orders held by the store.
+     *
+     * @return the number of allocated slots that are not free
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id of the order in a slot.
+     */
+    abstract long id(int slot);
+
+    /**
+     * Returns the side of the order in a slot.
+     */
+    abstract Side side(int slot);
+
+    /**
+     * Returns the remaining quantity of the order in a slot.
+     */
+    abstract long quantity(int slot);
+
+    /**
+     * Updates the remaining quantity of the order in a slot.
+     */
+    abstract void setQuantity(int slot, long quantity);
+
+    /**
+     * Returns the limit price of the order in a slot.
+     */
+    abstract long price(int slot);
+
+    /**
+     * Returns the slot before this one in the level queue, or {@link #NULL_SLOT}.
+     */
+    abstract int previous(int slot);
+
+    /**
+     * Links a slot to the slot before it in the level queue.
+     */
+    abstract void setPrevious(int slot, int previous);
+
+    /**
+     * Returns the slot after this one in the level queue or free list, or {@link #NULL_SLOT}.
+     */
+    abstract int next(int slot);
+
+    /**
+     * Links a slot to the slot after it in the level queue or free list.
+     */
+    abstract void setNext(int slot, int next);
+
+    /**
+     * Writes the id of the order in a slot.
+     */
+    abstract void setId(int slot, long id);
+
+    /**
+     * Writes the side of the order in a slot.
+     */
+    abstract void setSide(int slot, Side side);
+
+    /**
+     * Writes the limit price of the order in a slot.
+     */
+    abstract void setPrice(int slot, long price);
+
+    /**
+     * Makes sure slots {@code 0} to {@code slots - 1} can be addressed.
+     *
+     * @param slots the number of slots needed
+     */
+    abstract void ensureCapacity(int slots);
+}
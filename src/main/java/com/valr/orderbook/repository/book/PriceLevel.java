@@ -0,0 +1,125 @@
+package com.valr.orderbook.repository.book;
+
+import lombok.Getter;
+
+import static com.valr.orderbook.repository.book.OrderStore.NULL_SLOT;
+
+/**
+ * A single price level of one side of the order book.
+ * Orders resting on the level are kept in arrival (FIFO) order in an intrusive doubly-linked queue whose links
+ * live in the order store, so appending, taking the first order and removing any order are all O(1).
+ * The total quantity of the level is maintained as orders are added, filled and removed, so an aggregated view
+ * of the book reads it without visiting the orders. Levels are pooled by their side and reused for a new price
+ * once they become empty.
+ * <p>
+ * A level is also a node of the price tree of its side: the child links and the priority live in the level itself,
+ * so the tree does not allocate nodes of its own.
+ */
+public class PriceLevel {
+    private final OrderStore store;
+    @Getter
+    private long price;
+    @Getter
+    private int orderCount;
+    @Getter
+    private long totalQuantity;
+    private int head = NULL_SLOT;
+    private int tail = NULL_SLOT;
+    PriceLevel left;
+    PriceLevel right;
+    int priority;
+    PriceLevel nextFree;
+
+    /**
+     * Constructor for PriceLevel.
+     *
+     * @param store the store holding the orders of the level
+     * @param price the price shared by all orders on this level
+     */
+    PriceLevel(OrderStore store, long price) {
+        this.store = store;
+        this.price = price;
+    }
+
+    /**
+     * Appends an order to the end of the level queue.
+     *
+     * @param slot the slot of the order to append
+     */
+    void append(int slot) {
+        store.setPrevious(slot, tail);
+        store.setNext(slot, NULL_SLOT);
+        if (tail == NULL_SLOT) {
+            head = slot;
+        } else {
+            store.setNext(tail, slot);
+        }
+        tail = slot;
+        orderCount++;
+        totalQuantity += store.quantity(slot);
+    }
+
+    /**
+     * Reduces the total quantity of the level after an order of the level was partially or fully filled.
+     *
+     * @param quantity the filled quantity
+     */
+    void reduceQuantity(long quantity) {
+        totalQuantity -= quantity;
+    }
+
+    /**
+     * Unlinks an order from the level queue. The remaining quantity of the order leaves the level total.
+     *
+     * @param slot the slot of the order to unlink, must belong to this level
+     */
+    void unlink(int slot) {
+        int previous = store.previous(slot);
+        int next = store.next(slot);
+        if (previous == NULL_SLOT) {
+            head = next;
+        } else {
+            store.setNext(previous, next);
+        }
+        if (next == NULL_SLOT) {
+            tail = previous;
+        } else {
+            store.setPrevious(next, previous);
+        }
+        store.setPrevious(slot, NULL_SLOT);
+        store.setNext(slot, NULL_SLOT);
+        orderCount--;
+        totalQuantity -= store.quantity(slot);
+    }
+
+    /**
+     * Returns the slot of the order with the highest time priority on the level.
+     *
+     * @return the first slot or {@link OrderStore#NULL_SLOT} if the level is empty
+     */
+    int getHead() {
+        return head;
+    }
+
+    /**
+     * Checks whether the level has any resting orders left.
+     *
+     * @return true if there are no orders on this level
+     */
+    public boolean isEmpty() {
+        return head == NULL_SLOT;
+    }
+
+    /**
+     * Prepares an empty level for reuse at another price.
+     *
+     * @param price the new price of the level
+     */
+    void reset(long price) {
+        this.price = price;
+        this.totalQuantity = 0;
+        this.left = null;
+        this.right = null;
+        this.nextFree = null;
+    }
+}
@@ -0,0 +1,363 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.collections.Hashing;
+import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.enumeration.Side;
+import lombok.Getter;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable, persistent view of one side of the book as published in a snapshot.
+ * Level copies are kept in a treap ordered best price first, whose nodes also count the levels and orders below
+ * them. Changing a level copies only the nodes on its path, so a new snapshot costs O(log n) per changed level and
+ * shares every other level, and its nodes, with the previous snapshot; publishing does not depend on the depth of
+ * the book. Readers get the levels and orders as unmodifiable lists: indexed access is O(log n) and iteration
+ * walks the tree.
+ */
+class SideSnapshot {
+    private final Side side;
+    private final long prioritySeed;
+    private final Node root;
+    @Getter
+    private final List<OrderBookLevel> levels;
+    @Getter
+    private final List<Order> orders;
+
+    /**
+     * Constructor for SideSnapshot.
+     *
+     * @param side the side of the book
+     * @param prioritySeed the seed of the node priorities, shared by all versions of the side
+     * @param root the root of the level tree, or null if the side is empty
+     */
+    private SideSnapshot(Side side, long prioritySeed, Node root) {
+        this.side = side;
+        this.prioritySeed = prioritySeed;
+        this.root = root;
+        this.levels = new LevelList();
+        this.orders = new OrderList();
+    }
+
+    /**
+     * Creates the snapshot of an empty side.
+     *
+     * @param side the side of the book
+     * @return a snapshot without levels
+     */
+    static SideSnapshot empty(Side side) {
+        return new SideSnapshot(side, ThreadLocalRandom.current().nextLong(), null);
+    }
+
+    /**
+     * Returns a snapshot where the level at the price of the given copy is replaced by it, or added.
+     *
+     * @param level the new copy of the level
+     * @return the new snapshot, sharing all other levels with this one
+     */
+    SideSnapshot with(LevelSnapshot level) {
+        return new SideSnapshot(side, prioritySeed,
+                put(root, level, key(level.getPrice()), Hashing.mix(level.getPrice() ^ prioritySeed)));
+    }
+
+    /**
+     * Returns a snapshot without the level at a price.
+     *
+     * @param price the price of the level to remove
+     * @return the new snapshot, or this one if it has no level at the price
+     */
+    SideSnapshot without(long price) {
+        Node newRoot = remove(root, key(price));
+        return newRoot == root ? this : new SideSnapshot(side, prioritySeed, newRoot);
+    }
+
+    /**
+     * Maps a price to its position key, so that ascending keys are ordered best price first.
+     *
+     * @param price the price
+     * @return the key of the price on this side
+     */
+    private long key(long price) {
+        return side == Side.BUY ? -price : price;
+    }
+
+    /**
+     * Adds or replaces a level in a subtree, copying the nodes on its path and rotating the new node up while its
+     * priority is higher than its parent's.
+     *
+     * @param node the root of the subtree, or null
+     * @param level the level copy
+     * @param key the key of the level
+     * @param priority the priority of the level
+     * @return the root of the new subtree
+     */
+    private Node put(Node node, LevelSnapshot level, long key, int priority) {
+        if (node == null) {
+            return new Node(level, null, null, priority);
+        }
+        long nodeKey = key(node.level.getPrice());
+        if (key == nodeKey) {
+            return new Node(level, node.left, node.right, node.priority);
+        }
+        if (key < nodeKey) {
+            Node left = put(node.left, level, key, priority);
+            if (left.priority > node.priority) {
+                return new Node(left.level, left.left, new Node(node.level, left.right, node.right, node.priority),
+                        left.priority);
+            }
+            return new Node(node.level, left, node.right, node.priority);
+        }
+        Node right = put(node.right, level, key, priority);
+        if (right.priority > node.priority) {
+            return new Node(right.level, new Node(node.level, node.left, right.left, node.priority), right.right,
+                    right.priority);
+        }
+        return new Node(node.level, node.left, right, node.priority);
+    }
+
+    /**
+     * Removes a level from a subtree, copying the nodes on its path.
+     *
+     * @param node the root of the subtree, or null
+     * @param key the key of the level to remove
+     * @return the root of the new subtree, or the same subtree if it has no level with the key
+     */
+    private Node remove(Node node, long key) {
+        if (node == null) {
+            return null;
+        }
+        long nodeKey = key(node.level.getPrice());
+        if (key == nodeKey) {
+            return merge(node.left, node.right);
+        }
+        if (key < nodeKey) {
+            Node left = remove(node.left, key);
+            return left == node.left ? node : new Node(node.level, left, node.right, node.priority);
+        }
+        Node right = remove(node.right, key);
+        return right == node.right ? node : new Node(node.level, node.left, right, node.priority);
+    }
+
+    /**
+     * Merges two subtrees where every key of the first is lower than every key of the second, copying the nodes
+     * along the seam.
+     *
+     * @param left the lower subtree, or null
+     * @param right the higher subtree, or null
+     * @return the root of the merged subtree
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return new Node(left.level, left.left, merge(left.right, right), left.priority);
+        }
+        return new Node(right.level, merge(left, right.left), right.right, right.priority);
+    }
+
+    /**
+     * Returns the number of levels of a subtree.
+     *
+     * @param node the root of the subtree, or null
+     * @return the number of levels
+     */
+    private static int levelCount(Node node) {
+        return node == null ? 0 : node.levelCount;
+    }
+
+    /**
+     * Returns the number of orders of a subtree.
+     *
+     * @param node the root of the subtree, or null
+     * @return the number of orders
+     */
+    private static int orderCount(Node node) {
+        return node == null ? 0 : node.orderCount;
+    }
+
+    /**
+     * An immutable node of the level tree.
+     */
+    private static final class Node {
+        private final LevelSnapshot level;
+        private final Node left;
+        private final Node right;
+        private final int priority;
+        private final int levelCount;
+        private final int orderCount;
+
+        /**
+         * Constructor for Node.
+         *
+         * @param level the level copy held by the node
+         * @param left the subtree of better levels, or null
+         * @param right the subtree of worse levels, or null
+         * @param priority the priority of the node in the treap
+         */
+        private Node(LevelSnapshot level, Node left, Node right, int priority) {
+            this.level = level;
+            this.left = left;
+            this.right = right;
+            this.priority = priority;
+            this.levelCount = levelCount(left) + 1 + levelCount(right);
+            this.orderCount = orderCount(left) + level.getOrderCount() + orderCount(right);
+        }
+    }
+
+    /**
+     * Iterates over the levels of the tree, best first, keeping the path to the next level on a stack.
+     */
+    private final class LevelIterator implements Iterator<LevelSnapshot> {
+        private final Deque<Node> path = new ArrayDeque<>();
+
+        /**
+         * Constructor for LevelIterator, positioned before the best level.
+         */
+        private LevelIterator() {
+            descend(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public LevelSnapshot next() {
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node node = path.pop();
+            descend(node.right);
+            return node.level;
+        }
+
+        /**
+         * Pushes a subtree and its chain of left children onto the path.
+         *
+         * @param node the root of the subtree, or null
+         */
+        private void descend(Node node) {
+            for (; node != null; node = node.left) {
+                path.push(node);
+            }
+        }
+    }
+
+    /**
+     * The levels of the side, best first, with their total quantities and order counts.
+     */
+    private final class LevelList extends AbstractList<OrderBookLevel> {
+
+        @Override
+        public OrderBookLevel get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            Node node = root;
+            while (true) {
+                int leftCount = levelCount(node.left);
+                if (index < leftCount) {
+                    node = node.left;
+                } else if (index == leftCount) {
+                    return node.level.getLevel();
+                } else {
+                    index -= leftCount + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return levelCount(root);
+        }
+
+        @Override
+        public Iterator<OrderBookLevel> iterator() {
+            LevelIterator levels = new LevelIterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return levels.hasNext();
+                }
+
+                @Override
+                public OrderBookLevel next() {
+                    return levels.next().getLevel();
+                }
+            };
+        }
+    }
+
+    /**
+     * The orders of the side in price-time priority.
+     */
+    private final class OrderList extends AbstractList<Order> {
+
+        @Override
+        public Order get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            Node node = root;
+            while (true) {
+                int leftCount = orderCount(node.left);
+                int levelOrders = node.level.getOrderCount();
+                if (index < leftCount) {
+                    node = node.left;
+                } else if (index < leftCount + levelOrders) {
+                    return node.level.getOrder(index - leftCount);
+                } else {
+                    index -= leftCount + levelOrders;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return orderCount(root);
+        }
+
+        @Override
+        public Iterator<Order> iterator() {
+            LevelIterator levels = new LevelIterator();
+            return new Iterator<>() {
+                private LevelSnapshot level;
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    while (level == null || index == level.getOrderCount()) {
+                        if (!levels.hasNext()) {
+                            return false;
+                        }
+                        level = levels.next();
+                        index = 0;
+                    }
+                    return true;
+                }
+
+                @Override
+                public Order next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return level.getOrder(index++);
+                }
+            };
+        }
+    }
+}
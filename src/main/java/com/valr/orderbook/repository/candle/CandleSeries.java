@@ -0,0 +1,156 @@
+package com.valr.orderbook.repository.candle;
+
+import com.valr.orderbook.model.Candle;
+import com.valr.orderbook.model.enumeration.CandleInterval;
+import com.valr.orderbook.repository.trade.VolumeSum;
+import com.valr.orderbook.util.EpochClock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The most recent OHLCV candles of one currency pair and interval.
+ * Candles live in a ring of primitive columns indexed by the bucket number modulo the capacity, so a trade is
+ * folded into its candle in O(1) and a bucket is reset in place when the ring wraps around to a newer interval.
+ * The quote volume of a candle is summed in 128 bits, so a busy interval cannot overflow it.
+ * Trades arriving out of order still update the open and close by their execution time; trades older than the
+ * candle currently held by their slot fall outside the retained window and are ignored.
+ * Intervals without trades have no candle.
+ * <p>
+ * Updates and reads are synchronized on the series.
+ */
+public class CandleSeries {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final String currencyPair;
+    private final CandleInterval interval;
+    private final long[] buckets;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final VolumeSum[] volumes;
+    private final int[] tradeCounts;
+    private final long[] openTimes;
+    private final long[] closeTimes;
+    private long latestBucket = EMPTY;
+
+    /**
+     * Constructor for CandleSeries.
+     *
+     * @param currencyPair the currency pair of the candles
+     * @param interval the interval of the candles, which also defines how many are kept
+     */
+    public CandleSeries(String currencyPair, CandleInterval interval) {
+        int capacity = interval.getCapacity();
+        this.currencyPair = currencyPair;
+        this.interval = interval;
+        this.buckets = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.closes = new long[capacity];
+        this.volumes = new VolumeSum[capacity];
+        this.tradeCounts = new int[capacity];
+        this.openTimes = new long[capacity];
+        this.closeTimes = new long[capacity];
+        Arrays.fill(buckets, EMPTY);
+        Arrays.setAll(volumes, slot -> new VolumeSum());
+    }
+
+    /**
+     * Folds a trade into the candle of its interval.
+     *
+     * @param tradedAt the execution time in nanoseconds since the epoch
+     * @param price the scaled price of the trade
+     * @param quantity the scaled quantity of the trade
+     * @param quoteVolume the scaled quote volume of the trade
+     */
+    public synchronized void addTrade(long tradedAt, long price, long quantity, long quoteVolume) {
+        long bucket = Math.floorDiv(tradedAt, interval.getNanos());
+        int slot = slotOf(bucket);
+        if (buckets[slot] != bucket) {
+            if (buckets[slot] != EMPTY && buckets[slot] > bucket) {
+                return;
+            }
+            buckets[slot] = bucket;
+            opens[slot] = price;
+            highs[slot] = price;
+            lows[slot] = price;
+            closes[slot] = price;
+            volumes[slot].clear();
+            tradeCounts[slot] = 0;
+            openTimes[slot] = tradedAt;
+            closeTimes[slot] = tradedAt;
+        }
+        highs[slot] = Math.max(highs[slot], price);
+        lows[slot] = Math.min(lows[slot], price);
+        if (tradedAt < openTimes[slot]) {
+            opens[slot] = price;
+            openTimes[slot] = tradedAt;
+        }
+        if (tradedAt >= closeTimes[slot]) {
+            closes[slot] = price;
+            closeTimes[slot] = tradedAt;
+        }
+        volumes[slot].add(quantity, quoteVolume);
+        tradeCounts[slot]++;
+        if (latestBucket == EMPTY || bucket > latestBucket) {
+            latestBucket = bucket;
+        }
+    }
+
+    /**
+     * Returns the candles of the most recent intervals that had trades, up to the latest trade.
+     *
+     * @param limit the maximum number of candles to return
+     * @return the candles in ascending time order
+     */
+    public synchronized List<Candle> latest(int limit) {
+        if (latestBucket == EMPTY || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Candle> candles = new ArrayList<>(Math.min(limit, buckets.length));
+        for (long bucket = latestBucket; bucket > latestBucket - buckets.length && candles.size() < limit; bucket--) {
+            int slot = slotOf(bucket);
+            if (buckets[slot] == bucket) {
+                candles.add(toCandle(slot));
+            }
+        }
+        Collections.reverse(candles);
+        return candles;
+    }
+
+    /**
+     * Maps a bucket number to its slot in the ring.
+     *
+     * @param bucket the bucket number
+     * @return the slot of the bucket
+     */
+    private int slotOf(long bucket) {
+        return Math.floorMod(bucket, buckets.length);
+    }
+
+    /**
+     * Copies the candle held by a slot.
+     *
+     * @param slot the slot of the candle
+     * @return the candle
+     */
+    private Candle toCandle(int slot) {
+        return Candle.builder()
+                .currencyPair(currencyPair)
+                .interval(interval.getCode())
+                .openTime(EpochClock.toIsoString(buckets[slot] * interval.getNanos()))
+                .open(opens[slot])
+                .high(highs[slot])
+                .low(lows[slot])
+                .close(closes[slot])
+                .volume(volumes[slot].getBaseVolume())
+                .quoteVolume(volumes[slot].getQuoteVolume())
+                .tradeCount(tradeCounts[slot])
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.valr.orderbook.repository.ticker;
+
+import com.valr.orderbook.collections.LongRingDeque;
+import com.valr.orderbook.model.Ticker;
+import com.valr.orderbook.repository.trade.VolumeSum;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling 24 hour statistics of one currency pair.
+ * Trades are aggregated into one-minute buckets held in a ring of primitive columns. Volumes and the trade count
+ * are kept as running totals that are reduced when a bucket leaves the window, and the high and low are tracked
+ * with monotonic queues of buckets, so both recording a trade and reading the ticker are amortized O(1).
+ * Quote volumes are summed in 128 bits, per bucket and over the window, so neither they nor the VWAP derived from
+ * them can overflow.
+ * Buckets are expired lazily, when a trade is recorded or the ticker is read.
+ * <p>
+ * Buckets are only ever appended in time order: a trade executed before the latest recorded trade is counted in
+ * the latest bucket, so it leaves the window slightly late instead of reordering the window.
+ * Updates and reads are synchronized on the window.
+ */
+public class TickerWindow {
+    static final long BUCKET_NANOS = TimeUnit.MINUTES.toNanos(1);
+    static final int BUCKET_COUNT = (int) (TimeUnit.DAYS.toNanos(1) / BUCKET_NANOS);
+
+    private final String currencyPair;
+    private final long[] opens = new long[BUCKET_COUNT];
+    private final long[] highs = new long[BUCKET_COUNT];
+    private final long[] lows = new long[BUCKET_COUNT];
+    private final VolumeSum[] volumes = new VolumeSum[BUCKET_COUNT];
+    private final int[] tradeCounts = new int[BUCKET_COUNT];
+    private final LongRingDeque activeBuckets = new LongRingDeque(BUCKET_COUNT);
+    private final LongRingDeque highBuckets = new LongRingDeque(BUCKET_COUNT);
+    private final LongRingDeque lowBuckets = new LongRingDeque(BUCKET_COUNT);
+    private long latestBucket = Long.MIN_VALUE;
+    private long lastPrice;
+    private long lastTradedAt = Long.MIN_VALUE;
+    private final VolumeSum volume = new VolumeSum();
+    private long tradeCount;
+
+    /**
+     * Constructor for TickerWindow.
+     *
+     * @param currencyPair the currency pair of the statistics
+     */
+    public TickerWindow(String currencyPair) {
+        this.currencyPair = currencyPair;
+        Arrays.setAll(volumes, slot -> new VolumeSum());
+    }
+
+    /**
+     * Records a trade.
+     *
+     * @param tradedAt the execution time in nanoseconds since the epoch
+     * @param price the scaled price of the trade
+     * @param quantity the scaled quantity of the trade
+     * @param quoteVolume the scaled quote volume of the trade
+     */
+    public synchronized void addTrade(long tradedAt, long price, long quantity, long quoteVolume) {
+        long bucket = Math.max(Math.floorDiv(tradedAt, BUCKET_NANOS), latestBucket);
+        expire(bucket);
+        latestBucket = bucket;
+        int slot = slotOf(bucket);
+        if (activeBuckets.isEmpty() || activeBuckets.peekLast() != bucket) {
+            activeBuckets.addLast(bucket);
+            opens[slot] = price;
+            highs[slot] = price;
+            lows[slot] = price;
+            volumes[slot].clear();
+            tradeCounts[slot] = 0;
+        }
+        highs[slot] = Math.max(highs[slot], price);
+        lows[slot] = Math.min(lows[slot], price);
+        volumes[slot].add(quantity, quoteVolume);
+        tradeCounts[slot]++;
+        volume.add(quantity, quoteVolume);
+        tradeCount++;
+        pushExtreme(highBuckets, bucket, true);
+        pushExtreme(lowBuckets, bucket, false);
+        if (tradedAt >= lastTradedAt) {
+            lastTradedAt = tradedAt;
+            lastPrice = price;
+        }
+    }
+
+    /**
+     * Returns the statistics of the 24 hours up to a point in time.
+     * The open price is the first price of the window; without trades in the window all prices are the last price.
+     *
+     * @param nowNanos the end of the window in nanoseconds since the epoch
+     * @return the ticker of the currency pair
+     */
+    public synchronized Ticker ticker(long nowNanos) {
+        expire(Math.max(Math.floorDiv(nowNanos, BUCKET_NANOS), latestBucket));
+        if (activeBuckets.isEmpty()) {
+            return Ticker.builder()
+                    .currencyPair(currencyPair)
+                    .lastPrice(lastPrice)
+                    .openPrice(lastPrice)
+                    .highPrice(lastPrice)
+                    .lowPrice(lastPrice)
+                    .vwap(lastPrice)
+                    .changePercent(BigDecimal.ZERO)
+                    .build();
+        }
+        long openPrice = opens[slotOf(activeBuckets.peekFirst())];
+        long baseVolume = volume.getBaseVolume();
+        BigInteger quoteVolume = volume.getQuoteVolume();
+        return Ticker.builder()
+                .currencyPair(currencyPair)
+                .lastPrice(lastPrice)
+                .openPrice(openPrice)
+                .highPrice(highs[slotOf(highBuckets.peekFirst())])
+                .lowPrice(lows[slotOf(lowBuckets.peekFirst())])
+                .baseVolume(baseVolume)
+                .quoteVolume(quoteVolume)
+                .vwap(baseVolume == 0 ? lastPrice : new BigDecimal(quoteVolume)
+                        .divide(BigDecimal.valueOf(baseVolume), 0, RoundingMode.HALF_UP)
+                        .longValueExact())
+                .changePercent(openPrice == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(lastPrice - openPrice)
+                        .multiply(BigDecimal.valueOf(100))
+                        .divide(BigDecimal.valueOf(openPrice), 2, RoundingMode.HALF_UP))
+                .tradeCount(tradeCount)
+                .build();
+    }
+
+    /**
+     * Removes the buckets that fall out of the window ending with the specified bucket.
+     *
+     * @param bucket the latest bucket of the window
+     */
+    private void expire(long bucket) {
+        long oldest = bucket - BUCKET_COUNT + 1;
+        while (!activeBuckets.isEmpty() && activeBuckets.peekFirst() < oldest) {
+            int slot = slotOf(activeBuckets.removeFirst());
+            volume.subtract(volumes[slot]);
+            tradeCount -= tradeCounts[slot];
+        }
+        while (!highBuckets.isEmpty() && highBuckets.peekFirst() < oldest) {
+            highBuckets.removeFirst();
+        }
+        while (!lowBuckets.isEmpty() && lowBuckets.peekFirst() < oldest) {
+            lowBuckets.removeFirst();
+        }
+    }
+
+    /**
+     * Appends the latest bucket to a monotonic queue, dropping earlier buckets it dominates.
+     * The first bucket of the queue then holds the extreme of the window.
+     *
+     * @param buckets the queue of candidate buckets
+     * @param bucket the latest bucket, already updated with the trade
+     * @param high true for the queue of highs, false for the queue of lows
+     */
+    private void pushExtreme(LongRingDeque buckets, long bucket, boolean high) {
+        if (!buckets.isEmpty() && buckets.peekLast() == bucket) {
+            buckets.removeLast();
+        }
+        long value = high ? highs[slotOf(bucket)] : lows[slotOf(bucket)];
+        while (!buckets.isEmpty()) {
+            int last = slotOf(buckets.peekLast());
+            if (high ? highs[last] > value : lows[last] < value) {
+                break;
+            }
+            buckets.removeLast();
+        }
+        buckets.addLast(bucket);
+    }
+
+    /**
+     * Maps a bucket number to its slot in the ring.
+     *
+     * @param bucket the bucket number
+     * @return the slot of the bucket
+     */
+    private static int slotOf(long bucket) {
+        return Math.floorMod(bucket, BUCKET_COUNT);
+    }
+}
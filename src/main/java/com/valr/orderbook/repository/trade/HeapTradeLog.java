@@ -0,0 +1,162 @@
+package com.valr.orderbook.repository.trade;
+
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.TradeStatistics;
+import com.valr.orderbook.model.enumeration.Side;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Trade log keeping its trades on the heap in a columnar layout.
+ * Every field is stored in its own primitive column, split into fixed-size chunks that are never copied once
+ * filled, so appending is O(1), any position is reached with a shift and a mask, and a trade takes 37 bytes
+ * instead of a {@link Trade} object. Aggregates scan only the columns they need in plain loops
+ * over primitive arrays. Trade objects are only created for the trades a read returns.
+ */
+class HeapTradeLog extends PairTradeLog {
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final Side[] SIDES = Side.values();
+
+    private long[][] ids = new long[1][];
+    private long[][] tradedAt = new long[1][];
+    private long[][] prices = new long[1][];
+    private long[][] quantities = new long[1][];
+    private long[][] quoteVolumes = new long[1][];
+    private byte[][] sides = new byte[1][];
+
+    /**
+     * Constructor for HeapTradeLog.
+     *
+     * @param currencyPair the currency pair this log holds trades for
+     */
+    HeapTradeLog(String currencyPair) {
+        super(currencyPair, 0);
+    }
+
+    @Override
+    protected void write(int position, Trade trade) {
+        int chunk = slot(position >>> CHUNK_SHIFT);
+        if (chunk == ids.length) {
+            growChunks(chunk << 1);
+        }
+        if (ids[chunk] == null) {
+            addChunk(chunk);
+        }
+        int index = position & CHUNK_MASK;
+        ids[chunk][index] = trade.getId();
+        tradedAt[chunk][index] = trade.getTradedAt();
+        prices[chunk][index] = trade.getPrice();
+        quantities[chunk][index] = trade.getQuantity();
+        quoteVolumes[chunk][index] = trade.getQuoteVolume();
+        sides[chunk][index] = (byte) trade.getTakerSide().ordinal();
+    }
+
+    @Override
+    protected Trade read(int position) {
+        int chunk = slot(position >>> CHUNK_SHIFT);
+        int index = position & CHUNK_MASK;
+        return Trade.builder()
+                .id(ids[chunk][index])
+                .tradedAt(tradedAt[chunk][index])
+                .price(prices[chunk][index])
+                .quantity(quantities[chunk][index])
+                .quoteVolume(quoteVolumes[chunk][index])
+                .takerSide(SIDES[sides[chunk][index]])
+                .currencyPair(getCurrencyPair())
+                .build();
+    }
+
+    @Override
+    protected long idAt(int position) {
+        return ids[slot(position >>> CHUNK_SHIFT)][position & CHUNK_MASK];
+    }
+
+    @Override
+    protected long tradedAtAt(int position) {
+        return tradedAt[slot(position >>> CHUNK_SHIFT)][position & CHUNK_MASK];
+    }
+
+    @Override
+    protected TradeStatistics aggregate(int from, int to) {
+        VolumeSum sum = new VolumeSum();
+        accumulate(from, to, sum);
+        return toStatistics(to - from, sum);
+    }
+
+    /**
+     * Adds the volumes of a range of trades to a sum, one chunk at a time.
+     *
+     * @param from the position of the first trade, inclusive
+     * @param to the position of the last trade, exclusive
+     * @param sum the sum to add to
+     */
+    protected void accumulate(int from, int to, VolumeSum sum) {
+        int position = from;
+        while (position < to) {
+            int chunk = position >>> CHUNK_SHIFT;
+            long[] chunkQuantities = quantities[slot(chunk)];
+            long[] chunkQuoteVolumes = quoteVolumes[slot(chunk)];
+            int chunkEnd = Math.min(CHUNK_SIZE, to - (chunk << CHUNK_SHIFT));
+            for (int i = position & CHUNK_MASK; i < chunkEnd; i++) {
+                sum.add(chunkQuantities[i], chunkQuoteVolumes[i]);
+            }
+            position = (chunk << CHUNK_SHIFT) + chunkEnd;
+        }
+    }
+
+    /**
+     * Maps a chunk of the log to the slot of the chunk tables holding it.
+     * Every chunk has its own slot by default.
+     *
+     * @param chunk the index of the chunk in the log
+     * @return the index of the slot
+     */
+    protected int slot(int chunk) {
+        return chunk;
+    }
+
+    /**
+     * Encodes a full chunk as {@link TradeRecord} records.
+     *
+     * @param chunk the index of the chunk in the log
+     * @param buffer the buffer receiving {@link #CHUNK_SIZE} records from offset zero
+     */
+    protected void encodeChunk(int chunk, ByteBuffer buffer) {
+        int slot = slot(chunk);
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            TradeRecord.write(buffer, i * TradeRecord.SIZE, ids[slot][i], tradedAt[slot][i], prices[slot][i],
+                    quantities[slot][i], quoteVolumes[slot][i], SIDES[sides[slot][i]]);
+        }
+    }
+
+    /**
+     * Grows the chunk tables of all columns.
+     *
+     * @param capacity the new number of chunks
+     */
+    private void growChunks(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        tradedAt = Arrays.copyOf(tradedAt, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        quoteVolumes = Arrays.copyOf(quoteVolumes, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+    }
+
+    /**
+     * Allocates a chunk of every column.
+     *
+     * @param chunk the index of the chunk
+     */
+    private void addChunk(int chunk) {
+        ids[chunk] = new long[CHUNK_SIZE];
+        tradedAt[chunk] = new long[CHUNK_SIZE];
+        prices[chunk] = new long[CHUNK_SIZE];
+        quantities[chunk] = new long[CHUNK_SIZE];
+        quoteVolumes[chunk] = new long[CHUNK_SIZE];
+        sides[chunk] = new byte[CHUNK_SIZE];
+    }
+}
@@ -0,0 +1,199 @@
+package com.valr.orderbook.repository.trade;
+
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.TradeStatistics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Trade log journaling its trades to memory-mapped segment files.
+ * Trades are appended as fixed-width records to the current segment; once it is full it is forced to disk and a
+ * new segment of the same size is mapped, so writing a trade costs a few stores into the page cache and the
+ * history is not bounded by the heap. Reads go straight to the mapped pages: cursor searches only read ids and
+ * a page only materializes the trades it returns.
+ * <p>
+ * Records use the {@link TradeRecord} layout in little-endian order; the first unwritten record marks the end of
+ * the journal when it is reopened.
+ */
+class MappedTradeLog extends PairTradeLog {
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private MappedByteBuffer[] segments;
+    private int segmentCount;
+
+    /**
+     * Constructor for MappedTradeLog.
+     *
+     * @param currencyPair the currency pair this log holds trades for
+     * @param directory the directory holding the segment files of the pair
+     * @param recordsPerSegment the number of records each segment holds
+     * @param segments the segments already mapped, in order
+     * @param size the number of trades already stored in the segments
+     */
+    private MappedTradeLog(String currencyPair, Path directory, int recordsPerSegment,
+                           MappedByteBuffer[] segments, int size) {
+        super(currencyPair, size);
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.segmentCount = segments.length;
+        this.segments = Arrays.copyOf(segments, Math.max(4, segments.length << 1));
+    }
+
+    /**
+     * Opens the journal of a currency pair, recovering the trades of existing segments.
+     * Existing segments keep the size they were created with.
+     *
+     * @param currencyPair the currency pair of the journal
+     * @param directory the directory holding the segment files of the pair, created if missing
+     * @param segmentSize the size in bytes of new segment files
+     * @return the log positioned after the last recovered trade
+     */
+    static MappedTradeLog open(String currencyPair, Path directory, int segmentSize) {
+        if (segmentSize < TradeRecord.SIZE) {
+            throw new IllegalArgumentException("Journal segment size must hold at least one trade: " + segmentSize);
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+            int recordsPerSegment = files.isEmpty()
+                    ? segmentSize / TradeRecord.SIZE
+                    : (int) (Files.size(files.get(0)) / TradeRecord.SIZE);
+            MappedByteBuffer[] segments = new MappedByteBuffer[files.size()];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = map(files.get(i), recordsPerSegment);
+            }
+            int size = segments.length == 0 ? 0
+                    : (segments.length - 1) * recordsPerSegment
+                    + recordCount(segments[segments.length - 1], recordsPerSegment);
+            return new MappedTradeLog(currencyPair, directory, recordsPerSegment, segments, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open trade journal " + directory, e);
+        }
+    }
+
+    @Override
+    protected void write(int position, Trade trade) {
+        int segment = position / recordsPerSegment;
+        if (segment == segmentCount) {
+            addSegment();
+        }
+        MappedByteBuffer buffer = segments[segment];
+        int offset = (position % recordsPerSegment) * TradeRecord.SIZE;
+        TradeRecord.write(buffer, offset, trade);
+    }
+
+    @Override
+    protected Trade read(int position) {
+        MappedByteBuffer buffer = segments[position / recordsPerSegment];
+        int offset = (position % recordsPerSegment) * TradeRecord.SIZE;
+        return TradeRecord.read(buffer, offset, getCurrencyPair());
+    }
+
+    @Override
+    protected long idAt(int position) {
+        return TradeRecord.id(segments[position / recordsPerSegment],
+                (position % recordsPerSegment) * TradeRecord.SIZE);
+    }
+
+    @Override
+    protected long tradedAtAt(int position) {
+        return TradeRecord.tradedAt(segments[position / recordsPerSegment],
+                (position % recordsPerSegment) * TradeRecord.SIZE);
+    }
+
+    @Override
+    protected TradeStatistics aggregate(int from, int to) {
+        VolumeSum sum = new VolumeSum();
+        for (int position = from; position < to; position++) {
+            MappedByteBuffer buffer = segments[position / recordsPerSegment];
+            int offset = (position % recordsPerSegment) * TradeRecord.SIZE;
+            sum.add(TradeRecord.quantity(buffer, offset), TradeRecord.quoteVolume(buffer, offset));
+        }
+        return toStatistics(to - from, sum);
+    }
+
+    /**
+     * Forces all segments to disk.
+     */
+    @Override
+    public synchronized void close() {
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i].force();
+        }
+    }
+
+    /**
+     * Forces the current segment to disk and maps the next one.
+     */
+    private void addSegment() {
+        if (segmentCount > 0) {
+            segments[segmentCount - 1].force();
+        }
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, segmentCount << 1);
+        }
+        Path file = directory.resolve(String.format("%010d%s", segmentCount, SEGMENT_SUFFIX));
+        try {
+            segments[segmentCount] = map(file, recordsPerSegment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create trade journal segment " + file, e);
+        }
+        segmentCount++;
+    }
+
+    /**
+     * Maps a segment file, creating it with the segment size if it does not exist.
+     *
+     * @param file the segment file
+     * @param recordsPerSegment the number of records the segment holds
+     * @return the mapped segment
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    private static MappedByteBuffer map(Path file, int recordsPerSegment) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    (long) recordsPerSegment * TradeRecord.SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    /**
+     * Counts the written records of a segment, which are always a prefix of it.
+     *
+     * @param segment the mapped segment
+     * @param recordsPerSegment the number of records the segment holds
+     * @return the number of records written
+     */
+    private static int recordCount(MappedByteBuffer segment, int recordsPerSegment) {
+        int low = 0;
+        int high = recordsPerSegment - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (TradeRecord.isWritten(segment, middle * TradeRecord.SIZE)) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
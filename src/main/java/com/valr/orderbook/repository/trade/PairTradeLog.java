@@ -0,0 +1,321 @@
+package com.valr.orderbook.repository.trade;
+
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.TradeStatistics;
+import com.valr.orderbook.util.FixedPoint;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The trades of a single currency pair in execution order, addressed by their position in the log.
+ * Ids are taken from a shared sequence while appending, so they strictly increase along the log and the position
+ * of an id cursor is found with a binary search over the stored ids. Execution times never decrease along the log
+ * either, which makes the stored times an index for time-range queries. Sequence numbers are not stored: the
+ * sequence number of a trade is its position plus one, so they are gap-free within the pair.
+ * <p>
+ * Implementations decide where the trades live; ordering, paging and publication are shared. Appending is
+ * serialized by the log; readers do not lock and only see trades up to the published size.
+ */
+public abstract class PairTradeLog {
+    @Getter
+    private final String currencyPair;
+    private volatile int size;
+
+    /**
+     * Constructor for PairTradeLog.
+     *
+     * @param currencyPair the currency pair this log holds trades for
+     * @param size the number of trades already stored in the log
+     */
+    protected PairTradeLog(String currencyPair, int size) {
+        this.currencyPair = currencyPair;
+        this.size = size;
+    }
+
+    /**
+     * Creates an empty log keeping its trades on the heap.
+     *
+     * @param currencyPair the currency pair the log holds trades for
+     * @return an empty log
+     */
+    public static PairTradeLog inMemory(String currencyPair) {
+        return new HeapTradeLog(currencyPair);
+    }
+
+    /**
+     * Opens the journal of a currency pair, keeping its trades in memory-mapped segment files.
+     *
+     * @param currencyPair the currency pair the log holds trades for
+     * @param journalDirectory the root directory of the trade journal; the pair's segments live in a subdirectory
+     * @param segmentSize the size in bytes of new segment files
+     * @return the log with the trades recovered from existing segments
+     */
+    public static PairTradeLog journaled(String currencyPair, Path journalDirectory, int segmentSize) {
+        return MappedTradeLog.open(currencyPair, journalDirectory.resolve(currencyPair), segmentSize);
+    }
+
+    /**
+     * Creates an empty log keeping its most recent trades on the heap and spilling older ones to cold files.
+     *
+     * @param currencyPair the currency pair the log holds trades for
+     * @param coldDirectory the root directory of the cold files; the pair's files live in a subdirectory
+     * @param hotCapacity the minimum number of most recent trades kept on the heap
+     * @param cachedSegments the maximum number of cold files kept loaded
+     * @return an empty log
+     */
+    public static PairTradeLog tiered(String currencyPair, Path coldDirectory, int hotCapacity, int cachedSegments) {
+        return TieredTradeLog.open(currencyPair, coldDirectory.resolve(currencyPair), hotCapacity, cachedSegments);
+    }
+
+    /**
+     * Appends a trade to the end of the log, assigning it the next id of the sequence and its sequence number
+     * within the pair.
+     * Trades of concurrent orders may be recorded slightly out of execution order; a trade recorded after a later
+     * one takes the time of that trade, so times stay in the same order as ids.
+     *
+     * @param trade the trade to append
+     * @param tradeIdSequence the sequence trade ids are taken from
+     * @return the id assigned to the trade
+     * @throws IllegalStateException if the log already holds the maximum number of trades of a pair
+     */
+    public synchronized long append(Trade trade, AtomicLong tradeIdSequence) {
+        int position = size;
+        if (position == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Trade log of currency pair " + currencyPair + " is full");
+        }
+        if (position > 0) {
+            trade.setTradedAt(Math.max(trade.getTradedAt(), tradedAtAt(position - 1)));
+        }
+        long id = tradeIdSequence.getAndIncrement();
+        trade.setId(id);
+        trade.setSequence(sequenceOf(position));
+        write(position, trade);
+        size = position + 1;
+        return id;
+    }
+
+    /**
+     * Returns the number of trades in the log.
+     *
+     * @return the number of published trades
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a page of trades starting at a position of the log. Costs O(limit).
+     *
+     * @param from the position of the first trade to return
+     * @param limit the maximum number of trades to return
+     * @return an unmodifiable list of trades in execution order
+     */
+    public List<Trade> page(int from, int limit) {
+        return page(from, limit, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a page of trades starting at a position of the log and executed before a point in time.
+     * Costs O(limit).
+     *
+     * @param from the position of the first trade to return
+     * @param limit the maximum number of trades to return
+     * @param toNanos the end of the time range in nanoseconds since the epoch, exclusive
+     * @return an unmodifiable list of trades in execution order
+     */
+    public List<Trade> page(int from, int limit, long toNanos) {
+        int end = size;
+        if (from >= end || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int to = (int) Math.min(end, (long) from + limit);
+        List<Trade> trades = new ArrayList<>(to - from);
+        for (int position = from; position < to && tradedAtAt(position) < toNanos; position++) {
+            trades.add(tradeAt(position));
+        }
+        return Collections.unmodifiableList(trades);
+    }
+
+    /**
+     * Finds the position of the first trade following a sequence number of the pair. Costs O(1), as sequence
+     * numbers are positions counted from one.
+     *
+     * @param sequence the sequence number of the last trade already seen, or 0 to start at the first trade
+     * @return the position of the first trade after the sequence number, or the size of the log if there is none
+     */
+    public int positionAfterSequence(long sequence) {
+        return (int) Math.min(size, Math.max(0, sequence));
+    }
+
+    /**
+     * Finds the position of the first trade executed at or after a point in time. Costs O(log n).
+     *
+     * @param fromNanos the start of the time range in nanoseconds since the epoch, inclusive
+     * @return the position of the first trade of the range, or the size of the log if there is none
+     */
+    public int positionAtOrAfter(long fromNanos) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (tradedAtAt(middle) < fromNanos) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the position of the first trade with an id greater than the cursor. Costs O(log n).
+     *
+     * @param afterId the id of the last trade already seen
+     * @return the position of the first trade after the cursor, or the size of the log if there is none
+     */
+    public int positionAfter(long afterId) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (idAt(middle) <= afterId) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds a trade of this log by its id.
+     *
+     * @param id the id of the trade
+     * @return the trade or null if the log holds no trade with that id
+     */
+    public Trade find(long id) {
+        int position = positionAfter(id - 1);
+        return position < size && idAt(position) == id ? tradeAt(position) : null;
+    }
+
+    /**
+     * Returns the id of the last trade of the log.
+     *
+     * @return the id of the last trade, or -1 if the log is empty
+     */
+    public long lastId() {
+        int end = size;
+        return end == 0 ? -1 : idAt(end - 1);
+    }
+
+    /**
+     * Aggregates the trades executed within a time range: their count, base and quote volumes and the volume
+     * weighted average price. The range is located with the time index and only the trades inside it are scanned,
+     * without creating trade objects.
+     *
+     * @param fromNanos the start of the range in nanoseconds since the epoch, inclusive
+     * @param toNanos the end of the range in nanoseconds since the epoch, exclusive
+     * @return the statistics of the trades in the range
+     */
+    public TradeStatistics statistics(long fromNanos, long toNanos) {
+        int from = positionAtOrAfter(fromNanos);
+        return aggregate(from, Math.max(from, positionAtOrAfter(toNanos)));
+    }
+
+    /**
+     * Makes the stored trades durable and releases resources held by the log. Does nothing by default.
+     */
+    public void close() {
+    }
+
+    /**
+     * Stores a trade at the next position of the log. Called by the appending thread only, before the trade
+     * is published.
+     *
+     * @param position the position of the trade
+     * @param trade the trade with its id assigned
+     */
+    protected abstract void write(int position, Trade trade);
+
+    /**
+     * Reads the trade stored at a published position.
+     *
+     * @param position the position of the trade
+     * @return the trade
+     */
+    protected abstract Trade read(int position);
+
+    /**
+     * Reads the trade at a position, with its sequence number.
+     *
+     * @param position the position of the trade
+     * @return the trade
+     */
+    private Trade tradeAt(int position) {
+        Trade trade = read(position);
+        trade.setSequence(sequenceOf(position));
+        return trade;
+    }
+
+    /**
+     * Returns the sequence number of the trade at a position.
+     *
+     * @param position the position of the trade
+     * @return the sequence number, counted from one
+     */
+    private static long sequenceOf(int position) {
+        return position + 1L;
+    }
+
+    /**
+     * Reads the id of the trade stored at a published position.
+     *
+     * @param position the position of the trade
+     * @return the id of the trade
+     */
+    protected abstract long idAt(int position);
+
+    /**
+     * Reads the execution time of the trade stored at a published position.
+     *
+     * @param position the position of the trade
+     * @return the execution time in nanoseconds since the epoch
+     */
+    protected abstract long tradedAtAt(int position);
+
+    /**
+     * Aggregates the trades stored at a range of published positions.
+     *
+     * @param from the position of the first trade, inclusive
+     * @param to the position after the last trade, exclusive
+     * @return the statistics of the trades
+     */
+    protected abstract TradeStatistics aggregate(int from, int to);
+
+    /**
+     * Converts the scaled sums of an aggregation to statistics.
+     *
+     * @param count the number of trades
+     * @param sum the sums of the scaled volumes
+     * @return the statistics with decimal amounts
+     */
+    protected TradeStatistics toStatistics(long count, VolumeSum sum) {
+        FixedPoint.Precision precision = FixedPoint.precisionOf(currencyPair);
+        BigDecimal quoteVolume = FixedPoint.toDecimalQuoteVolume(sum.getQuoteVolume(), currencyPair);
+        BigDecimal base = FixedPoint.toDecimalQuantity(sum.getBaseVolume(), currencyPair);
+        return TradeStatistics.builder()
+                .currencyPair(currencyPair)
+                .tradeCount(count)
+                .baseVolume(base)
+                .quoteVolume(quoteVolume)
+                .vwap(sum.getBaseVolume() == 0 ? null : quoteVolume.divide(base, precision.priceScale(), RoundingMode.HALF_UP))
+                .build();
+    }
+}
@@ -0,0 +1,210 @@
+package com.valr.orderbook.repository.trade;
+
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.TradeStatistics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Trade log keeping its most recent trades on the heap and spilling older ones to disk.
+ * The hot tier is the columnar layout of {@link HeapTradeLog}, with its chunk tables used as a ring: once the
+ * oldest chunk falls out of the retained capacity it is written in one batch as a compact file of
+ * {@link TradeRecord} records and its arrays are reused for new trades, so the heap stays bounded however long
+ * the history grows. Reads of cold trades load their file into a small least-recently-used cache, so paging
+ * through old history reads each file once.
+ * <p>
+ * Cold files hold the overflow of the running process only and are discarded when the log is reopened; the
+ * journal is the durable store. Accessors lock the log as a spill reuses the arrays a reader may be reading.
+ */
+class TieredTradeLog extends HeapTradeLog {
+    static final String COLD_SUFFIX = ".cold";
+
+    private final Path directory;
+    private final int ringSize;
+    private final Map<Integer, ByteBuffer> coldCache;
+    private final ByteBuffer spillBuffer;
+    private int coldChunks;
+
+    /**
+     * Constructor for TieredTradeLog.
+     *
+     * @param currencyPair the currency pair this log holds trades for
+     * @param directory the directory holding the cold files of the pair
+     * @param hotCapacity the minimum number of most recent trades kept on the heap
+     * @param cachedSegments the maximum number of cold files kept loaded
+     */
+    private TieredTradeLog(String currencyPair, Path directory, int hotCapacity, int cachedSegments) {
+        super(currencyPair);
+        this.directory = directory;
+        this.ringSize = (hotCapacity + CHUNK_SIZE - 1) / CHUNK_SIZE + 1;
+        this.coldCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ByteBuffer> eldest) {
+                return size() > cachedSegments;
+            }
+        };
+        this.spillBuffer = ByteBuffer.allocate(CHUNK_SIZE * TradeRecord.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Opens the tiered log of a currency pair, discarding the cold files of a previous run.
+     *
+     * @param currencyPair the currency pair of the log
+     * @param directory the directory holding the cold files of the pair, created if missing
+     * @param hotCapacity the minimum number of most recent trades kept on the heap
+     * @param cachedSegments the maximum number of cold files kept loaded
+     * @return the empty log
+     */
+    static TieredTradeLog open(String currencyPair, Path directory, int hotCapacity, int cachedSegments) {
+        if (hotCapacity < 1) {
+            throw new IllegalArgumentException("Hot trade capacity must be positive: " + hotCapacity);
+        }
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> listing = Files.list(directory)) {
+                for (Path file : listing.filter(file -> file.getFileName().toString().endsWith(COLD_SUFFIX))
+                        .toList()) {
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open cold trade directory " + directory, e);
+        }
+        return new TieredTradeLog(currencyPair, directory, hotCapacity, Math.max(1, cachedSegments));
+    }
+
+    @Override
+    protected void write(int position, Trade trade) {
+        int chunk = position >>> CHUNK_SHIFT;
+        if ((position & CHUNK_MASK) == 0 && chunk - coldChunks == ringSize) {
+            spill(coldChunks);
+            coldChunks++;
+        }
+        super.write(position, trade);
+    }
+
+    @Override
+    protected synchronized Trade read(int position) {
+        if (isCold(position)) {
+            return TradeRecord.read(coldChunk(position >>> CHUNK_SHIFT), coldOffset(position), getCurrencyPair());
+        }
+        return super.read(position);
+    }
+
+    @Override
+    protected synchronized long idAt(int position) {
+        if (isCold(position)) {
+            return TradeRecord.id(coldChunk(position >>> CHUNK_SHIFT), coldOffset(position));
+        }
+        return super.idAt(position);
+    }
+
+    @Override
+    protected synchronized long tradedAtAt(int position) {
+        if (isCold(position)) {
+            return TradeRecord.tradedAt(coldChunk(position >>> CHUNK_SHIFT), coldOffset(position));
+        }
+        return super.tradedAtAt(position);
+    }
+
+    @Override
+    protected TradeStatistics aggregate(int from, int to) {
+        VolumeSum sum = new VolumeSum();
+        int position = from;
+        while (position < to) {
+            int chunk = position >>> CHUNK_SHIFT;
+            int chunkEnd = Math.min((chunk + 1) << CHUNK_SHIFT, to);
+            ByteBuffer cold;
+            synchronized (this) {
+                if (isCold(position)) {
+                    cold = coldChunk(chunk);
+                } else {
+                    super.accumulate(position, chunkEnd, sum);
+                    cold = null;
+                }
+            }
+            if (cold != null) {
+                for (int p = position; p < chunkEnd; p++) {
+                    sum.add(TradeRecord.quantity(cold, coldOffset(p)), TradeRecord.quoteVolume(cold, coldOffset(p)));
+                }
+            }
+            position = chunkEnd;
+        }
+        return toStatistics(to - from, sum);
+    }
+
+    @Override
+    protected int slot(int chunk) {
+        return chunk % ringSize;
+    }
+
+    /**
+     * Returns the number of chunks spilled to disk.
+     *
+     * @return the number of cold chunks
+     */
+    synchronized int coldChunks() {
+        return coldChunks;
+    }
+
+    /**
+     * Writes a full chunk to its cold file.
+     *
+     * @param chunk the index of the chunk in the log
+     */
+    private void spill(int chunk) {
+        encodeChunk(chunk, spillBuffer);
+        Path file = coldFile(chunk);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            spillBuffer.clear();
+            while (spillBuffer.hasRemaining()) {
+                channel.write(spillBuffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write cold trade file " + file, e);
+        }
+    }
+
+    /**
+     * Returns the records of a cold chunk, loading its file if it is not cached.
+     *
+     * @param chunk the index of the chunk in the log
+     * @return the buffer holding the records of the chunk
+     */
+    private ByteBuffer coldChunk(int chunk) {
+        ByteBuffer buffer = coldCache.get(chunk);
+        if (buffer == null) {
+            Path file = coldFile(chunk);
+            try {
+                buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read cold trade file " + file, e);
+            }
+            coldCache.put(chunk, buffer);
+        }
+        return buffer;
+    }
+
+    private boolean isCold(int position) {
+        return position >>> CHUNK_SHIFT < coldChunks;
+    }
+
+    private static int coldOffset(int position) {
+        return (position & CHUNK_MASK) * TradeRecord.SIZE;
+    }
+
+    private Path coldFile(int chunk) {
+        return directory.resolve(String.format("%010d%s", chunk, COLD_SUFFIX));
+    }
+}
@@ -0,0 +1,138 @@
+package com.valr.orderbook.repository.trade;
+
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-width binary record of a trade, shared by the on-disk trade logs.
+ * The currency pair is not stored, it is implied by the log the record belongs to. The side is written last and
+ * stored as its ordinal plus one, so a zero side marks a record that was never written.
+ * <p>
+ * Record layout: id (8 bytes), traded at in epoch nanos (8), price (8), quantity (8), quote volume (8),
+ * side (1), padding (7).
+ */
+final class TradeRecord {
+    static final int SIZE = 48;
+
+    private static final int ID_OFFSET = 0;
+    private static final int TRADED_AT_OFFSET = 8;
+    private static final int PRICE_OFFSET = 16;
+    private static final int QUANTITY_OFFSET = 24;
+    private static final int QUOTE_VOLUME_OFFSET = 32;
+    private static final int SIDE_OFFSET = 40;
+    private static final Side[] SIDES = Side.values();
+
+    private TradeRecord() {
+    }
+
+    /**
+     * Writes a trade as a record.
+     *
+     * @param buffer the buffer to write to
+     * @param offset the offset of the record in the buffer
+     * @param trade the trade with its id assigned
+     */
+    static void write(ByteBuffer buffer, int offset, Trade trade) {
+        write(buffer, offset, trade.getId(), trade.getTradedAt(), trade.getPrice(), trade.getQuantity(),
+                trade.getQuoteVolume(), trade.getTakerSide());
+    }
+
+    /**
+     * Writes the fields of a trade as a record.
+     *
+     * @param buffer the buffer to write to
+     * @param offset the offset of the record in the buffer
+     * @param id the id of the trade
+     * @param tradedAt the execution time in nanoseconds since the epoch
+     * @param price the scaled price
+     * @param quantity the scaled quantity
+     * @param quoteVolume the scaled quote volume
+     * @param takerSide the side of the taker
+     */
+    static void write(ByteBuffer buffer, int offset, long id, long tradedAt, long price, long quantity,
+                      long quoteVolume, Side takerSide) {
+        buffer.putLong(offset + ID_OFFSET, id);
+        buffer.putLong(offset + TRADED_AT_OFFSET, tradedAt);
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        buffer.putLong(offset + QUANTITY_OFFSET, quantity);
+        buffer.putLong(offset + QUOTE_VOLUME_OFFSET, quoteVolume);
+        buffer.put(offset + SIDE_OFFSET, (byte) (takerSide.ordinal() + 1));
+    }
+
+    /**
+     * Reads a record into a trade.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the record in the buffer
+     * @param currencyPair the currency pair of the log the record belongs to
+     * @return the trade
+     */
+    static Trade read(ByteBuffer buffer, int offset, String currencyPair) {
+        return Trade.builder()
+                .id(id(buffer, offset))
+                .tradedAt(tradedAt(buffer, offset))
+                .price(buffer.getLong(offset + PRICE_OFFSET))
+                .quantity(quantity(buffer, offset))
+                .quoteVolume(quoteVolume(buffer, offset))
+                .takerSide(SIDES[buffer.get(offset + SIDE_OFFSET) - 1])
+                .currencyPair(currencyPair)
+                .build();
+    }
+
+    /**
+     * Reads the id of a record.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the record in the buffer
+     * @return the id of the trade
+     */
+    static long id(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + ID_OFFSET);
+    }
+
+    /**
+     * Reads the execution time of a record.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the record in the buffer
+     * @return the execution time in nanoseconds since the epoch
+     */
+    static long tradedAt(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + TRADED_AT_OFFSET);
+    }
+
+    /**
+     * Reads the quantity of a record.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the record in the buffer
+     * @return the scaled quantity
+     */
+    static long quantity(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + QUANTITY_OFFSET);
+    }
+
+    /**
+     * Reads the quote volume of a record.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the record in the buffer
+     * @return the scaled quote volume
+     */
+    static long quoteVolume(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + QUOTE_VOLUME_OFFSET);
+    }
+
+    /**
+     * Checks whether a record has been written.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the record in the buffer
+     * @return true if the record holds a trade
+     */
+    static boolean isWritten(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + SIDE_OFFSET) != 0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.valr.orderbook.repository.trade;
+
+import java.math.BigInteger;
+
+/**
+ * Running sums of the scaled volumes of trades.
+ * The quote volume sum is carried in 128 bits, as it can exceed a long over a long history. Aggregations add
+ * trades in plain loops and may add several ranges of a log to the same sum; rolling windows also subtract the
+ * sums of the buckets leaving the window. Adding and subtracting never allocate. Not thread-safe.
+ */
+public final class VolumeSum {
+    private long baseVolume;
+    private long quoteVolumeHigh;
+    private long quoteVolumeLow;
+
+    /**
+     * Adds the volumes of a trade.
+     *
+     * @param quantity the scaled quantity
+     * @param quoteVolume the scaled quote volume, not negative
+     */
+    public void add(long quantity, long quoteVolume) {
+        baseVolume += quantity;
+        long sum = quoteVolumeLow + quoteVolume;
+        if (Long.compareUnsigned(sum, quoteVolumeLow) < 0) {
+            quoteVolumeHigh++;
+        }
+        quoteVolumeLow = sum;
+    }
+
+    /**
+     * Subtracts sums that were previously added to this one, trade by trade or as a whole.
+     *
+     * @param other the sums to subtract
+     */
+    public void subtract(VolumeSum other) {
+        baseVolume -= other.baseVolume;
+        long difference = quoteVolumeLow - other.quoteVolumeLow;
+        quoteVolumeHigh -= other.quoteVolumeHigh;
+        if (Long.compareUnsigned(quoteVolumeLow, other.quoteVolumeLow) < 0) {
+            quoteVolumeHigh--;
+        }
+        quoteVolumeLow = difference;
+    }
+
+    /**
+     * Resets both sums to zero.
+     */
+    public void clear() {
+        baseVolume = 0;
+        quoteVolumeHigh = 0;
+        quoteVolumeLow = 0;
+    }
+
+    /**
+     * Returns the sum of the scaled quantities.
+     *
+     * @return the base volume
+     */
+    public long getBaseVolume() {
+        return baseVolume;
+    }
+
+    /**
+     * Returns the sum of the scaled quote volumes.
+     *
+     * @return the quote volume, exact whatever its size
+     */
+    public BigInteger getQuoteVolume() {
+        return BigInteger.valueOf(quoteVolumeHigh).shiftLeft(Long.SIZE)
+                .add(new BigInteger(Long.toUnsignedString(quoteVolumeLow)));
+    }
+}
@@ -1,24 +1,46 @@
 package com.valr.orderbook.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.valr.orderbook.exception.Error;
+import com.valr.orderbook.exception.UnsupportedCurrencyPairException;
+import com.valr.orderbook.model.AggregatedOrderBook;
 import com.valr.orderbook.model.LimitOrderDTO;
-import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.LimitOrderResult;
+import com.valr.orderbook.model.OrderBook;
+import com.valr.orderbook.model.SerializedOrderBook;
 import com.valr.orderbook.model.User;
 import com.valr.orderbook.model.UserDTO;
+import com.valr.orderbook.model.enumeration.CandleInterval;
+import com.valr.orderbook.model.enumeration.TradeExportFormat;
 import com.valr.orderbook.security.JwtUtil;
 import com.valr.orderbook.service.OrderBookService;
 import com.valr.orderbook.service.TradeHistoryService;
 import com.valr.orderbook.service.UserService;
+import com.valr.orderbook.stream.MarketDataPublisher;
+import com.valr.orderbook.util.EpochClock;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 
 /**
@@ -30,6 +52,9 @@ public class WebController {
     public static final String CURRENCY_PAIR_PATTERN = "[A-Za-z]{6}";
     public static final String CURRENCY_PAIR_VALIDATION_ERROR = "Invalid currency pair. Please provide a 6 character " +
             "currency pair - valid example: BTCZAR | btczar.";
+    public static final String TIME_RANGE_VALIDATION_ERROR = "Invalid from or to value. Please provide an ISO-8601 " +
+            "timestamp between 1678 and 2262 - valid example: 2024-12-01T10:00:00Z.";
+    private static final ObjectWriter ERROR_WRITER = new ObjectMapper().writerFor(Error.class);
 
     @Autowired
     private JwtUtil jwtUtil;
@@ -43,21 +68,31 @@ public class WebController {
     @Autowired
     private final TradeHistoryService tradeHistoryService;
 
+    @Autowired
+    private final MarketDataPublisher marketDataPublisher;
+
+    private final Duration commandTimeout;
+
     /**
      * Constructor for WebController.
      *
      * @param orderBookService the service for handling order book operations
      * @param tradeHistoryService the service for handling trade history operations
+     * @param marketDataPublisher the publisher streaming market data to clients
      * @param userService the service for handling user operations
      * @param jwtUtil the utility for handling JWT operations
+     * @param commandTimeout how long a request waits for the matching thread to execute its order or cancellation
      */
     @Autowired
     public WebController(OrderBookService orderBookService, TradeHistoryService tradeHistoryService,
-                         UserService userService, JwtUtil jwtUtil) {
+                         MarketDataPublisher marketDataPublisher, UserService userService, JwtUtil jwtUtil,
+                         @Value("${orderbook.sequencer.command-timeout}") Duration commandTimeout) {
         this.orderBookService = orderBookService;
         this.tradeHistoryService = tradeHistoryService;
+        this.marketDataPublisher = marketDataPublisher;
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.commandTimeout = commandTimeout;
     }
 
     /**
@@ -81,24 +116,118 @@ public class WebController {
 
     /**
      * Endpoint for retrieving the order book for a specific currency pair.
+     * The response carries the version of the book as its ETag; a request whose If-None-Match header matches the
+     * current version is answered with 304 Not Modified and no body.
+     * A depth limits each side to its best price levels; with aggregate set, each level is returned as its price,
+     * total quantity and order count instead of its orders.
      *
      * @param currencyPair the currency pair to retrieve the order book for
-     * @return a ResponseEntity containing the order book or an error message if the currency pair is invalid
+     * @param depth the maximum number of price levels per side, or null for all levels
+     * @param aggregate whether to return price levels instead of orders
+     * @param request the request, used to evaluate its If-None-Match header
+     * @return a ResponseEntity containing the order book or an error message if the currency pair or depth is invalid
      */
     @GetMapping("{currencyPair}/orderbook")
-    public ResponseEntity<Object> getOrderBook(@PathVariable String currencyPair) {
+    public ResponseEntity<Object> getOrderBook(@PathVariable String currencyPair,
+                                               @RequestParam(required = false) Integer depth,
+                                               @RequestParam(defaultValue = "false") boolean aggregate,
+                                               WebRequest request) {
         Pattern pattern = Pattern.compile(CURRENCY_PAIR_PATTERN);
         if (!pattern.matcher(currencyPair).matches()) {
             return ResponseEntity.badRequest().body(new Error(-21, CURRENCY_PAIR_VALIDATION_ERROR));
         }
-        return ResponseEntity.ok().body(orderBookService.getOrderBookBy(currencyPair));
+        if (depth != null && depth < 1) {
+            return ResponseEntity.badRequest().body(new Error(-31, "Invalid depth value. " +
+                    "Depth must be greater than 0."));
+        }
+        if (aggregate) {
+            AggregatedOrderBook orderBook = orderBookService.getAggregatedOrderBookBy(currencyPair,
+                    depth == null ? Integer.MAX_VALUE : depth);
+            String eTag = "\"" + orderBook.getVersion() + "\"";
+            return request.checkNotModified(eTag) ? null : ResponseEntity.ok().eTag(eTag).body(orderBook);
+        }
+        if (depth != null) {
+            OrderBook orderBook = orderBookService.getOrderBookBy(currencyPair, depth);
+            String eTag = "\"" + orderBook.getVersion() + "\"";
+            return request.checkNotModified(eTag) ? null : ResponseEntity.ok().eTag(eTag).body(orderBook);
+        }
+        SerializedOrderBook orderBook = orderBookService.getSerializedOrderBookBy(currencyPair);
+        String eTag = "\"" + orderBook.getVersion() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(orderBook.getJson());
+    }
+
+    /**
+     * Endpoint for retrieving the best bid and offer of a currency pair.
+     *
+     * @param currencyPair the currency pair to retrieve the top of the book for
+     * @return a ResponseEntity containing the best bid and ask levels or an error message if the currency pair is
+     * invalid
+     */
+    @GetMapping("{currencyPair}/bbo")
+    public ResponseEntity<Object> getBestBidOffer(@PathVariable String currencyPair) {
+        if (!currencyPair.matches(CURRENCY_PAIR_PATTERN)) {
+            return ResponseEntity.badRequest().body(new Error(-21, CURRENCY_PAIR_VALIDATION_ERROR));
+        }
+        return ResponseEntity.ok().body(orderBookService.getBestBidOfferBy(currencyPair));
+    }
+
+    /**
+     * Endpoint for retrieving the best bid and offer of all currency pairs with an order book.
+     *
+     * @return a ResponseEntity containing the tops of all books ordered by currency pair
+     */
+    @GetMapping("bbo")
+    public ResponseEntity<Object> getBestBidOffers() {
+        return ResponseEntity.ok().body(orderBookService.getBestBidOffers());
+    }
+
+    /**
+     * Endpoint for streaming the market data of a currency pair as server-sent events.
+     * The stream starts with a {@code snapshot} event holding the price levels of the book, followed by an
+     * {@code update} event with the changed levels for every change of the book and a {@code trades} event for
+     * the executed trades. Snapshot and update ids are book versions; trades carry their sequence numbers.
+     *
+     * @param currencyPair the currency pair to stream
+     * @return a ResponseEntity streaming the events, or a stream with a single error event if the currency pair is
+     * invalid
+     */
+    @GetMapping("{currencyPair}/stream")
+    public ResponseEntity<SseEmitter> streamMarketData(@PathVariable String currencyPair) {
+        if (!currencyPair.matches(CURRENCY_PAIR_PATTERN)) {
+            return badEventStreamRequest(new Error(-21, CURRENCY_PAIR_VALIDATION_ERROR));
+        }
+        String pair = currencyPair.toUpperCase();
+        return ResponseEntity.ok(marketDataPublisher.subscribe(pair,
+                () -> orderBookService.getAggregatedOrderBookBy(pair, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Endpoint for retrieving how far the clients streaming a currency pair lag behind its book.
+     *
+     * @param currencyPair the currency pair of the streams
+     * @return a ResponseEntity containing the statistics of every subscriber of the pair or an error message if the
+     * currency pair is invalid
+     */
+    @GetMapping("{currencyPair}/stream/subscribers")
+    public ResponseEntity<Object> getStreamSubscribers(@PathVariable String currencyPair) {
+        if (!currencyPair.matches(CURRENCY_PAIR_PATTERN)) {
+            return ResponseEntity.badRequest().body(new Error(-21, CURRENCY_PAIR_VALIDATION_ERROR));
+        }
+        return ResponseEntity.ok(marketDataPublisher.getSubscriberStatistics(currencyPair.toUpperCase()));
     }
 
     /**
      * Endpoint for creating a limit order.
      *
      * @param limitOrder the limit order data transfer object containing order details
-     * @return a ResponseEntity containing a success message or an error message if the order is invalid
+     * @return a ResponseEntity containing the order id and a success message, an error message if the order is invalid
+     * or its currency pair is not traded, or 503 Service Unavailable if the order was not executed in time
      */
     @PostMapping("/order/limit")
     public ResponseEntity<Object> createLimitOrder(@Valid @RequestBody LimitOrderDTO limitOrder) {
@@ -109,11 +238,42 @@ public class WebController {
                     Quantity and price must be greater than 0.
                     Side must be either 'BUY' or 'SELL'."""));
         }
-        Order executedOrder = orderBookService.createLimitOrder(limitOrder);
-        if (executedOrder != null) {
-            tradeHistoryService.addTradeOrder(executedOrder);
+        LimitOrderResult result;
+        try {
+            result = await(orderBookService.createLimitOrder(limitOrder));
+        } catch (CompletionException e) {
+            return commandFailure(e.getCause());
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", result.getOrderId());
+        response.put("message", "Limit order created successfully.");
+        return ResponseEntity.ok().body(response);
+    }
+
+    /**
+     * Endpoint for cancelling a resting order.
+     *
+     * @param currencyPair the currency pair of the order
+     * @param orderId the id of the order to cancel
+     * @return a ResponseEntity containing a success message, an error message if the order was not found, or 503
+     * Service Unavailable if the cancellation was not executed in time
+     */
+    @DeleteMapping("/order/{currencyPair}/{orderId}")
+    public ResponseEntity<Object> cancelOrder(@PathVariable String currencyPair, @PathVariable long orderId) {
+        Pattern pattern = Pattern.compile(CURRENCY_PAIR_PATTERN);
+        if (!pattern.matcher(currencyPair).matches()) {
+            return ResponseEntity.badRequest().body(new Error(-21, CURRENCY_PAIR_VALIDATION_ERROR));
+        }
+        boolean cancelled;
+        try {
+            cancelled = await(orderBookService.cancelOrder(currencyPair, orderId));
+        } catch (CompletionException e) {
+            return commandFailure(e.getCause());
+        }
+        if (!cancelled) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new Error(-25, "Order not found."));
         }
-        return ResponseEntity.ok().body("Limit order created successfully.");
+        return ResponseEntity.ok().body("Order cancelled successfully.");
     }
 
     /**
@@ -122,20 +282,203 @@ public class WebController {
      * @param currencyPair the currency pair to retrieve the trade history for
      * @param skip the number of records to skip
      * @param limit the maximum number of records to return
+     * @param afterId optional id of the last trade already seen; when set, only later trades are returned
+     * @param since optional sequence number of the last trade of the pair already seen; when set, only later
+     *              trades are returned
+     * @param from optional ISO-8601 start of the time range, inclusive
+     * @param to optional ISO-8601 end of the time range, exclusive
      * @return a ResponseEntity containing the trade history or an error message if the input parameters are invalid
      */
     @SuppressWarnings("ConstantValue")
     @GetMapping("{currencyPair}/trades")
     public ResponseEntity<Object> getTradeHistory(@PathVariable String currencyPair,
                                                   @RequestParam(defaultValue = "0") @Min(0) int skip,
-                                                  @RequestParam(defaultValue = "10") @Min(0) int limit) {
+                                                  @RequestParam(defaultValue = "10") @Min(0) int limit,
+                                                  @RequestParam(required = false) Long afterId,
+                                                  @RequestParam(required = false) Long since,
+                                                  @RequestParam(required = false) String from,
+                                                  @RequestParam(required = false) String to) {
         Pattern currencyPairPattern = Pattern.compile(CURRENCY_PAIR_PATTERN);
         if (!currencyPairPattern.matcher(currencyPair).matches()) {
             return ResponseEntity.badRequest().body(new Error(-21, CURRENCY_PAIR_VALIDATION_ERROR));
         } else if (skip < 0 || limit < 0 || limit > 100) {
             return ResponseEntity.badRequest().body(new Error(-22, "Invalid skip or limit value. " +
                     "Please provide a positive integer value for skip and limit (max limit is 100)."));
+        } else if (afterId != null && afterId < 0) {
+            return ResponseEntity.badRequest().body(new Error(-26, "Invalid afterId value. " +
+                    "Please provide the id of a previously returned trade."));
+        } else if (since != null && since < 0) {
+            return ResponseEntity.badRequest().body(new Error(-30, "Invalid since value. " +
+                    "Please provide the sequence number of a previously returned trade or 0."));
+        } else if (afterId == null && since == null && from == null && to == null) {
+            return ResponseEntity.ok().body(tradeHistoryService.getTradeHistoryBy(currencyPair, skip, limit));
+        }
+        long[] timeRange = parseTimeRange(from, to);
+        if (timeRange == null) {
+            return ResponseEntity.badRequest().body(new Error(-28, TIME_RANGE_VALIDATION_ERROR));
+        }
+        return ResponseEntity.ok().body(tradeHistoryService.getTradeHistoryBy(currencyPair,
+                since == null ? 0 : since, afterId == null ? -1 : afterId, timeRange[0], timeRange[1], skip, limit));
+    }
+
+    /**
+     * Endpoint for exporting the whole trade history of a currency pair, or a time range of it.
+     * The trades are streamed in batches as they are read, so the response is chunked and the memory used does
+     * not depend on the number of trades.
+     *
+     * @param currencyPair the currency pair to export the trade history for
+     * @param format the format of the export: csv or ndjson
+     * @param from optional ISO-8601 start of the time range, inclusive
+     * @param to optional ISO-8601 end of the time range, exclusive
+     * @return a ResponseEntity streaming the trades or an error message if the input parameters are invalid
+     */
+    @GetMapping("{currencyPair}/trades/export")
+    public ResponseEntity<StreamingResponseBody> exportTradeHistory(@PathVariable String currencyPair,
+                                                                    @RequestParam(defaultValue = "csv") String format,
+                                                                    @RequestParam(required = false) String from,
+                                                                    @RequestParam(required = false) String to) {
+        Pattern currencyPairPattern = Pattern.compile(CURRENCY_PAIR_PATTERN);
+        Optional<TradeExportFormat> exportFormat = TradeExportFormat.fromCode(format);
+        if (!currencyPairPattern.matcher(currencyPair).matches()) {
+            return badStreamingRequest(new Error(-21, CURRENCY_PAIR_VALIDATION_ERROR));
+        } else if (exportFormat.isEmpty()) {
+            return badStreamingRequest(new Error(-29, "Invalid format value. Supported formats are csv and ndjson."));
+        }
+        long[] timeRange = parseTimeRange(from, to);
+        if (timeRange == null) {
+            return badStreamingRequest(new Error(-28, TIME_RANGE_VALIDATION_ERROR));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.get().getMediaType()))
+                .body(out -> tradeHistoryService.exportTradeHistory(currencyPair, exportFormat.get(),
+                        timeRange[0], timeRange[1], out));
+    }
+
+    /**
+     * Endpoint for retrieving the most recent OHLCV candles of a currency pair.
+     *
+     * @param currencyPair the currency pair to retrieve the candles for
+     * @param interval the candle interval: 1m, 5m, 1h or 1d
+     * @param limit the maximum number of candles to return
+     * @return a ResponseEntity containing the candles in ascending time order or an error message if the input
+     * parameters are invalid
+     */
+    @GetMapping("{currencyPair}/candles")
+    public ResponseEntity<Object> getCandles(@PathVariable String currencyPair,
+                                             @RequestParam(defaultValue = "1m") String interval,
+                                             @RequestParam(defaultValue = "100") int limit) {
+        Pattern currencyPairPattern = Pattern.compile(CURRENCY_PAIR_PATTERN);
+        Optional<CandleInterval> candleInterval = CandleInterval.fromCode(interval);
+        if (!currencyPairPattern.matcher(currencyPair).matches()) {
+            return ResponseEntity.badRequest().body(new Error(-21, CURRENCY_PAIR_VALIDATION_ERROR));
+        } else if (candleInterval.isEmpty() || limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().body(new Error(-27, "Invalid interval or limit value. " +
+                    "Supported intervals are 1m, 5m, 1h and 1d, limit must be between 1 and 1000."));
+        }
+        return ResponseEntity.ok().body(tradeHistoryService.getCandles(currencyPair, candleInterval.get(), limit));
+    }
+
+    /**
+     * Endpoint for retrieving the rolling 24 hour statistics of a currency pair.
+     *
+     * @param currencyPair the currency pair to retrieve the ticker for
+     * @return a ResponseEntity containing the ticker or an error message if the currency pair is invalid
+     */
+    @GetMapping("{currencyPair}/ticker")
+    public ResponseEntity<Object> getTicker(@PathVariable String currencyPair) {
+        Pattern currencyPairPattern = Pattern.compile(CURRENCY_PAIR_PATTERN);
+        if (!currencyPairPattern.matcher(currencyPair).matches()) {
+            return ResponseEntity.badRequest().body(new Error(-21, CURRENCY_PAIR_VALIDATION_ERROR));
+        }
+        return ResponseEntity.ok().body(tradeHistoryService.getTicker(currencyPair));
+    }
+
+    /**
+     * Endpoint for retrieving the rolling 24 hour statistics of all traded currency pairs.
+     *
+     * @return a ResponseEntity containing the tickers ordered by currency pair
+     */
+    @GetMapping("tickers")
+    public ResponseEntity<Object> getTickers() {
+        return ResponseEntity.ok().body(tradeHistoryService.getTickers());
+    }
+
+    /**
+     * Parses the optional bounds of a time range. A missing bound leaves the range open on that side.
+     *
+     * @param from optional ISO-8601 start of the time range, inclusive
+     * @param to optional ISO-8601 end of the time range, exclusive
+     * @return the start and the end of the range in nanoseconds since the epoch, or null if a bound is not an
+     * ISO-8601 timestamp or cannot be represented in nanoseconds since the epoch
+     */
+    private static long[] parseTimeRange(String from, String to) {
+        try {
+            return new long[]{from == null ? Long.MIN_VALUE : EpochClock.fromIsoString(from),
+                    to == null ? Long.MAX_VALUE : EpochClock.fromIsoString(to)};
+        } catch (DateTimeParseException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Waits for a command queued on the matching thread of a currency pair, at most for the command timeout.
+     *
+     * @param result the future of the command
+     * @param <T> the type of the result
+     * @return the result of the command
+     * @throws CompletionException if the command failed or did not complete in time
+     */
+    private <T> T await(CompletableFuture<T> result) {
+        return result.orTimeout(commandTimeout.toMillis(), TimeUnit.MILLISECONDS).join();
+    }
+
+    /**
+     * Builds the response for a command that failed or timed out: a bad request if the currency pair is not traded
+     * or the order was rejected by the book, otherwise 503 Service Unavailable, as the order book could not answer.
+     *
+     * @param failure the cause of the failure
+     * @return a ResponseEntity containing an error message
+     */
+    private static ResponseEntity<Object> commandFailure(Throwable failure) {
+        if (failure instanceof UnsupportedCurrencyPairException) {
+            return ResponseEntity.badRequest().body(new Error(-32, "Unsupported currency pair. " +
+                    "Orders can only be placed on the traded currency pairs."));
+        } else if (failure instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(new Error(-23, "Invalid limitOrder. " + failure.getMessage()));
+        }
+        String message = failure instanceof TimeoutException ? "The order book did not answer in time."
+                : "The order book is unavailable.";
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new Error(-33, message +
+                " Please check the order book before retrying."));
+    }
+
+    /**
+     * Builds a bad request response for a streaming endpoint, writing the error as JSON.
+     *
+     * @param error the error to return
+     * @return a ResponseEntity streaming the error
+     */
+    private static ResponseEntity<StreamingResponseBody> badStreamingRequest(Error error) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> ERROR_WRITER.writeValue(out, error));
+    }
+
+    /**
+     * Builds a bad request answer for an event stream endpoint: a stream with a single error event.
+     *
+     * @param error the error to send
+     * @return a ResponseEntity with status 400 streaming the error
+     */
+    private static ResponseEntity<SseEmitter> badEventStreamRequest(Error error) {
+        SseEmitter emitter = new SseEmitter();
+        try {
+            emitter.send(SseEmitter.event().name("error").data(ERROR_WRITER.writeValueAsString(error),
+                    MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
         }
-        return ResponseEntity.ok().body(tradeHistoryService.getTradeHistoryBy(currencyPair, skip, limit));
+        return ResponseEntity.badRequest().body(emitter);
     }
-}
\ No newline at end of file
+}
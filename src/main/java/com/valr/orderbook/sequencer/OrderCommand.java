@@ -0,0 +1,49 @@
+package com.valr.orderbook.sequencer;
+
+import com.valr.orderbook.model.Order;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A pre-allocated ring buffer slot carrying one command for the matching thread of a currency pair.
+ * Slots are reused, so they are cleared as soon as the command has been processed.
+ */
+class OrderCommand {
+    /**
+     * The kind of command carried by a slot.
+     */
+    enum Type {
+        CREATE_ORDER,
+        CANCEL_ORDER
+    }
+
+    Type type;
+    Order order;
+    long orderId;
+    CompletableFuture<Object> result;
+    Object response;
+    RuntimeException failure;
+
+    /**
+     * Completes the future of the command with its response or failure.
+     */
+    void complete() {
+        if (failure != null) {
+            result.completeExceptionally(failure);
+        } else {
+            result.complete(response);
+        }
+    }
+
+    /**
+     * Empties the slot for its next command.
+     */
+    void clear() {
+        type = null;
+        order = null;
+        orderId = 0;
+        result = null;
+        response = null;
+        failure = null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.valr.orderbook.sequencer;
+
+import com.valr.orderbook.exception.UnsupportedCurrencyPairException;
+import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.repository.OrderBookRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes order book commands to the single matching thread of their currency pair.
+ * This gives every pair a deterministic order of execution without locking the book, while pairs are
+ * matched in parallel.
+ * <p>
+ * Only the configured currency pairs are traded, so the number of matching threads and books is bounded by
+ * configuration rather than by what clients send. A matching thread is started on the first command of its pair.
+ */
+@Component
+public class OrderSequencer {
+    private final OrderBookRepository orderBookRepository;
+    private final Set<String> currencyPairs;
+    private final int ringSize;
+    private final Map<String, PairSequencer> sequencers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for OrderSequencer.
+     *
+     * @param orderBookRepository the repository holding the books of all pairs
+     * @param currencyPairs the currency pairs that can be traded, in upper case
+     * @param ringSize the number of command slots per currency pair, must be a power of two
+     */
+    @Autowired
+    public OrderSequencer(OrderBookRepository orderBookRepository,
+                          @Value("${orderbook.currency-pairs}") Set<String> currencyPairs,
+                          @Value("${orderbook.sequencer.ring-size}") int ringSize) {
+        this.orderBookRepository = orderBookRepository;
+        this.currencyPairs = Set.copyOf(currencyPairs);
+        this.ringSize = ringSize;
+    }
+
+    /**
+     * Checks whether a currency pair can be traded.
+     *
+     * @param currencyPair the currency pair, in upper case
+     * @return true if the pair is configured
+     */
+    public boolean isSupported(String currencyPair) {
+        return currencyPairs.contains(currencyPair);
+    }
+
+    /**
+     * Queues an order on the matching thread of its currency pair.
+     *
+     * @param order the order to create
+     * @return a future completed with the trades executed for the order, or failed with an
+     * UnsupportedCurrencyPairException if the currency pair of the order is not supported
+     */
+    public CompletableFuture<List<Trade>> submitOrder(Order order) {
+        if (!isSupported(order.getCurrencyPair())) {
+            return CompletableFuture.failedFuture(new UnsupportedCurrencyPairException(order.getCurrencyPair()));
+        }
+        return getOrCreateSequencer(order.getCurrencyPair()).submitOrder(order);
+    }
+
+    /**
+     * Queues the cancellation of a resting order on the matching thread of its currency pair.
+     *
+     * @param currencyPair the currency pair of the order
+     * @param orderId the id of the order to cancel
+     * @return a future completed with true if the order was cancelled, false if it was not resting in the book;
+     * no order rests in the book of an unsupported pair
+     */
+    public CompletableFuture<Boolean> submitCancel(String currencyPair, long orderId) {
+        if (!isSupported(currencyPair)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return getOrCreateSequencer(currencyPair).submitCancel(orderId);
+    }
+
+    /**
+     * Returns the sequencer of a supported currency pair, starting it on first use.
+     *
+     * @param currencyPair the currency pair
+     * @return the running sequencer of the pair
+     */
+    private PairSequencer getOrCreateSequencer(String currencyPair) {
+        return sequencers.computeIfAbsent(currencyPair, pair -> {
+            PairSequencer sequencer = new PairSequencer(pair, orderBookRepository, ringSize);
+            sequencer.start();
+            return sequencer;
+        });
+    }
+
+    /**
+     * Stops the matching threads of all pairs. Commands not executed yet, and commands submitted afterwards, fail
+     * with an IllegalStateException. Stopped sequencers stay registered, so no thread is started after shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        new ArrayList<>(sequencers.values()).forEach(PairSequencer::shutdown);
+    }
+}
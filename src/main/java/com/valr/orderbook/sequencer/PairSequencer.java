@@ -0,0 +1,257 @@
+package com.valr.orderbook.sequencer;
+
+import com.valr.orderbook.concurrent.RingBuffer;
+import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.repository.OrderBookRepository;
+import com.valr.orderbook.repository.book.FillBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single writer for the order book of one currency pair.
+ * Commands are queued in a lock-free ring buffer by any number of request threads and executed one by one,
+ * in sequence order, by a dedicated matching thread that drains the buffer in batches.
+ * After each batch the book snapshot is published for readers, before the results are handed back, so a
+ * caller sees its own order in the book once its future completes, unless publishing failed; the changes are then
+ * published with the next batch.
+ * <p>
+ * Fills are recorded in a buffer reused for every order of the pair and published on the market data bus from
+ * there; trade objects are only created for the result handed back to the caller of an order that traded.
+ * <p>
+ * Every future handed out is completed: a command fails only if it could not be applied to the book, and commands
+ * still queued when the sequencer stops fail with an IllegalStateException. The matching thread closes
+ * the ring buffer when it stops and waits for commands claimed before to be published, so a command racing with
+ * the shutdown is failed as well, and request threads waiting for a free slot fail instead of waiting forever.
+ */
+class PairSequencer implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(PairSequencer.class);
+    private static final int SPIN_TRIES = 10_000;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final String currencyPair;
+    private final OrderBookRepository orderBookRepository;
+    private final RingBuffer<OrderCommand> ringBuffer;
+    private final FillBuffer fills;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean waiting;
+
+    /**
+     * Constructor for PairSequencer. The matching thread is started by {@link #start()}.
+     *
+     * @param currencyPair the currency pair whose book this sequencer writes to
+     * @param orderBookRepository the repository holding the book
+     * @param ringSize the number of command slots, must be a power of two
+     */
+    PairSequencer(String currencyPair, OrderBookRepository orderBookRepository, int ringSize) {
+        this.currencyPair = currencyPair;
+        this.orderBookRepository = orderBookRepository;
+        this.ringBuffer = new RingBuffer<>(ringSize, OrderCommand::new);
+        this.fills = new FillBuffer();
+        this.thread = new Thread(this, "sequencer-" + currencyPair);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the matching thread.
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues an order for matching.
+     *
+     * @param order the order to create
+     * @return a future completed with the trades executed for the order
+     */
+    @SuppressWarnings("unchecked")
+    CompletableFuture<List<Trade>> submitOrder(Order order) {
+        return (CompletableFuture<List<Trade>>) (CompletableFuture<?>) submit(OrderCommand.Type.CREATE_ORDER, order, 0);
+    }
+
+    /**
+     * Queues the cancellation of a resting order.
+     *
+     * @param orderId the id of the order to cancel
+     * @return a future completed with true if the order was cancelled, false if it was not resting in the book
+     */
+    @SuppressWarnings("unchecked")
+    CompletableFuture<Boolean> submitCancel(long orderId) {
+        return (CompletableFuture<Boolean>) (CompletableFuture<?>) submit(OrderCommand.Type.CANCEL_ORDER, null, orderId);
+    }
+
+    /**
+     * Queues a command in the next slot of the ring buffer, waiting only while the buffer is full and the sequencer
+     * is running.
+     *
+     * @param type the type of the command
+     * @param order the order to create, or null
+     * @param orderId the id of the order to cancel, or 0
+     * @return a future completed with the response of the command, or failed if the sequencer is stopped
+     */
+    private CompletableFuture<Object> submit(OrderCommand.Type type, Order order, long orderId) {
+        if (!running) {
+            return CompletableFuture.failedFuture(stopped());
+        }
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        long sequence;
+        try {
+            sequence = ringBuffer.claim();
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(stopped());
+        }
+        OrderCommand command = ringBuffer.get(sequence);
+        command.type = type;
+        command.order = order;
+        command.orderId = orderId;
+        command.result = result;
+        ringBuffer.publish(sequence);
+        if (waiting) {
+            LockSupport.unpark(thread);
+        }
+        return result;
+    }
+
+    /**
+     * Matching loop. Drains all published commands as one batch, then spins and finally parks until
+     * new commands are published. Once stopped, closes the ring buffer and fails the commands still queued,
+     * including those claimed but not yet published when it was closed.
+     */
+    @Override
+    public void run() {
+        long nextSequence = 0;
+        int idleCount = 0;
+        while (running) {
+            long availableSequence = ringBuffer.getHighestPublishedSequence(nextSequence);
+            if (availableSequence < nextSequence) {
+                idleCount = idle(idleCount, nextSequence);
+                continue;
+            }
+            idleCount = 0;
+            executeBatch(nextSequence, availableSequence);
+            nextSequence = availableSequence + 1;
+        }
+        long lastSequence = ringBuffer.close();
+        while (ringBuffer.getHighestPublishedSequence(nextSequence) < lastSequence) {
+            Thread.onSpinWait();
+        }
+        for (long sequence = nextSequence; sequence <= lastSequence; sequence++) {
+            ringBuffer.get(sequence).failure = stopped();
+        }
+        completeBatch(nextSequence, lastSequence);
+    }
+
+    /**
+     * Executes a batch of commands, publishes the snapshot of the book and completes the futures of the batch.
+     * A failing publication does not fail the commands: they were applied to the book and their trades are on the
+     * bus, so each command is completed with its own response and the publication is retried with the next batch.
+     *
+     * @param firstSequence the sequence of the first command of the batch
+     * @param lastSequence the sequence of the last command of the batch
+     */
+    private void executeBatch(long firstSequence, long lastSequence) {
+        for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+            execute(ringBuffer.get(sequence));
+        }
+        publishSnapshot();
+        completeBatch(firstSequence, lastSequence);
+    }
+
+    /**
+     * Publishes the snapshot of the book. A failure is logged and leaves the changes of the book unpublished, so
+     * the publication of the next batch includes them.
+     */
+    private void publishSnapshot() {
+        try {
+            orderBookRepository.publishSnapshot(currencyPair);
+        } catch (RuntimeException e) {
+            logger.error("Publishing the snapshot failed for currency pair {}, retrying with the next batch",
+                    currencyPair, e);
+        }
+    }
+
+    /**
+     * Completes the futures of a batch of commands and releases their slots.
+     *
+     * @param firstSequence the sequence of the first command of the batch
+     * @param lastSequence the sequence of the last command of the batch
+     */
+    private void completeBatch(long firstSequence, long lastSequence) {
+        for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+            OrderCommand command = ringBuffer.get(sequence);
+            command.complete();
+            command.clear();
+        }
+        if (lastSequence >= firstSequence) {
+            ringBuffer.release(lastSequence);
+        }
+    }
+
+    /**
+     * Waits for new commands: spins first, then parks for a bounded time.
+     *
+     * @param idleCount the number of consecutive idle rounds so far
+     * @param nextSequence the sequence of the next command to execute
+     * @return the updated idle count
+     */
+    private int idle(int idleCount, long nextSequence) {
+        if (idleCount < SPIN_TRIES) {
+            Thread.onSpinWait();
+            return idleCount + 1;
+        }
+        waiting = true;
+        if (ringBuffer.getHighestPublishedSequence(nextSequence) < nextSequence && running) {
+            LockSupport.parkNanos(this, MAX_PARK_NANOS);
+        }
+        waiting = false;
+        return idleCount;
+    }
+
+    /**
+     * Executes a single command on the book. A failing command fails only its own future.
+     *
+     * @param command the command to execute
+     */
+    private void execute(OrderCommand command) {
+        try {
+            switch (command.type) {
+                case CREATE_ORDER -> {
+                    orderBookRepository.createOrder(command.order, fills);
+                    command.response = fills.toTrades(currencyPair);
+                }
+                case CANCEL_ORDER -> command.response = orderBookRepository.cancelOrder(currencyPair, command.orderId);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Command {} failed for currency pair {}", command.type, currencyPair, e);
+            command.failure = e;
+        }
+    }
+
+    /**
+     * Stops the matching thread once the current batch has been processed.
+     */
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(MAX_PARK_NANOS / 1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Creates the failure of a command that cannot be executed because the sequencer is stopped.
+     *
+     * @return the failure
+     */
+    private IllegalStateException stopped() {
+        return new IllegalStateException("Matching is stopped for currency pair " + currencyPair + ".");
+    }
+}
@@ -1,32 +1,57 @@
 package com.valr.orderbook.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.valr.orderbook.model.AggregatedOrderBook;
+import com.valr.orderbook.model.BestBidOffer;
 import com.valr.orderbook.model.LimitOrderDTO;
+import com.valr.orderbook.model.LimitOrderResult;
 import com.valr.orderbook.model.Order;
 import com.valr.orderbook.model.OrderBook;
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.SerializedOrderBook;
 import com.valr.orderbook.repository.OrderBookRepository;
+import com.valr.orderbook.sequencer.OrderSequencer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Service class for managing order book operations.
+ * Keeps the JSON of the latest snapshot of every book, so readers asking for an unchanged book share one
+ * serialization.
  */
 @Service
 public class OrderBookService {
 
     private final OrderBookRepository orderBookRepository;
+    private final OrderSequencer orderSequencer;
+    private final ObjectMapper objectMapper;
+    private final Map<String, SerializedOrderBook> serializedOrderBooks = new ConcurrentHashMap<>();
 
     /**
      * Constructor for OrderBookService.
      *
      * @param orderBookRepository the repository for managing order book data
+     * @param orderSequencer the sequencer executing commands on the matching thread of each pair
+     * @param objectMapper the mapper serializing order book snapshots as JSON
      */
     @Autowired
-    public OrderBookService(OrderBookRepository orderBookRepository) {
+    public OrderBookService(OrderBookRepository orderBookRepository, OrderSequencer orderSequencer,
+                            ObjectMapper objectMapper) {
         this.orderBookRepository = orderBookRepository;
+        this.orderSequencer = orderSequencer;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Retrieves the order book for a given currency pair.
+     * Returns the last snapshot published by the matching thread of the pair, without blocking it.
      *
      * @param currencyPair the currency pair to filter the order book by
      * @return the filtered order book
@@ -35,6 +60,89 @@ public class OrderBookService {
         return orderBookRepository.filterOrderBookBy(currencyPair.toUpperCase());
     }
 
+    /**
+     * Retrieves the orders of the best price levels of the order book for a given currency pair.
+     * The level totals of the snapshot tell how many orders the levels hold, so the orders are cut at the last
+     * requested level without scanning them.
+     *
+     * @param currencyPair the currency pair of the order book
+     * @param depth the maximum number of price levels per side
+     * @return the order book limited to the orders of the best levels of each side
+     */
+    public OrderBook getOrderBookBy(String currencyPair, int depth) {
+        OrderBook snapshot = getOrderBookBy(currencyPair);
+        return OrderBook.builder()
+                .asks(snapshot.getAsks().subList(0, orderCountOf(snapshot.getAskLevels(), depth)))
+                .bids(snapshot.getBids().subList(0, orderCountOf(snapshot.getBidLevels(), depth)))
+                .askLevels(topLevels(snapshot.getAskLevels(), depth))
+                .bidLevels(topLevels(snapshot.getBidLevels(), depth))
+                .lastChange(snapshot.getLastChange())
+                .version(snapshot.getVersion())
+                .build();
+    }
+
+    /**
+     * Retrieves the order book for a given currency pair aggregated by price level.
+     * Levels come from the snapshot, where their totals are kept as orders are added, filled and removed, so this
+     * costs O(depth).
+     *
+     * @param currencyPair the currency pair of the order book
+     * @param depth the maximum number of price levels per side
+     * @return the best levels of each side with their total quantities and order counts
+     */
+    public AggregatedOrderBook getAggregatedOrderBookBy(String currencyPair, int depth) {
+        String pair = currencyPair.toUpperCase();
+        OrderBook snapshot = orderBookRepository.filterOrderBookBy(pair);
+        return AggregatedOrderBook.builder()
+                .currencyPair(pair)
+                .asks(topLevels(snapshot.getAskLevels(), depth))
+                .bids(topLevels(snapshot.getBidLevels(), depth))
+                .lastChange(snapshot.getLastChange())
+                .version(snapshot.getVersion())
+                .build();
+    }
+
+    /**
+     * Retrieves the best bid and offer of the order book for a given currency pair, without reading its orders.
+     *
+     * @param currencyPair the currency pair of the order book
+     * @return the top of the book published with its last snapshot
+     */
+    public BestBidOffer getBestBidOfferBy(String currencyPair) {
+        return orderBookRepository.getBestBidOffer(currencyPair.toUpperCase());
+    }
+
+    /**
+     * Retrieves the best bid and offer of every order book.
+     *
+     * @return the tops of all books, ordered by currency pair
+     */
+    public List<BestBidOffer> getBestBidOffers() {
+        return orderBookRepository.getBestBidOffers();
+    }
+
+    /**
+     * Retrieves the order book for a given currency pair serialized as JSON.
+     * The JSON of a snapshot is built by the first read after the book changed and shared by all later reads of
+     * the same version; concurrent first reads wait for a single serialization.
+     *
+     * @param currencyPair the currency pair of the order book
+     * @return the JSON of the latest snapshot of the book with its version
+     */
+    public SerializedOrderBook getSerializedOrderBookBy(String currencyPair) {
+        String pair = currencyPair.toUpperCase();
+        OrderBook snapshot = orderBookRepository.filterOrderBookBy(pair);
+        if (snapshot.getVersion() == 0) {
+            return serialize(snapshot);
+        }
+        SerializedOrderBook cached = serializedOrderBooks.get(pair);
+        if (cached != null && cached.getVersion() >= snapshot.getVersion()) {
+            return cached;
+        }
+        return serializedOrderBooks.compute(pair, (key, current) ->
+                current != null && current.getVersion() >= snapshot.getVersion() ? current : serialize(snapshot));
+    }
+
     /**
      * Updates the order book with the given order book data.
      * Used to update the order book for inserting data (not for production).
@@ -46,11 +154,67 @@ public class OrderBookService {
 
     /**
      * Creates a limit order based on the given limit order DTO.
+     * The order is assigned a unique id and queued on the matching thread of its currency pair.
      *
      * @param limitOrderDTO the limit order data transfer object
-     * @return the created order
+     * @return a future completed with the order id and the trades executed for the order
+     */
+    public CompletableFuture<LimitOrderResult> createLimitOrder(LimitOrderDTO limitOrderDTO) {
+        Order order = new Order(limitOrderDTO);
+        order.setId(orderBookRepository.nextOrderId());
+        order.setCurrencyPair(order.getCurrencyPair().toUpperCase());
+        long orderId = order.getId();
+        return orderSequencer.submitOrder(order).thenApply(trades -> new LimitOrderResult(orderId, trades));
+    }
+
+    /**
+     * Cancels a resting order. The cancellation is queued on the matching thread of the currency pair.
+     *
+     * @param currencyPair the currency pair of the order
+     * @param orderId the id of the order to cancel
+     * @return a future completed with true if the order was cancelled, false if it was not resting in the book
+     */
+    public CompletableFuture<Boolean> cancelOrder(String currencyPair, long orderId) {
+        return orderSequencer.submitCancel(currencyPair.toUpperCase(), orderId);
+    }
+
+    /**
+     * Returns the best levels of a side.
+     *
+     * @param levels the levels of the side, best first
+     * @param depth the maximum number of levels
+     * @return a view of at most depth levels
+     */
+    private static List<OrderBookLevel> topLevels(List<OrderBookLevel> levels, int depth) {
+        return levels.subList(0, Math.min(depth, levels.size()));
+    }
+
+    /**
+     * Counts the orders resting on the best levels of a side.
+     *
+     * @param levels the levels of the side, best first
+     * @param depth the maximum number of levels
+     * @return the number of orders on at most depth levels
+     */
+    private static int orderCountOf(List<OrderBookLevel> levels, int depth) {
+        int count = 0;
+        for (OrderBookLevel level : topLevels(levels, depth)) {
+            count += level.getOrderCount();
+        }
+        return count;
+    }
+
+    /**
+     * Serializes an order book snapshot as JSON.
+     *
+     * @param snapshot the snapshot to serialize
+     * @return the JSON of the snapshot with its version
      */
-    public Order createLimitOrder(LimitOrderDTO limitOrderDTO) {
-        return orderBookRepository.createOrder(new Order(limitOrderDTO));
+    private SerializedOrderBook serialize(OrderBook snapshot) {
+        try {
+            return new SerializedOrderBook(snapshot.getVersion(), objectMapper.writeValueAsBytes(snapshot));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize order book", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,37 +1,100 @@
 package com.valr.orderbook.service;
 
-import com.valr.orderbook.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.valr.orderbook.event.TradeListener;
+import com.valr.orderbook.model.Candle;
+import com.valr.orderbook.model.Ticker;
 import com.valr.orderbook.model.Trade;
 import com.valr.orderbook.model.TradeHistory;
+import com.valr.orderbook.model.enumeration.CandleInterval;
+import com.valr.orderbook.model.enumeration.TradeExportFormat;
+import com.valr.orderbook.repository.CandleRepository;
+import com.valr.orderbook.repository.TickerRepository;
 import com.valr.orderbook.repository.TradeHistoryRepository;
+import com.valr.orderbook.util.EpochClock;
+import com.valr.orderbook.util.FixedPoint;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 /**
  * Service class for managing trade history operations.
+ * Listens to the market data bus, so trades executed by the matching engine are recorded in batches off the
+ * order entry path. It is the first trade listener of the bus, so other listeners see the trades with the ids and
+ * sequence numbers assigned while recording them.
  */
 @Service
-public class TradeHistoryService {
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TradeHistoryService implements TradeListener {
+    static final int EXPORT_BATCH_SIZE = 1000;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,sequence,price,quantity,currencyPair,tradedAt,takerSide,quoteVolume\n";
 
     private final TradeHistoryRepository tradeHistoryRepository;
+    private final CandleRepository candleRepository;
+    private final TickerRepository tickerRepository;
+    private final ObjectMapper objectMapper;
 
     /**
      * Constructor for TradeHistoryService.
      *
      * @param tradeHistoryRepository the repository for managing trade history data
+     * @param candleRepository the repository for managing candles
+     * @param tickerRepository the repository for managing ticker statistics
+     * @param objectMapper the mapper serializing exported trades as JSON
      */
     @Autowired
-    public TradeHistoryService(TradeHistoryRepository tradeHistoryRepository) {
+    public TradeHistoryService(TradeHistoryRepository tradeHistoryRepository, CandleRepository candleRepository,
+                               TickerRepository tickerRepository, ObjectMapper objectMapper) {
         this.tradeHistoryRepository = tradeHistoryRepository;
+        this.candleRepository = candleRepository;
+        this.tickerRepository = tickerRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Adds executed trades to the trade history, assigning each of them the next trade id,
+     * and folds them into the candles and ticker statistics of their currency pair.
+     *
+     * @param trades the trades to be added, in execution order
+     */
+    public void addTrades(List<Trade> trades) {
+        for (Trade trade : trades) {
+            tradeHistoryRepository.addTrade(trade);
+            candleRepository.addTrade(trade);
+            tickerRepository.addTrade(trade);
+        }
+    }
+
+    /**
+     * Records a batch of trades published on the trade event bus.
+     *
+     * @param trades the trades of the batch, in execution order per currency pair
+     */
+    @Override
+    public void onTrades(List<Trade> trades) {
+        addTrades(trades);
     }
 
     /**
-     * Adds a trade order to the trade history.
+     * Retrieves the most recent candles of a currency pair.
      *
-     * @param order the order to be added as a trade
+     * @param currencyPair the currency pair
+     * @param interval the candle interval
+     * @param limit the maximum number of candles to return
+     * @return the candles in ascending time order
      */
-    public void addTradeOrder(Order order) {
-        tradeHistoryRepository.addTrade(new Trade(order, tradeHistoryRepository.getNextAvailableId()));
+    public List<Candle> getCandles(String currencyPair, CandleInterval interval, int limit) {
+        return candleRepository.getCandles(currencyPair.toUpperCase(), interval, limit);
     }
 
     /**
@@ -45,4 +108,112 @@ public class TradeHistoryService {
     public TradeHistory getTradeHistoryBy(String currencyPair, int skipSize, int limitSize) {
         return tradeHistoryRepository.filterTradeHistoryBy(currencyPair.toUpperCase(), skipSize, limitSize);
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the trades of a given currency pair that follow a sequence number and a trade id cursor and were
+     * executed within a time range.
+     *
+     * @param currencyPair the currency pair to filter the trade history by
+     * @param since the sequence number of the last trade of the pair already seen, or 0 to start at the first trade
+     * @param afterId the id of the last trade already seen, or -1 to start at the first trade
+     * @param fromNanos the start of the time range in nanoseconds since the epoch, inclusive
+     * @param toNanos the end of the time range in nanoseconds since the epoch, exclusive
+     * @param skipSize the number of matching records to skip
+     * @param limitSize the maximum number of records to return
+     * @return the filtered trade history
+     */
+    public TradeHistory getTradeHistoryBy(String currencyPair, long since, long afterId, long fromNanos,
+                                          long toNanos, int skipSize, int limitSize) {
+        return tradeHistoryRepository.filterTradeHistoryBy(currencyPair.toUpperCase(), since, afterId, fromNanos,
+                toNanos, skipSize, limitSize);
+    }
+
+    /**
+     * Writes the trades of a currency pair executed within a time range to a stream, oldest first.
+     * Trades are read in batches following the sequence number of the previous batch, so each batch costs
+     * O(batch size) after the start of the range is found and memory stays constant however many trades are
+     * exported.
+     *
+     * @param currencyPair the currency pair to export
+     * @param format the format of the export
+     * @param fromNanos the start of the time range in nanoseconds since the epoch, inclusive
+     * @param toNanos the end of the time range in nanoseconds since the epoch, exclusive
+     * @param out the stream to write to; it is flushed but not closed
+     * @throws IOException if writing to the stream fails
+     */
+    public void exportTradeHistory(String currencyPair, TradeExportFormat format, long fromNanos, long toNanos,
+                                   OutputStream out) throws IOException {
+        String pair = currencyPair.toUpperCase();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        if (format == TradeExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        long since = 0;
+        long from = fromNanos;
+        List<Trade> batch;
+        do {
+            batch = tradeHistoryRepository.filterTradeHistoryBy(pair, since, -1, from, toNanos, 0,
+                    EXPORT_BATCH_SIZE).getTrades();
+            for (Trade trade : batch) {
+                if (format == TradeExportFormat.CSV) {
+                    writeCsv(trade, writer);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(trade));
+                    writer.write('\n');
+                }
+            }
+            if (!batch.isEmpty()) {
+                since = batch.get(batch.size() - 1).getSequence();
+                from = Long.MIN_VALUE;
+            }
+        } while (batch.size() == EXPORT_BATCH_SIZE);
+        writer.flush();
+    }
+
+    /**
+     * Retrieves the statistics of a currency pair for the last 24 hours.
+     *
+     * @param currencyPair the currency pair
+     * @return the ticker of the currency pair
+     */
+    public Ticker getTicker(String currencyPair) {
+        return tickerRepository.getTicker(currencyPair.toUpperCase(), EpochClock.nanos());
+    }
+
+    /**
+     * Retrieves the statistics of all traded currency pairs for the last 24 hours.
+     *
+     * @return the tickers ordered by currency pair
+     */
+    public List<Ticker> getTickers() {
+        return tickerRepository.getTickers(EpochClock.nanos());
+    }
+
+    /**
+     * Writes a trade as a CSV line, with amounts as plain decimals at the precision of its currency pair.
+     *
+     * @param trade the trade to write
+     * @param writer the writer to write to
+     * @throws IOException if writing fails
+     */
+    private static void writeCsv(Trade trade, Writer writer) throws IOException {
+        String pair = trade.getCurrencyPair();
+        writer.write(Long.toString(trade.getId()));
+        writer.write(',');
+        writer.write(Long.toString(trade.getSequence()));
+        writer.write(',');
+        writer.write(FixedPoint.toDecimalPrice(trade.getPrice(), pair).stripTrailingZeros().toPlainString());
+        writer.write(',');
+        writer.write(FixedPoint.toDecimalQuantity(trade.getQuantity(), pair).stripTrailingZeros().toPlainString());
+        writer.write(',');
+        writer.write(pair);
+        writer.write(',');
+        writer.write(EpochClock.toIsoString(trade.getTradedAt()));
+        writer.write(',');
+        writer.write(trade.getTakerSide().name());
+        writer.write(',');
+        writer.write(FixedPoint.toDecimalQuoteVolume(trade.getQuoteVolume(), pair)
+                .stripTrailingZeros().toPlainString());
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,258 @@
+package com.valr.orderbook.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.valr.orderbook.event.OrderBookUpdateListener;
+import com.valr.orderbook.event.TradeListener;
+import com.valr.orderbook.model.AggregatedOrderBook;
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.SubscriberStatistics;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.stream.MarketDataSubscriber.StreamEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Streams the market data of each currency pair to its subscribers as server-sent events: one snapshot of the
+ * price levels of the book, then the levels changed by every published snapshot and the executed trades.
+ * Updates carry the version of the book and trades their sequence number within the pair, so a client can tell
+ * that it missed nothing.
+ * <p>
+ * Updates and trades arrive from the market data bus. Each is serialized once for all subscribers of its pair and
+ * handed to every subscriber without waiting; the writes to the clients run on a separate pool of threads. Updates
+ * a subscriber has not taken yet are conflated into one per subscriber, so a slow client neither stalls the bus
+ * nor makes the publisher buffer more than the levels of the book for it.
+ * <p>
+ * Writes are blocking, so a watchdog disconnects clients whose write has been blocked for longer than the write
+ * timeout, and adds a thread to the pool for each blocked write until it returns. A stalled client therefore holds
+ * at most one thread outside the pool, until the connection gives up the write, and never holds up other clients.
+ */
+@Component
+public class MarketDataPublisher implements TradeListener, OrderBookUpdateListener {
+    /**
+     * Streams stay open until the client disconnects.
+     */
+    private static final long NO_TIMEOUT = 0;
+
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService watchdog;
+    private final int tradeCapacity;
+    private final long writeTimeoutNanos;
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final Map<String, List<MarketDataSubscriber>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for MarketDataPublisher.
+     *
+     * @param objectMapper the mapper serializing the events as JSON
+     * @param threads the number of threads writing events to the clients
+     * @param tradeCapacity the maximum number of trade events waiting to be written to one client
+     * @param writeTimeout the longest time a single write to a client may take before the client is disconnected
+     */
+    @Autowired
+    public MarketDataPublisher(ObjectMapper objectMapper, @Value("${orderbook.stream.threads}") int threads,
+                               @Value("${orderbook.stream.trade-capacity}") int tradeCapacity,
+                               @Value("${orderbook.stream.write-timeout}") Duration writeTimeout) {
+        this.objectMapper = objectMapper;
+        this.tradeCapacity = tradeCapacity;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                daemonThreads("market-data-stream"));
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(daemonThreads("market-data-stream-watchdog"));
+        long period = Math.max(writeTimeoutNanos / 2, TimeUnit.MILLISECONDS.toNanos(1));
+        this.watchdog.scheduleAtFixedRate(this::abandonStalledWrites, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Subscribes a client to the market data of a currency pair. The subscriber is registered before the
+     * snapshot is taken, so no update following the snapshot is missed; updates the snapshot already contains
+     * are skipped.
+     *
+     * @param currencyPair the currency pair to stream, in upper case
+     * @param snapshot supplies the current price levels of the book
+     * @return the emitter streaming the events to the client
+     */
+    public SseEmitter subscribe(String currencyPair, Supplier<AggregatedOrderBook> snapshot) {
+        SseEmitter emitter = createEmitter();
+        MarketDataSubscriber subscriber = new MarketDataSubscriber(subscriberIds.incrementAndGet(), currencyPair,
+                emitter, executor, this::toJson, tradeCapacity, this::removeWriter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        subscribers.computeIfAbsent(currencyPair, key -> new CopyOnWriteArrayList<>()).add(subscriber);
+        AggregatedOrderBook orderBook = snapshot.get();
+        subscriber.start(orderBook.getVersion(), toJson(orderBook));
+        return emitter;
+    }
+
+    /**
+     * Returns the number of clients streaming a currency pair.
+     *
+     * @param currencyPair the currency pair, in upper case
+     * @return the number of subscribers
+     */
+    public int subscriberCount(String currencyPair) {
+        List<MarketDataSubscriber> pairSubscribers = subscribers.get(currencyPair);
+        return pairSubscribers == null ? 0 : pairSubscribers.size();
+    }
+
+    /**
+     * Returns how far each client streaming a currency pair lags behind its book.
+     *
+     * @param currencyPair the currency pair, in upper case
+     * @return the statistics of the subscribers of the pair, in subscription order
+     */
+    public List<SubscriberStatistics> getSubscriberStatistics(String currencyPair) {
+        List<MarketDataSubscriber> pairSubscribers = subscribers.get(currencyPair);
+        return pairSubscribers == null ? List.of()
+                : pairSubscribers.stream().map(MarketDataSubscriber::statistics).toList();
+    }
+
+    /**
+     * Hands an order book update to the subscribers of its currency pair, to be merged into their pending update.
+     *
+     * @param update the levels of the book that changed in one batch
+     */
+    @Override
+    public void onOrderBookUpdate(OrderBookUpdate update) {
+        List<MarketDataSubscriber> pairSubscribers = subscribers.get(update.getCurrencyPair());
+        if (pairSubscribers == null || pairSubscribers.isEmpty()) {
+            return;
+        }
+        StreamEvent event = new StreamEvent(MarketDataSubscriber.UPDATE_EVENT, update.getVersion(), toJson(update));
+        for (MarketDataSubscriber subscriber : pairSubscribers) {
+            subscriber.offerUpdate(update, event);
+        }
+    }
+
+    /**
+     * Queues the trades of each currency pair of the batch for the subscribers of the pair, as one event per pair.
+     *
+     * @param trades the trades of the batch, in execution order within each pair
+     */
+    @Override
+    public void onTrades(List<Trade> trades) {
+        Map<String, List<Trade>> tradesByPair = new HashMap<>();
+        for (Trade trade : trades) {
+            List<MarketDataSubscriber> pairSubscribers = subscribers.get(trade.getCurrencyPair());
+            if (pairSubscribers != null && !pairSubscribers.isEmpty()) {
+                tradesByPair.computeIfAbsent(trade.getCurrencyPair(), key -> new ArrayList<>()).add(trade);
+            }
+        }
+        tradesByPair.forEach((currencyPair, pairTrades) -> offerTrades(subscribers.get(currencyPair),
+                new StreamEvent(MarketDataSubscriber.TRADES_EVENT, pairTrades.get(pairTrades.size() - 1).getSequence(),
+                        toJson(pairTrades))));
+    }
+
+    /**
+     * Closes all streams and stops the threads writing to the clients.
+     */
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(pairSubscribers -> pairSubscribers.forEach(MarketDataSubscriber::close));
+        subscribers.clear();
+        watchdog.shutdownNow();
+        executor.shutdown();
+    }
+
+    /**
+     * Creates the emitter of a new subscriber.
+     *
+     * @return an emitter without timeout
+     */
+    SseEmitter createEmitter() {
+        return new SseEmitter(NO_TIMEOUT);
+    }
+
+    /**
+     * Disconnects the clients whose write has been blocked for longer than the write timeout, adding a thread to
+     * the pool for each of them, so the other clients keep being written to.
+     */
+    private void abandonStalledWrites() {
+        long now = System.nanoTime();
+        for (List<MarketDataSubscriber> pairSubscribers : subscribers.values()) {
+            for (MarketDataSubscriber subscriber : pairSubscribers) {
+                if (subscriber.abandonStalledWrite(now, writeTimeoutNanos)) {
+                    addWriter();
+                    unsubscribe(subscriber);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a thread to the pool writing to the clients, in place of a thread blocked in an abandoned write.
+     */
+    private synchronized void addWriter() {
+        executor.setMaximumPoolSize(executor.getMaximumPoolSize() + 1);
+        executor.setCorePoolSize(executor.getCorePoolSize() + 1);
+    }
+
+    /**
+     * Removes the thread added for an abandoned write once the write has returned.
+     */
+    private synchronized void removeWriter() {
+        executor.setCorePoolSize(executor.getCorePoolSize() - 1);
+        executor.setMaximumPoolSize(executor.getMaximumPoolSize() - 1);
+    }
+
+    /**
+     * Creates a factory of daemon threads.
+     *
+     * @param name the name of the threads
+     * @return the thread factory
+     */
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void offerTrades(List<MarketDataSubscriber> pairSubscribers, StreamEvent event) {
+        for (MarketDataSubscriber subscriber : pairSubscribers) {
+            subscriber.offerTrades(event);
+            if (subscriber.isClosed()) {
+                unsubscribe(subscriber);
+            }
+        }
+    }
+
+    private void unsubscribe(MarketDataSubscriber subscriber) {
+        subscriber.closed();
+        List<MarketDataSubscriber> pairSubscribers = subscribers.get(subscriber.getCurrencyPair());
+        if (pairSubscribers != null) {
+            pairSubscribers.remove(subscriber);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize market data", e);
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.valr.orderbook.stream;
+
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.SubscriberStatistics;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A client streaming the market data of one currency pair over server-sent events.
+ * Events are handed over by the dispatching thread of the market data bus and written to the client by a task of
+ * the stream executor, so a slow client never holds up the bus. At most one write task runs per subscriber, which
+ * keeps its events in order. A write blocked for longer than the write timeout of the publisher is abandoned: the
+ * subscriber is closed and its stream completed with an error once the write returns, while the publisher replaces
+ * the blocked thread, so a stalled client does not hold up other clients either.
+ * <p>
+ * Order book updates are conflated: until the client has taken the pending update, newer updates are merged into
+ * it level by level, keeping only the latest state of each level. A slow client therefore receives fewer, larger
+ * updates at its own pace, and what is held for it is bounded by the number of levels of the book rather than by
+ * the number of updates. An update that was not merged is written with the JSON shared by all subscribers.
+ * Trades cannot be merged; they are queued up to a fixed capacity and a subscriber overflowing it is closed, so
+ * reconnecting gives it a fresh snapshot.
+ * <p>
+ * Order book updates already contained in the snapshot the subscriber started from are skipped.
+ */
+class MarketDataSubscriber {
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String UPDATE_EVENT = "update";
+    static final String TRADES_EVENT = "trades";
+    private static final int IDLE = 0;
+    private static final int WRITING = 1;
+    private static final int ABANDONED = 2;
+
+    @Getter
+    private final long id;
+    @Getter
+    private final String currencyPair;
+    @Getter
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final Function<OrderBookUpdate, String> serializer;
+    private final BlockingQueue<StreamEvent> trades;
+    private final Runnable abandonedWriteReturned;
+    private final AtomicBoolean scheduled = new AtomicBoolean(true);
+    private final AtomicInteger writeState = new AtomicInteger(IDLE);
+    private volatile long writeStartedAt;
+    private volatile boolean closed;
+    private long snapshotVersion = Long.MAX_VALUE;
+
+    private final Map<Long, OrderBookLevel> pendingAsks = new LinkedHashMap<>();
+    private final Map<Long, OrderBookLevel> pendingBids = new LinkedHashMap<>();
+    private OrderBookUpdate pendingUpdate;
+    private StreamEvent pendingEvent;
+    private int pendingMerges;
+    private long pendingSince;
+    private volatile long writingSince;
+    private long publishedVersion;
+    private volatile long deliveredVersion;
+    private long deliveredUpdates;
+    private long conflatedUpdates;
+    private volatile long deliveredTrades;
+
+    /**
+     * Constructor for MarketDataSubscriber. Nothing is written to the client before {@link #start} is called.
+     *
+     * @param id the id of the subscriber
+     * @param currencyPair the currency pair the client streams
+     * @param emitter the emitter writing events to the client
+     * @param executor the executor running the write tasks
+     * @param serializer serializes a conflated order book update as JSON
+     * @param tradeCapacity the maximum number of trade events waiting to be written
+     * @param abandonedWriteReturned called by the thread of an abandoned write once the write has returned
+     */
+    MarketDataSubscriber(long id, String currencyPair, SseEmitter emitter, Executor executor,
+                         Function<OrderBookUpdate, String> serializer, int tradeCapacity,
+                         Runnable abandonedWriteReturned) {
+        this.id = id;
+        this.currencyPair = currencyPair;
+        this.emitter = emitter;
+        this.executor = executor;
+        this.serializer = serializer;
+        this.trades = new ArrayBlockingQueue<>(tradeCapacity);
+        this.abandonedWriteReturned = abandonedWriteReturned;
+    }
+
+    /**
+     * Writes the snapshot the subscriber starts from, then releases the events handed over since it subscribed.
+     *
+     * @param version the version of the snapshot
+     * @param json the snapshot serialized as JSON
+     */
+    void start(long version, String json) {
+        synchronized (this) {
+            snapshotVersion = version;
+        }
+        write(new StreamEvent(SNAPSHOT_EVENT, version, json));
+        deliveredVersion = version;
+        scheduled.set(false);
+        if (hasPending()) {
+            schedule();
+        }
+    }
+
+    /**
+     * Merges an order book update into the pending update without waiting.
+     *
+     * @param update the update
+     * @param event the update serialized for all subscribers, written as is if nothing is merged with it
+     */
+    void offerUpdate(OrderBookUpdate update, StreamEvent event) {
+        if (closed) {
+            return;
+        }
+        synchronized (this) {
+            publishedVersion = update.getVersion();
+            if (pendingUpdate == null) {
+                pendingSince = System.nanoTime();
+            } else {
+                conflatedUpdates++;
+            }
+            pendingUpdate = update;
+            pendingEvent = event;
+            pendingMerges++;
+            merge(pendingAsks, update.getAsks());
+            merge(pendingBids, update.getBids());
+        }
+        schedule();
+    }
+
+    /**
+     * Queues a trade event for the client without waiting. Closes the subscriber if its trade queue is full.
+     *
+     * @param event the trades of the pair
+     */
+    void offerTrades(StreamEvent event) {
+        if (closed) {
+            return;
+        }
+        if (!trades.offer(event)) {
+            close();
+            return;
+        }
+        schedule();
+    }
+
+    /**
+     * Checks whether the subscriber has been closed, by the client or after falling behind.
+     *
+     * @return true if no more events are written
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops writing events and completes the stream.
+     */
+    void close() {
+        if (!closed) {
+            closed();
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Abandons the write in progress if it has been blocked for longer than the write timeout. The subscriber is
+     * closed, so nothing more is written to the client; the thread blocked in the write completes the stream with
+     * an error once the write returns.
+     *
+     * @param now the current value of {@link System#nanoTime()}
+     * @param writeTimeoutNanos the longest time a single write may take
+     * @return true if the write was abandoned
+     */
+    boolean abandonStalledWrite(long now, long writeTimeoutNanos) {
+        if (writeState.get() != WRITING || now - writeStartedAt < writeTimeoutNanos
+                || !writeState.compareAndSet(WRITING, ABANDONED)) {
+            return false;
+        }
+        closed();
+        return true;
+    }
+
+    /**
+     * Marks the subscriber as closed after its stream ended on the client side and drops what is pending.
+     */
+    void closed() {
+        closed = true;
+        trades.clear();
+        synchronized (this) {
+            clearPending();
+        }
+    }
+
+    /**
+     * Returns how far the client lags behind the book.
+     *
+     * @return the statistics of the subscriber
+     */
+    synchronized SubscriberStatistics statistics() {
+        return SubscriberStatistics.builder()
+                .id(id)
+                .currencyPair(currencyPair)
+                .publishedVersion(publishedVersion)
+                .deliveredVersion(deliveredVersion)
+                .versionLag(Math.max(0, publishedVersion - deliveredVersion))
+                .lagNanos(lagNanos())
+                .pendingLevels(pendingAsks.size() + pendingBids.size())
+                .pendingTradeEvents(trades.size())
+                .deliveredUpdates(deliveredUpdates)
+                .conflatedUpdates(conflatedUpdates)
+                .deliveredTradeEvents(deliveredTrades)
+                .build();
+    }
+
+    /**
+     * Submits a write task to the executor unless one is already scheduled or running for this subscriber.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Writes the queued trades, then the pending update, until nothing is left. Rechecks after giving up the
+     * write task, so an event handed over meanwhile is not left behind.
+     */
+    private void drain() {
+        do {
+            while (!closed) {
+                StreamEvent event = trades.poll();
+                if (event != null) {
+                    write(event);
+                    deliveredTrades++;
+                    continue;
+                }
+                event = takePendingUpdate();
+                if (event == null) {
+                    break;
+                }
+                write(event);
+                deliveredVersion = event.id();
+                writingSince = 0;
+            }
+            scheduled.set(false);
+        } while (!closed && hasPending() && scheduled.compareAndSet(false, true));
+    }
+
+    /**
+     * Takes the pending update, serializing it if updates were merged into it.
+     *
+     * @return the update event, or null if there is none newer than the snapshot
+     */
+    private StreamEvent takePendingUpdate() {
+        OrderBookUpdate update;
+        StreamEvent event;
+        synchronized (this) {
+            if (pendingUpdate == null) {
+                return null;
+            }
+            if (pendingUpdate.getVersion() <= snapshotVersion) {
+                clearPending();
+                return null;
+            }
+            event = pendingMerges == 1 ? pendingEvent : null;
+            update = event != null ? null : OrderBookUpdate.builder()
+                    .currencyPair(currencyPair)
+                    .version(pendingUpdate.getVersion())
+                    .asks(new ArrayList<>(pendingAsks.values()))
+                    .bids(new ArrayList<>(pendingBids.values()))
+                    .lastChange(pendingUpdate.getLastChange())
+                    .build();
+            deliveredUpdates++;
+            writingSince = pendingSince;
+            clearPending();
+        }
+        return event != null ? event : new StreamEvent(UPDATE_EVENT, update.getVersion(), serializer.apply(update));
+    }
+
+    /**
+     * Returns the time the oldest update not yet written to the client has been waiting, including an update
+     * being written.
+     *
+     * @return the lag in nanoseconds, or 0 if every update has been written
+     */
+    private long lagNanos() {
+        long since = writingSince != 0 ? writingSince : pendingUpdate != null ? pendingSince : 0;
+        return since == 0 ? 0 : System.nanoTime() - since;
+    }
+
+    /**
+     * Checks whether an update or trades are waiting to be written.
+     *
+     * @return true if there is something to write
+     */
+    private synchronized boolean hasPending() {
+        return pendingUpdate != null || !trades.isEmpty();
+    }
+
+    /**
+     * Forgets the pending update and its merged levels. Must be called while holding the lock of the subscriber.
+     */
+    private void clearPending() {
+        pendingAsks.clear();
+        pendingBids.clear();
+        pendingUpdate = null;
+        pendingEvent = null;
+        pendingMerges = 0;
+    }
+
+    /**
+     * Merges the changed levels of one side into its pending levels, replacing the earlier state of each level.
+     *
+     * @param pending the pending levels of the side, by price
+     * @param levels the levels of the side changed by an update
+     */
+    private static void merge(Map<Long, OrderBookLevel> pending, List<OrderBookLevel> levels) {
+        for (OrderBookLevel level : levels) {
+            pending.put(level.getPrice(), level);
+        }
+    }
+
+    /**
+     * Writes an event to the client, blocking until it is handed to the connection. Closes the subscriber if the
+     * write fails. If the write was abandoned meanwhile, completes the stream with an error and reports the return
+     * of the thread.
+     *
+     * @param event the event to write
+     */
+    private void write(StreamEvent event) {
+        Exception failure = null;
+        writeStartedAt = System.nanoTime();
+        writeState.set(WRITING);
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(event.name())
+                    .id(Long.toString(event.id()))
+                    .data(event.json(), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            failure = e;
+        }
+        if (writeState.compareAndSet(WRITING, IDLE)) {
+            if (failure != null) {
+                closed();
+                emitter.completeWithError(failure);
+            }
+            return;
+        }
+        emitter.completeWithError(failure != null ? failure
+                : new TimeoutException("Writing to the client of subscriber " + id + " timed out"));
+        abandonedWriteReturned.run();
+    }
+
+    /**
+     * An event of the stream, serialized once and shared by all subscribers of its currency pair.
+     *
+     * @param name the name of the event
+     * @param id the sequence of the event: the book version for snapshots and updates, the sequence number of
+     *           the last trade for trades
+     * @param json the data of the event as JSON
+     */
+    record StreamEvent(String name, long id, String json) {
+    }
+}
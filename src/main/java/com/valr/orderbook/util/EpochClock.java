@@ -0,0 +1,57 @@
+package com.valr.orderbook.util;
+
+import java.time.Instant;
+
+/**
+ * Allocation-free wall clock with nanosecond resolution.
+ * The epoch time is captured once and advanced with {@link System#nanoTime()}, so reading the clock on the
+ * matching path neither allocates an {@link Instant} nor formats a string. Timestamps are only converted to
+ * ISO-8601 strings when they leave the engine.
+ */
+public final class EpochClock {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long BASE_EPOCH_NANOS;
+    private static final long BASE_NANO_TIME;
+
+    static {
+        Instant now = Instant.now();
+        BASE_NANO_TIME = System.nanoTime();
+        BASE_EPOCH_NANOS = now.getEpochSecond() * NANOS_PER_SECOND + now.getNano();
+    }
+
+    private EpochClock() {
+    }
+
+    /**
+     * Returns the current time.
+     *
+     * @return the number of nanoseconds since the epoch
+     */
+    public static long nanos() {
+        return BASE_EPOCH_NANOS + (System.nanoTime() - BASE_NANO_TIME);
+    }
+
+    /**
+     * Formats an epoch timestamp as an ISO-8601 string.
+     *
+     * @param epochNanos the number of nanoseconds since the epoch
+     * @return the ISO-8601 representation, e.g. 2024-07-26T11:45:53.463699Z
+     */
+    public static String toIsoString(long epochNanos) {
+        return Instant.ofEpochSecond(0, epochNanos).toString();
+    }
+
+    /**
+     * Parses an ISO-8601 string into an epoch timestamp.
+     *
+     * @param isoString the ISO-8601 timestamp
+     * @return the number of nanoseconds since the epoch
+     * @throws java.time.format.DateTimeParseException if the string is not an ISO-8601 timestamp
+     * @throws ArithmeticException if the timestamp is outside the range of a long in nanoseconds, i.e. roughly
+     * before 1678 or after 2262
+     */
+    public static long fromIsoString(String isoString) {
+        Instant instant = Instant.parse(isoString);
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+    }
+}
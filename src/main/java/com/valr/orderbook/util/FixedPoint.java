@@ -0,0 +1,154 @@
+package com.valr.orderbook.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import static com.valr.orderbook.util.CurrencyPairConstants.*;
+
+/**
+ * Fixed-point representation of prices and quantities.
+ * The engine works with scaled longs only; conversion from and to decimals happens at the JSON boundary,
+ * using the precision configured for the currency pair.
+ */
+public final class FixedPoint {
+    /**
+     * Precision used for currency pairs without explicit configuration.
+     */
+    public static final Precision DEFAULT_PRECISION = new Precision(0, 8);
+
+    private static final Map<String, Precision> PRECISIONS = Map.of(
+            BTC_ZAR, new Precision(0, 8),
+            ETH_ZAR, new Precision(0, 8),
+            BTC_EUR, new Precision(2, 8),
+            ETH_EUR, new Precision(2, 8),
+            BTC_USD, new Precision(2, 8),
+            ETH_USD, new Precision(2, 8)
+    );
+
+    /**
+     * Number of decimal places of prices and quantities of a currency pair.
+     * Quote volumes (price times quantity) carry the sum of both scales.
+     *
+     * @param priceScale the number of decimal places of prices
+     * @param quantityScale the number of decimal places of quantities
+     */
+    public record Precision(int priceScale, int quantityScale) {
+        public int quoteVolumeScale() {
+            return priceScale + quantityScale;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Returns the precision of the specified currency pair.
+     *
+     * @param currencyPair the currency pair
+     * @return the configured precision or the default precision for unknown pairs
+     */
+    public static Precision precisionOf(String currencyPair) {
+        return currencyPair == null ? DEFAULT_PRECISION : PRECISIONS.getOrDefault(currencyPair.toUpperCase(), DEFAULT_PRECISION);
+    }
+
+    /**
+     * Converts a decimal price to its scaled representation.
+     *
+     * @param price the decimal price
+     * @param currencyPair the currency pair the price belongs to
+     * @return the scaled price
+     * @throws ArithmeticException if the price has more decimal places than the pair supports
+     */
+    public static long toScaledPrice(BigDecimal price, String currencyPair) {
+        return toScaled(price, precisionOf(currencyPair).priceScale());
+    }
+
+    /**
+     * Converts a decimal quantity to its scaled representation.
+     *
+     * @param quantity the decimal quantity
+     * @param currencyPair the currency pair the quantity belongs to
+     * @return the scaled quantity
+     * @throws ArithmeticException if the quantity has more decimal places than the pair supports
+     */
+    public static long toScaledQuantity(BigDecimal quantity, String currencyPair) {
+        return toScaled(quantity, precisionOf(currencyPair).quantityScale());
+    }
+
+    /**
+     * Converts a scaled price to a decimal.
+     *
+     * @param price the scaled price
+     * @param currencyPair the currency pair the price belongs to
+     * @return the decimal price
+     */
+    public static BigDecimal toDecimalPrice(long price, String currencyPair) {
+        return BigDecimal.valueOf(price, precisionOf(currencyPair).priceScale());
+    }
+
+    /**
+     * Converts a scaled quantity to a decimal.
+     *
+     * @param quantity the scaled quantity
+     * @param currencyPair the currency pair the quantity belongs to
+     * @return the decimal quantity
+     */
+    public static BigDecimal toDecimalQuantity(long quantity, String currencyPair) {
+        return BigDecimal.valueOf(quantity, precisionOf(currencyPair).quantityScale());
+    }
+
+    /**
+     * Converts a scaled quote volume to a decimal.
+     *
+     * @param quoteVolume the scaled quote volume
+     * @param currencyPair the currency pair the quote volume belongs to
+     * @return the decimal quote volume
+     */
+    public static BigDecimal toDecimalQuoteVolume(long quoteVolume, String currencyPair) {
+        return BigDecimal.valueOf(quoteVolume, precisionOf(currencyPair).quoteVolumeScale());
+    }
+
+    /**
+     * Converts a scaled sum of quote volumes, which may exceed a long, to a decimal.
+     *
+     * @param quoteVolume the scaled quote volume
+     * @param currencyPair the currency pair the quote volume belongs to
+     * @return the decimal quote volume
+     */
+    public static BigDecimal toDecimalQuoteVolume(BigInteger quoteVolume, String currencyPair) {
+        return new BigDecimal(quoteVolume, precisionOf(currencyPair).quoteVolumeScale());
+    }
+
+    /**
+     * Checks whether the quote volume of a scaled price and quantity fits in a long.
+     * Orders are only accepted if their own quote volume fits. A fill trades at most the quantity of each of the two
+     * orders at the price of one of them, which is never worse than the limit of the other, so its quote volume is
+     * bounded by the quote volume of one of the orders and matching can never overflow.
+     *
+     * @param price the scaled price
+     * @param quantity the scaled quantity
+     * @return true if {@link #quoteVolume} can be calculated for the amounts
+     */
+    public static boolean isQuoteVolumeInRange(long price, long quantity) {
+        long high = Math.multiplyHigh(price, quantity);
+        return high == (price * quantity) >> 63;
+    }
+
+    /**
+     * Calculates the quote volume of a scaled price and quantity, exactly and without any conversion.
+     *
+     * @param price the scaled price
+     * @param quantity the scaled quantity
+     * @return the quote volume, scaled by the sum of the price and quantity scales
+     * @throws ArithmeticException if the result overflows a long, see {@link #isQuoteVolumeInRange}
+     */
+    public static long quoteVolume(long price, long quantity) {
+        return Math.multiplyExact(price, quantity);
+    }
+
+    private static long toScaled(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+}
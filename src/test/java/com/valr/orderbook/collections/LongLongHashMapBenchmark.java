@@ -0,0 +1,93 @@
+package com.valr.orderbook.collections;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LongLongHashMap} with a boxed {@link HashMap} as an id-to-position index: random lookups of
+ * existing ids and inserts of new ids.
+ * Run with {@code main} or {@code java -cp <test classpath> org.openjdk.jmh.Main LongLongHashMapBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class LongLongHashMapBenchmark {
+    private static final int LOOKUPS = 1 << 16;
+    private static final long MISSING = -1;
+
+    @Param({"1000000", "4000000"})
+    private int size;
+
+    private LongLongHashMap primitiveMap;
+    private Map<Long, Long> jdkMap;
+    private long[] lookupKeys;
+
+    @Setup
+    public void setUp() {
+        primitiveMap = new LongLongHashMap(size, MISSING);
+        jdkMap = new HashMap<>();
+        for (long key = 1; key <= size; key++) {
+            primitiveMap.put(key, key);
+            jdkMap.put(key, key);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        lookupKeys = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookupKeys[i] = random.nextLong(1, size + 1L);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public long primitiveGet() {
+        long sum = 0;
+        for (long key : lookupKeys) {
+            sum += primitiveMap.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public long jdkGet() {
+        long sum = 0;
+        for (long key : lookupKeys) {
+            sum += jdkMap.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int primitivePut() {
+        LongLongHashMap map = new LongLongHashMap(LOOKUPS, MISSING);
+        for (long key : lookupKeys) {
+            map.put(key, key);
+        }
+        return map.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int jdkPut() {
+        Map<Long, Long> map = new HashMap<>(LOOKUPS * 2);
+        for (long key : lookupKeys) {
+            map.put(key, key);
+        }
+        return map.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LongLongHashMapBenchmark.class.getSimpleName()).build()).run();
+    }
+}
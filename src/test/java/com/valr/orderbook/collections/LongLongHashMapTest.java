@@ -0,0 +1,68 @@
+package com.valr.orderbook.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+    private static final long MISSING = Long.MIN_VALUE;
+
+    @Test
+    void put_get_and_remove_entries() {
+        LongLongHashMap map = new LongLongHashMap(4, MISSING);
+
+        assertEquals(MISSING, map.put(1, 10));
+        assertEquals(MISSING, map.put(2, 20));
+        assertEquals(10, map.put(1, 11));
+
+        assertEquals(11, map.get(1));
+        assertEquals(2, map.size());
+        assertEquals(20, map.remove(2));
+        assertEquals(MISSING, map.remove(2));
+        assertEquals(MISSING, map.get(2));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void supports_zero_key_and_values_equal_to_empty_marker() {
+        LongLongHashMap map = new LongLongHashMap(4, MISSING);
+
+        map.put(0, 0);
+        map.put(5, 0);
+
+        assertTrue(map.containsKey(0));
+        assertEquals(0, map.get(0));
+        assertEquals(0, map.get(5));
+        assertEquals(0, map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void grows_and_stays_consistent_with_hash_map_under_random_operations() {
+        LongLongHashMap map = new LongLongHashMap(2, MISSING);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 2_500;
+            if (random.nextBoolean()) {
+                assertEquals(expected.getOrDefault(key, MISSING), map.put(key, i));
+                expected.put(key, (long) i);
+            } else {
+                assertEquals(expected.getOrDefault(key, MISSING), map.remove(key));
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = -2_500; key < 2_500; key++) {
+            assertEquals(expected.getOrDefault(key, MISSING), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+}
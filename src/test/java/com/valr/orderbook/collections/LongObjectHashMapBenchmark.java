@@ -0,0 +1,93 @@
+package com.valr.orderbook.collections;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LongObjectHashMap} with {@link HashMap} as an order-id index: random lookups of existing ids,
+ * and the remove-one-add-one churn of orders being filled while new ones rest.
+ * Run with {@code main} or {@code java -cp <test classpath> org.openjdk.jmh.Main LongObjectHashMapBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class LongObjectHashMapBenchmark {
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"1000000", "4000000"})
+    private int size;
+
+    private LongObjectHashMap<Object> primitiveMap;
+    private Map<Long, Object> jdkMap;
+    private long[] lookupKeys;
+    private long nextKey;
+    private long oldestKey;
+
+    @Setup
+    public void setUp() {
+        primitiveMap = new LongObjectHashMap<>(size);
+        jdkMap = new HashMap<>();
+        Object value = new Object();
+        for (long key = 1; key <= size; key++) {
+            primitiveMap.put(key, value);
+            jdkMap.put(key, value);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        lookupKeys = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookupKeys[i] = random.nextLong(1, size + 1L);
+        }
+        oldestKey = 1;
+        nextKey = size + 1L;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int primitiveGet() {
+        int found = 0;
+        for (long key : lookupKeys) {
+            if (primitiveMap.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int jdkGet() {
+        int found = 0;
+        for (long key : lookupKeys) {
+            if (jdkMap.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public Object primitiveChurn() {
+        Object value = primitiveMap.remove(oldestKey++);
+        return primitiveMap.put(nextKey++, value);
+    }
+
+    @Benchmark
+    public Object jdkChurn() {
+        Object value = jdkMap.remove(oldestKey++);
+        return jdkMap.put(nextKey++, value);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LongObjectHashMapBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,70 @@
+package com.valr.orderbook.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void put_get_and_remove_entries() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+
+        assertNull(map.put(1, "one"));
+        assertNull(map.put(2, "two"));
+        assertEquals("one", map.put(1, "uno"));
+
+        assertEquals("uno", map.get(1));
+        assertEquals(2, map.size());
+        assertEquals("two", map.remove(2));
+        assertNull(map.remove(2));
+        assertNull(map.get(2));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void supports_zero_and_negative_keys() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+
+        map.put(0, "zero");
+        map.put(-1, "minus one");
+
+        assertEquals("zero", map.get(0));
+        assertEquals("minus one", map.get(-1));
+        assertEquals("zero", map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void grows_and_stays_consistent_with_hash_map_under_random_operations() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(2);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 5_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void rejects_null_values() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+    }
+}
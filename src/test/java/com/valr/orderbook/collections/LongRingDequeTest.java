@@ -0,0 +1,58 @@
+package com.valr.orderbook.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongRingDequeTest {
+
+    @Test
+    void adds_and_removes_at_both_ends() {
+        LongRingDeque deque = new LongRingDeque(3);
+
+        deque.addLast(1);
+        deque.addLast(2);
+        deque.addLast(3);
+
+        assertThrows(IllegalStateException.class, () -> deque.addLast(4));
+        assertEquals(1, deque.removeFirst());
+        deque.addLast(4);
+        assertEquals(2, deque.peekFirst());
+        assertEquals(4, deque.removeLast());
+        assertEquals(3, deque.peekLast());
+        assertEquals(2, deque.size());
+        deque.clear();
+        assertTrue(deque.isEmpty());
+        assertThrows(NoSuchElementException.class, deque::peekFirst);
+        assertThrows(NoSuchElementException.class, deque::removeLast);
+    }
+
+    @Test
+    void stays_consistent_with_array_deque_under_random_operations() {
+        LongRingDeque deque = new LongRingDeque(16);
+        Deque<Long> expected = new ArrayDeque<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            int operation = random.nextInt(3);
+            if (operation == 0 && expected.size() < 16) {
+                deque.addLast(i);
+                expected.addLast((long) i);
+            } else if (operation == 1 && !expected.isEmpty()) {
+                assertEquals(expected.removeFirst(), deque.removeFirst());
+            } else if (!expected.isEmpty()) {
+                assertEquals(expected.removeLast(), deque.removeLast());
+            }
+            assertEquals(expected.size(), deque.size());
+            if (!expected.isEmpty()) {
+                assertEquals(expected.peekFirst(), deque.peekFirst());
+                assertEquals(expected.peekLast(), deque.peekLast());
+            }
+        }
+    }
+}
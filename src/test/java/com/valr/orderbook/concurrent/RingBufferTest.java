@@ -0,0 +1,79 @@
+package com.valr.orderbook.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void capacity_must_be_power_of_two() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(3, AtomicLong::new));
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0, AtomicLong::new));
+    }
+
+    @Test
+    void entries_are_pre_allocated_and_reused_across_laps() {
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(4, AtomicLong::new);
+        AtomicLong first = ringBuffer.get(0);
+
+        for (long sequence = 0; sequence < 8; sequence++) {
+            assertEquals(sequence, ringBuffer.claim());
+            ringBuffer.publish(sequence);
+            ringBuffer.release(sequence);
+        }
+
+        assertSame(first, ringBuffer.get(4));
+    }
+
+    @Test
+    void consumer_only_sees_contiguously_published_sequences() {
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(8, AtomicLong::new);
+        long first = ringBuffer.claim();
+        long second = ringBuffer.claim();
+
+        ringBuffer.publish(second);
+        assertEquals(-1, ringBuffer.getHighestPublishedSequence(0));
+
+        ringBuffer.publish(first);
+        assertEquals(1, ringBuffer.getHighestPublishedSequence(0));
+    }
+
+    @Test
+    void producer_waits_while_buffer_is_full() throws Exception {
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(2, AtomicLong::new);
+        ringBuffer.publish(ringBuffer.claim());
+        ringBuffer.publish(ringBuffer.claim());
+
+        CompletableFuture<Long> blockedClaim = CompletableFuture.supplyAsync(ringBuffer::claim);
+        Thread.sleep(50);
+        assertFalse(blockedClaim.isDone());
+
+        ringBuffer.release(0);
+        assertEquals(2, blockedClaim.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void closing_fails_waiting_and_later_claims() throws Exception {
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(2, AtomicLong::new);
+        ringBuffer.publish(ringBuffer.claim());
+        long second = ringBuffer.claim();
+
+        CompletableFuture<Long> blockedClaim = CompletableFuture.supplyAsync(ringBuffer::claim);
+        Thread.sleep(50);
+        assertEquals(1, ringBuffer.close());
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> blockedClaim.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertThrows(IllegalStateException.class, ringBuffer::claim);
+        assertEquals(0, ringBuffer.getHighestPublishedSequence(0));
+
+        ringBuffer.publish(second);
+        assertEquals(1, ringBuffer.getHighestPublishedSequence(0));
+    }
+}
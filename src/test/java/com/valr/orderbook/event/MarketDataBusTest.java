@@ -0,0 +1,145 @@
+package com.valr.orderbook.event;
+
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.valr.orderbook.util.TestHelper.BTC_USD;
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static com.valr.orderbook.util.TestHelper.createTrade;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketDataBusTest {
+    private MarketDataBus marketDataBus;
+
+    @AfterEach
+    void tearDown() {
+        if (marketDataBus != null) {
+            marketDataBus.shutdown();
+        }
+    }
+
+    private static List<Trade> trades(String currencyPair, int count) {
+        List<Trade> trades = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            trades.add(createTrade(Side.BUY, i, 100, currencyPair));
+        }
+        return trades;
+    }
+
+    private void publish(List<Trade> trades) {
+        for (Trade trade : trades) {
+            marketDataBus.publishTrade(trade.getCurrencyPair(), trade.getTakerSide(), trade.getPrice(),
+                    trade.getQuantity(), trade.getQuoteVolume(), trade.getTradedAt());
+        }
+    }
+
+    @Test
+    void every_listener_receives_trades_of_concurrent_publishers_in_order() throws Exception {
+        int tradesPerPair = 5_000;
+        List<Trade> first = new CopyOnWriteArrayList<>();
+        List<Trade> second = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(2 * tradesPerPair);
+        marketDataBus = new MarketDataBus(List.of(first::addAll, trades -> {
+            second.addAll(trades);
+            trades.forEach(trade -> delivered.countDown());
+        }), List.of(), 64);
+        marketDataBus.start();
+
+        Thread zar = new Thread(() -> trades(BTC_ZAR, tradesPerPair).forEach(t -> publish(List.of(t))));
+        Thread usd = new Thread(() -> publish(trades(BTC_USD, tradesPerPair)));
+        zar.start();
+        usd.start();
+        zar.join();
+        usd.join();
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertEquals(second, first);
+        for (String currencyPair : List.of(BTC_ZAR, BTC_USD)) {
+            List<Long> quantities = second.stream()
+                    .filter(trade -> trade.getCurrencyPair().equals(currencyPair))
+                    .map(Trade::getQuantity)
+                    .toList();
+            assertEquals(tradesPerPair, quantities.size());
+            for (int i = 0; i < tradesPerPair; i++) {
+                assertEquals(i, quantities.get(i));
+            }
+        }
+    }
+
+    @Test
+    void failing_listener_does_not_stop_dispatching() throws Exception {
+        CountDownLatch delivered = new CountDownLatch(2);
+        marketDataBus = new MarketDataBus(List.of(trades -> {
+            throw new IllegalStateException("failed");
+        }, trades -> trades.forEach(trade -> delivered.countDown())), List.of(), 8);
+        marketDataBus.start();
+
+        publish(trades(BTC_ZAR, 1));
+        publish(trades(BTC_ZAR, 1));
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void updates_are_dispatched_after_the_trades_published_before_them() throws Exception {
+        List<Object> received = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(2);
+        marketDataBus = new MarketDataBus(List.of(trades -> {
+            received.addAll(trades);
+            delivered.countDown();
+        }), List.of(update -> {
+            received.add(update);
+            delivered.countDown();
+        }), 8);
+        List<Trade> trades = trades(BTC_ZAR, 3);
+        OrderBookUpdate update = OrderBookUpdate.builder().currencyPair(BTC_ZAR).version(1).build();
+
+        publish(trades);
+        marketDataBus.publish(update);
+        marketDataBus.start();
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(trades.get(0), trades.get(1), trades.get(2), update), received);
+    }
+
+    @Test
+    void listeners_receive_copies_of_published_trades() throws Exception {
+        List<Trade> received = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        marketDataBus = new MarketDataBus(List.of(trades -> trades.forEach(trade -> {
+            trade.setId(42);
+            trade.setSequence(7);
+            received.add(trade);
+        }), trades -> delivered.countDown()), List.of(), 8);
+        marketDataBus.start();
+        Trade published = trades(BTC_ZAR, 1).get(0);
+
+        publish(List.of(published));
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertNotSame(published, received.get(0));
+        assertEquals(0, published.getId());
+        assertEquals(0, published.getSequence());
+        assertEquals(published.getQuantity(), received.get(0).getQuantity());
+        assertEquals(published.getQuoteVolume(), received.get(0).getQuoteVolume());
+        assertEquals(42, received.get(0).getId());
+    }
+
+    @Test
+    void bus_without_listeners_ignores_published_trades() {
+        marketDataBus = new MarketDataBus();
+        marketDataBus.start();
+
+        assertDoesNotThrow(() -> publish(trades(BTC_ZAR, 10)));
+        assertDoesNotThrow(() -> marketDataBus.publish(OrderBookUpdate.builder().build()));
+    }
+}
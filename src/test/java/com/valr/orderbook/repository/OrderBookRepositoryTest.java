@@ -1,16 +1,23 @@
 package com.valr.orderbook.repository;
 
+import com.valr.orderbook.event.MarketDataBus;
+import com.valr.orderbook.model.BestBidOffer;
 import com.valr.orderbook.model.Order;
 import com.valr.orderbook.model.OrderBook;
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.Trade;
 import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.repository.book.OrderStorageType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
-import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
-import static com.valr.orderbook.util.TestHelper.createOrdersList;
+import static com.valr.orderbook.util.TestHelper.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -21,7 +28,16 @@ class OrderBookRepositoryTest {
     @BeforeEach
     void setUp() {
         orderBookRepository = new OrderBookRepository();
+    }
+
+    @Test
+    void insert_data_loads_example_order_book() {
         orderBookRepository.insertData();
+
+        OrderBook result = publishedOrderBook(BTC_ZAR);
+        assertEquals(4, result.getAsks().size());
+        assertEquals(4, result.getBids().size());
+        assertNotNull(result.getLastChange());
     }
 
 
@@ -33,104 +49,390 @@ class OrderBookRepositoryTest {
                 .asks(asks).bids(bids).build();
         orderBookRepository.setOrderBook(orderBook);
 
-        OrderBook result = orderBookRepository.filterOrderBookBy(BTC_ZAR);
+        OrderBook result = publishedOrderBook(BTC_ZAR);
         assertEquals(2, result.getAsks().size());
         assertEquals(2, result.getBids().size());
     }
 
     @Test
     void create_order_buy_side_no_match_adds_to_order_book() {
-        Order order = new Order(Side.BUY, 0.5, 100, BTC_ZAR);
-        Order result = orderBookRepository.createOrder(order);
+        Order order = new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR);
+        List<Trade> result = orderBookRepository.createOrder(order);
 
-        assertNull(result);
-        assertTrue(orderBookRepository.getOrderBook().getBids().contains(order));
+        assertTrue(result.isEmpty());
+        assertTrue(publishedOrderBook(BTC_ZAR).getBids().contains(order));
     }
 
     @Test
     void create_order_sell_side_no_match_adds_to_order_book() {
-        Order order = new Order(Side.SELL, 0.5, 100, BTC_ZAR);
-        Order result = orderBookRepository.createOrder(order);
+        Order order = new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR);
+        List<Trade> result = orderBookRepository.createOrder(order);
 
-        assertNull(result);
-        assertTrue(orderBookRepository.getOrderBook().getAsks().contains(order));
+        assertTrue(result.isEmpty());
+        assertTrue(publishedOrderBook(BTC_ZAR).getAsks().contains(order));
     }
 
     @Test
     void create_order_buy_side_full_match_order_removed() {
-        Order order = new Order(Side.BUY, 0.5, 100, BTC_ZAR);
-        Order matchedOrder = new Order(Side.SELL, 0.5, 100, BTC_ZAR);
+        Order order = new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR);
+        Order matchedOrder = new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR);
 
         orderBookRepository.createOrder(matchedOrder);
-        assertTrue(orderBookRepository.getOrderBook().getAsks().contains(matchedOrder));
-        Order result = orderBookRepository.createOrder(order);
+        assertTrue(publishedOrderBook(BTC_ZAR).getAsks().contains(matchedOrder));
+        List<Trade> result = orderBookRepository.createOrder(order);
 
-        assertEquals(order, result);
-        assertFalse(orderBookRepository.getOrderBook().getAsks().contains(matchedOrder));
+        assertEquals(1, result.size());
+        assertTrade(result.get(0), 100, 50_000_000L, Side.BUY);
+        assertFalse(publishedOrderBook(BTC_ZAR).getAsks().contains(matchedOrder));
+        assertFalse(publishedOrderBook(BTC_ZAR).getBids().contains(order));
     }
 
     @Test
     void create_order_sell_side_full_match_order_removed() {
-        Order order = new Order(Side.SELL, 0.5, 100, BTC_ZAR);
-        Order matchedOrder = new Order(Side.BUY, 0.5, 100, BTC_ZAR);
+        Order order = new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR);
+        Order matchedOrder = new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR);
 
         orderBookRepository.createOrder(matchedOrder);
-        assertTrue(orderBookRepository.getOrderBook().getBids().contains(matchedOrder));
-        Order result = orderBookRepository.createOrder(order);
+        assertTrue(publishedOrderBook(BTC_ZAR).getBids().contains(matchedOrder));
+        List<Trade> result = orderBookRepository.createOrder(order);
 
-        assertEquals(order, result);
-        assertFalse(orderBookRepository.getOrderBook().getBids().contains(matchedOrder));
+        assertEquals(1, result.size());
+        assertTrade(result.get(0), 100, 50_000_000L, Side.SELL);
+        assertFalse(publishedOrderBook(BTC_ZAR).getBids().contains(matchedOrder));
+        assertFalse(publishedOrderBook(BTC_ZAR).getAsks().contains(order));
     }
 
     @Test
     void create_order_buy_side_partial_match_updates_quantity() {
-        Order order = new Order(Side.BUY, 0.5, 100, BTC_ZAR);
-        Order matchedOrder = new Order(Side.SELL, 1.0, 100, BTC_ZAR);
+        Order order = new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR);
+        Order matchedOrder = new Order(Side.SELL, 100_000_000L, 100, BTC_ZAR);
 
         orderBookRepository.createOrder(matchedOrder);
-        Order result = orderBookRepository.createOrder(order);
+        List<Trade> result = orderBookRepository.createOrder(order);
 
-        assertEquals(order, result);
-        assertEquals(0.5, matchedOrder.getQuantity());
-        assertTrue(orderBookRepository.getOrderBook().getAsks().contains(matchedOrder));
+        assertEquals(1, result.size());
+        List<Order> resting = publishedOrderBook(BTC_ZAR).getAsks();
+        assertEquals(1, resting.size());
+        assertEquals(matchedOrder.getId(), resting.get(0).getId());
+        assertEquals(50_000_000L, resting.get(0).getQuantity());
     }
 
     @Test
     void create_order_sell_side_partial_match_updates_quantity() {
-        Order order = new Order(Side.SELL, 0.5, 100, BTC_ZAR);
-        Order matchedOrder = new Order(Side.BUY, 1.0, 100, BTC_ZAR);
+        Order order = new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR);
+        Order matchedOrder = new Order(Side.BUY, 100_000_000L, 100, BTC_ZAR);
 
         orderBookRepository.createOrder(matchedOrder);
-        Order result = orderBookRepository.createOrder(order);
+        List<Trade> result = orderBookRepository.createOrder(order);
+
+        assertEquals(1, result.size());
+        List<Order> resting = publishedOrderBook(BTC_ZAR).getBids();
+        assertEquals(1, resting.size());
+        assertEquals(matchedOrder.getId(), resting.get(0).getId());
+        assertEquals(50_000_000L, resting.get(0).getQuantity());
+    }
+
+    @Test
+    void create_order_buy_side_sweeps_multiple_levels() {
+        orderBookRepository.createOrder(new Order(Side.SELL, 25_000_000L, 100, BTC_ZAR));
+        orderBookRepository.createOrder(new Order(Side.SELL, 50_000_000L, 101, BTC_ZAR));
+        Order untouchedAsk = new Order(Side.SELL, 100_000_000L, 102, BTC_ZAR);
+        orderBookRepository.createOrder(untouchedAsk);
+
+        List<Trade> result = orderBookRepository.createOrder(new Order(Side.BUY, 50_000_000L, 102, BTC_ZAR));
+
+        assertEquals(2, result.size());
+        assertTrade(result.get(0), 100, 25_000_000L, Side.BUY);
+        assertTrade(result.get(1), 101, 25_000_000L, Side.BUY);
+        List<Order> asks = publishedOrderBook(BTC_ZAR).getAsks();
+        assertEquals(2, asks.size());
+        assertEquals(101, asks.get(0).getPrice());
+        assertEquals(25_000_000L, asks.get(0).getQuantity());
+        assertEquals(untouchedAsk, asks.get(1));
+    }
+
+    @Test
+    void create_order_sell_side_stops_at_limit_price_and_rests_remainder() {
+        orderBookRepository.createOrder(new Order(Side.BUY, 25_000_000L, 102, BTC_ZAR));
+        orderBookRepository.createOrder(new Order(Side.BUY, 25_000_000L, 101, BTC_ZAR));
+        orderBookRepository.createOrder(new Order(Side.BUY, 25_000_000L, 99, BTC_ZAR));
+        Order order = new Order(Side.SELL, 100_000_000L, 100, BTC_ZAR);
+
+        List<Trade> result = orderBookRepository.createOrder(order);
+
+        assertEquals(2, result.size());
+        assertTrade(result.get(0), 102, 25_000_000L, Side.SELL);
+        assertTrade(result.get(1), 101, 25_000_000L, Side.SELL);
+        OrderBook book = publishedOrderBook(BTC_ZAR);
+        assertEquals(1, book.getBids().size());
+        assertEquals(99, book.getBids().get(0).getPrice());
+        assertTrue(book.getAsks().contains(order));
+        assertEquals(50_000_000L, order.getQuantity());
+    }
+
+    @Test
+    void create_order_fills_same_level_orders_in_time_priority() {
+        Order first = new Order(Side.SELL, 25_000_000L, 100, BTC_ZAR);
+        Order second = new Order(Side.SELL, 25_000_000L, 100, BTC_ZAR);
+        OrderBook orderBook = OrderBook.builder().asks(List.of(first, second)).build();
+        orderBookRepository.setOrderBook(orderBook);
+
+        List<Trade> result = orderBookRepository.createOrder(new Order(Side.BUY, 30_000_000L, 100, BTC_ZAR));
 
-        assertEquals(order, result);
-        assertEquals(0.5, matchedOrder.getQuantity());
-        assertTrue(orderBookRepository.getOrderBook().getBids().contains(matchedOrder));
+        assertEquals(2, result.size());
+        assertTrade(result.get(0), 100, 25_000_000L, Side.BUY);
+        List<Order> asks = publishedOrderBook(BTC_ZAR).getAsks();
+        assertEquals(1, asks.size());
+        assertEquals(second.getId(), asks.get(0).getId());
+        assertEquals(20_000_000L, asks.get(0).getQuantity());
     }
 
     @Test
-    void create_order_buy_side_same_price_groups_orders() {
-        Order order = new Order(Side.BUY, 0.5, 100, BTC_ZAR);
-        Order existingOrder = new Order(Side.BUY, 0.5, 100, BTC_ZAR);
+    void create_order_buy_side_same_price_rests_behind_existing_order() {
+        Order order = new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR);
+        Order existingOrder = new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR);
 
         orderBookRepository.createOrder(existingOrder);
-        Order result = orderBookRepository.createOrder(order);
+        List<Trade> result = orderBookRepository.createOrder(order);
 
-        assertNull(result);
-        assertEquals(1.0, existingOrder.getQuantity());
-        assertTrue(orderBookRepository.getOrderBook().getBids().contains(existingOrder));
+        assertTrue(result.isEmpty());
+        assertEquals(50_000_000L, existingOrder.getQuantity());
+        assertEquals(List.of(existingOrder, order), publishedOrderBook(BTC_ZAR).getBids());
     }
 
     @Test
-    void create_order_sell_side_same_price_groups_orders() {
-        Order order = new Order(Side.SELL, 0.5, 100, BTC_ZAR);
-        Order existingOrder = new Order(Side.SELL, 0.5, 100, BTC_ZAR);
+    void create_order_sell_side_same_price_rests_behind_existing_order() {
+        Order order = new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR);
+        Order existingOrder = new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR);
 
         orderBookRepository.createOrder(existingOrder);
-        Order result = orderBookRepository.createOrder(order);
+        List<Trade> result = orderBookRepository.createOrder(order);
+
+        assertTrue(result.isEmpty());
+        assertEquals(50_000_000L, existingOrder.getQuantity());
+        assertEquals(List.of(existingOrder, order), publishedOrderBook(BTC_ZAR).getAsks());
+    }
+
+    @Test
+    void create_order_publishes_executed_trades_on_market_data_bus() throws Exception {
+        BlockingQueue<Trade> published = new LinkedBlockingQueue<>();
+        MarketDataBus marketDataBus = new MarketDataBus(List.of(published::addAll), List.of(), 8);
+        marketDataBus.start();
+        orderBookRepository = new OrderBookRepository(OrderStorageType.HEAP, marketDataBus);
+        try {
+            orderBookRepository.createOrder(new Order(Side.SELL, 25_000_000L, 100, BTC_ZAR));
+            List<Trade> result = orderBookRepository.createOrder(new Order(Side.BUY, 25_000_000L, 100, BTC_ZAR));
+
+            Trade trade = published.poll(10, TimeUnit.SECONDS);
+            assertEquals(result.get(0), trade);
+            assertNotSame(result.get(0), trade);
+            assertTrue(published.isEmpty());
+        } finally {
+            marketDataBus.shutdown();
+        }
+    }
+
+    @Test
+    void publish_snapshot_publishes_changed_levels_on_market_data_bus() throws Exception {
+        BlockingQueue<OrderBookUpdate> published = new LinkedBlockingQueue<>();
+        MarketDataBus marketDataBus = new MarketDataBus(List.of(), List.of(published::add), 8);
+        marketDataBus.start();
+        orderBookRepository = new OrderBookRepository(OrderStorageType.HEAP, marketDataBus);
+        try {
+            orderBookRepository.createOrder(new Order(Side.SELL, 25_000_000L, 100, BTC_ZAR));
+            orderBookRepository.publishSnapshot(BTC_ZAR);
+            orderBookRepository.publishSnapshot(BTC_ZAR);
+
+            OrderBookUpdate update = published.poll(10, TimeUnit.SECONDS);
+            assertEquals(BTC_ZAR, update.getCurrencyPair());
+            assertEquals(publishedOrderBook(BTC_ZAR).getVersion(), update.getVersion());
+            assertEquals(25_000_000L, update.getAsks().get(0).getQuantity());
+            assertTrue(update.getBids().isEmpty());
+            assertNull(published.poll(100, TimeUnit.MILLISECONDS));
+        } finally {
+            marketDataBus.shutdown();
+        }
+    }
+
+    @Test
+    void best_bid_offers_are_published_per_pair() {
+        orderBookRepository.createOrder(new Order(Side.SELL, 25_000_000L, 100, BTC_ZAR));
+        orderBookRepository.createOrder(new Order(Side.BUY, 10_000_000L, 90, BTC_USD));
+        orderBookRepository.publishSnapshot(BTC_ZAR);
+        orderBookRepository.publishSnapshot(BTC_USD);
+
+        assertEquals(100, orderBookRepository.getBestBidOffer(BTC_ZAR).getAsk().getPrice());
+        assertNull(orderBookRepository.getBestBidOffer(BTC_ZAR).getBid());
+        assertNull(orderBookRepository.getBestBidOffer("ETHZAR").getAsk());
+        assertEquals("ETHZAR", orderBookRepository.getBestBidOffer("ETHZAR").getCurrencyPair());
+        assertEquals(List.of(BTC_USD, BTC_ZAR), orderBookRepository.getBestBidOffers().stream()
+                .map(BestBidOffer::getCurrencyPair).toList());
+    }
+
+    @Test
+    void create_order_assigns_unique_ids() {
+        Order first = new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR);
+        Order second = new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR);
+
+        orderBookRepository.createOrder(first);
+        orderBookRepository.createOrder(second);
+
+        assertTrue(first.getId() > 0);
+        assertNotEquals(first.getId(), second.getId());
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void cancel_order_removes_only_that_order() {
+        Order first = new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR);
+        Order second = new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR);
+        orderBookRepository.createOrder(first);
+        orderBookRepository.createOrder(second);
+
+        assertTrue(orderBookRepository.cancelOrder(BTC_ZAR, second.getId()));
+
+        assertEquals(List.of(first), publishedOrderBook(BTC_ZAR).getBids());
+        assertTrue(publishedOrderBook(BTC_ZAR).getAsks().isEmpty());
+    }
+
+    @Test
+    void cancel_order_of_best_level_promotes_next_level() {
+        Order best = new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR);
+        orderBookRepository.createOrder(best);
+        orderBookRepository.createOrder(new Order(Side.SELL, 50_000_000L, 200, BTC_ZAR));
+
+        orderBookRepository.cancelOrder(BTC_ZAR, best.getId());
+        List<Trade> result = orderBookRepository.createOrder(new Order(Side.BUY, 50_000_000L, 200, BTC_ZAR));
+
+        assertEquals(1, result.size());
+        assertTrade(result.get(0), 200, 50_000_000L, Side.BUY);
+    }
+
+    @Test
+    void cancel_order_returns_false_for_unknown_or_filled_order() {
+        Order ask = new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR);
+        orderBookRepository.createOrder(ask);
+        orderBookRepository.createOrder(new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR));
+
+        assertFalse(orderBookRepository.cancelOrder(BTC_ZAR, ask.getId()));
+        assertFalse(orderBookRepository.cancelOrder(BTC_ZAR, 12_345));
+        assertFalse(orderBookRepository.cancelOrder(LTC_USD, 1));
+    }
+
+    @Test
+    void cancel_order_is_scoped_to_currency_pair() {
+        Order ethAsk = new Order(Side.SELL, 50_000_000L, 100, ETH_USD);
+        orderBookRepository.createOrder(ethAsk);
+        orderBookRepository.createOrder(new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR));
+
+        assertFalse(orderBookRepository.cancelOrder(BTC_ZAR, ethAsk.getId()));
+        assertTrue(publishedOrderBook(ETH_USD).getAsks().contains(ethAsk));
+    }
+
+    @Test
+    void get_order_book_returns_orders_in_price_priority() {
+        orderBookRepository.createOrder(new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR));
+        orderBookRepository.createOrder(new Order(Side.BUY, 50_000_000L, 300, BTC_ZAR));
+        orderBookRepository.createOrder(new Order(Side.SELL, 50_000_000L, 9_000_000, BTC_ZAR));
+        orderBookRepository.createOrder(new Order(Side.SELL, 50_000_000L, 8_000_000, BTC_ZAR));
+
+        OrderBook result = publishedOrderBook(BTC_ZAR);
+        assertSorted(result.getBids(), true);
+        assertSorted(result.getAsks(), false);
+    }
+
+    @Test
+    void create_order_buy_side_matches_best_ask_first() {
+        Order worseAsk = new Order(Side.SELL, 50_000_000L, 200, BTC_ZAR);
+        Order bestAsk = new Order(Side.SELL, 50_000_000L, 150, BTC_ZAR);
+        orderBookRepository.createOrder(worseAsk);
+        orderBookRepository.createOrder(bestAsk);
+
+        orderBookRepository.createOrder(new Order(Side.BUY, 50_000_000L, 200, BTC_ZAR));
+
+        assertFalse(publishedOrderBook(BTC_ZAR).getAsks().contains(bestAsk));
+        assertTrue(publishedOrderBook(BTC_ZAR).getAsks().contains(worseAsk));
+    }
+
+    @Test
+    void create_order_decimal_fills_leave_no_dust() {
+        Order ask = new Order(Side.SELL, 30_000_000L, 100, BTC_ZAR);
+        orderBookRepository.createOrder(ask);
+
+        orderBookRepository.createOrder(new Order(Side.BUY, 10_000_000L, 100, BTC_ZAR));
+        orderBookRepository.createOrder(new Order(Side.BUY, 20_000_000L, 100, BTC_ZAR));
+
+        OrderBook book = publishedOrderBook(BTC_ZAR);
+        assertTrue(book.getAsks().isEmpty());
+        assertTrue(book.getBids().isEmpty());
+    }
+
+    @Test
+    void create_order_does_not_match_orders_of_other_currency_pair() {
+        Order ethAsk = new Order(Side.SELL, 50_000_000L, 100, ETH_USD);
+        orderBookRepository.createOrder(ethAsk);
+
+        List<Trade> result = orderBookRepository.createOrder(new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR));
+
+        assertTrue(result.isEmpty());
+        assertTrue(publishedOrderBook(ETH_USD).getAsks().contains(ethAsk));
+        assertFalse(publishedOrderBook(BTC_ZAR).getAsks().contains(ethAsk));
+    }
+
+    @Test
+    void filter_by_unknown_currency_pair_returns_empty_book() {
+        OrderBook result = publishedOrderBook(LTC_USD);
+
+        assertTrue(result.getAsks().isEmpty());
+        assertTrue(result.getBids().isEmpty());
+    }
+
+    @Test
+    void snapshot_is_not_affected_by_unpublished_changes() {
+        Order ask = new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR);
+        orderBookRepository.createOrder(ask);
+        OrderBook snapshot = publishedOrderBook(BTC_ZAR);
+
+        orderBookRepository.createOrder(new Order(Side.BUY, 20_000_000L, 100, BTC_ZAR));
+        orderBookRepository.createOrder(new Order(Side.SELL, 10_000_000L, 200, BTC_ZAR));
+
+        assertSame(snapshot, orderBookRepository.filterOrderBookBy(BTC_ZAR));
+        assertEquals(1, snapshot.getAsks().size());
+        assertEquals(50_000_000L, snapshot.getAsks().get(0).getQuantity());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getAsks().clear());
+    }
+
+    @Test
+    void publish_snapshot_copies_only_changed_side() {
+        orderBookRepository.createOrder(new Order(Side.SELL, 50_000_000L, 200, BTC_ZAR));
+        orderBookRepository.createOrder(new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR));
+        OrderBook previous = publishedOrderBook(BTC_ZAR);
+
+        orderBookRepository.createOrder(new Order(Side.BUY, 50_000_000L, 90, BTC_ZAR));
+        OrderBook current = publishedOrderBook(BTC_ZAR);
+
+        assertNotSame(previous, current);
+        assertSame(previous.getAsks(), current.getAsks());
+        assertEquals(2, current.getBids().size());
+    }
+
+    private OrderBook publishedOrderBook(String currencyPair) {
+        orderBookRepository.publishSnapshot(currencyPair);
+        return orderBookRepository.filterOrderBookBy(currencyPair);
+    }
+
+    private static void assertTrade(Trade trade, long price, long quantity, Side takerSide) {
+        assertEquals(BTC_ZAR, trade.getCurrencyPair());
+        assertEquals(price, trade.getPrice());
+        assertEquals(quantity, trade.getQuantity());
+        assertEquals(takerSide, trade.getTakerSide());
+        assertEquals(price * quantity, trade.getQuoteVolume());
+    }
 
-        assertNull(result);
-        assertEquals(1.0, existingOrder.getQuantity());
-        assertTrue(orderBookRepository.getOrderBook().getAsks().contains(existingOrder));
+    private static void assertSorted(List<Order> orders, boolean descending) {
+        for (int i = 1; i < orders.size(); i++) {
+            int comparison = Long.compare(orders.get(i - 1).getPrice(), orders.get(i).getPrice());
+            assertTrue(descending ? comparison >= 0 : comparison <= 0);
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,11 +2,16 @@ package com.valr.orderbook.repository;
 
 import com.valr.orderbook.model.Trade;
 import com.valr.orderbook.model.TradeHistory;
+import com.valr.orderbook.model.TradeStatistics;
 import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.util.EpochClock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.List;
 
 import static com.valr.orderbook.util.TestHelper.*;
@@ -25,14 +30,18 @@ class TradeHistoryRepositoryTest {
 
     private void addAdditionalTestData() {
         List<Trade> additionalTrades = List.of(
-                new Trade(tradeHistoryRepository.getNextAvailableId(), 1234567, 0.001, BTC_ZAR, "2024-12-01T10:00:00.000Z", Side.BUY, 50000.0),
-                new Trade(tradeHistoryRepository.getNextAvailableId(), 1234568, 0.002, BTC_ZAR, "2024-12-01T10:05:00.000Z", Side.SELL, 51000.0),
-                new Trade(tradeHistoryRepository.getNextAvailableId(), 1234569, 0.003, BTC_USD, "2024-12-01T10:10:00.000Z", Side.BUY, 60000.0),
-                new Trade(tradeHistoryRepository.getNextAvailableId(), 1234570, 0.004, BTC_USD, "2024-12-01T10:15:00.000Z", Side.SELL, 61000.0)
+                new Trade(0, 1234567, 100_000L, BTC_ZAR, EpochClock.fromIsoString("2024-12-01T10:00:00.000Z"), Side.BUY, 1234567 * 100_000L),
+                new Trade(0, 1234568, 200_000L, BTC_ZAR, EpochClock.fromIsoString("2024-12-01T10:05:00.000Z"), Side.SELL, 1234568 * 200_000L),
+                new Trade(0, 1234569, 300_000L, BTC_USD, EpochClock.fromIsoString("2024-12-01T10:10:00.000Z"), Side.BUY, 1234569 * 300_000L),
+                new Trade(0, 1234570, 400_000L, BTC_USD, EpochClock.fromIsoString("2024-12-01T10:15:00.000Z"), Side.SELL, 1234570 * 400_000L)
         );
         additionalTrades.forEach(tradeHistoryRepository::addTrade);
     }
 
+    private TradeHistory filterAfter(long afterId, int skip, int limit) {
+        return tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, 0, afterId, Long.MIN_VALUE, Long.MAX_VALUE, skip, limit);
+    }
+
     @Test
     void filter_trade_history_by_currency_pair_returns_correct_trades() {
         TradeHistory result = tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, 0, 10);
@@ -58,9 +67,129 @@ class TradeHistoryRepositoryTest {
         assertTrue(result.getTrades().isEmpty());
     }
 
+    @Test
+    void add_trade_assigns_next_id_of_the_sequence() {
+        Trade trade = createTrade(Side.BUY, 100_000L, 100, BTC_ZAR);
+        trade.setId(100);
+
+        assertEquals(15, tradeHistoryRepository.addTrade(trade));
+        assertEquals(15, trade.getId());
+    }
+
+    @Test
+    void filter_trade_history_after_id_returns_following_trades_of_the_pair() {
+        TradeHistory result = filterAfter(7, 0, 10);
+
+        assertEquals(List.of(8L, 9L, 10L, 11L, 12L), result.getTrades().stream().map(Trade::getId).toList());
+    }
+
+    @Test
+    void filter_trade_history_after_id_applies_skip_and_limit_after_cursor() {
+        TradeHistory result = filterAfter(7, 1, 2);
+
+        assertEquals(List.of(9L, 10L), result.getTrades().stream().map(Trade::getId).toList());
+    }
+
+    @Test
+    void filter_trade_history_after_id_of_another_pair_starts_at_next_trade_of_the_pair() {
+        TradeHistory result = filterAfter(1, 0, 1);
+
+        assertEquals(5, result.getTrades().get(0).getId());
+        assertTrue(filterAfter(12, 0, 10).getTrades().isEmpty());
+    }
+
+    @Test
+    void sequence_numbers_are_gap_free_per_pair_and_feed_since_queries() {
+        Trade trade = createTrade(Side.BUY, 100_000L, 100, BTC_USD);
+        tradeHistoryRepository.addTrade(trade);
+
+        List<Trade> all = tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, 0, 100).getTrades();
+        List<Trade> since = tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, 4, -1, Long.MIN_VALUE,
+                Long.MAX_VALUE, 0, 2).getTrades();
+
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(i + 1, all.get(i).getSequence());
+        }
+        assertEquals(List.of(5L, 6L), since.stream().map(Trade::getSequence).toList());
+        assertEquals(all.subList(4, 6), since);
+        assertEquals(trade.getSequence(), tradeHistoryRepository.findTradeById(trade.getId()).orElseThrow().getSequence());
+        assertTrue(tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, all.size(), -1, Long.MIN_VALUE,
+                Long.MAX_VALUE, 0, 10).getTrades().isEmpty());
+    }
+
+    @Test
+    void pages_followed_by_cursor_cover_all_trades_of_the_pair_once() {
+        for (int i = 0; i < 3_000; i++) {
+            tradeHistoryRepository.addTrade(createTrade(i % 2 == 0 ? Side.BUY : Side.SELL, 100_000L + i, 100,
+                    i % 3 == 0 ? BTC_USD : BTC_ZAR));
+        }
+        int expected = tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, 0, Integer.MAX_VALUE).getTrades().size();
+        long cursor = -1;
+        int seen = 0;
+        List<Trade> page;
+        do {
+            page = filterAfter(cursor, 0, 100).getTrades();
+            for (Trade trade : page) {
+                assertTrue(trade.getId() > cursor);
+                assertEquals(BTC_ZAR, trade.getCurrencyPair());
+                cursor = trade.getId();
+                seen++;
+            }
+        } while (!page.isEmpty());
+
+        assertEquals(2_008, expected);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void find_trade_by_id_returns_indexed_trade() {
+        assertEquals(7, tradeHistoryRepository.findTradeById(7).map(Trade::getId).orElseThrow());
+        assertEquals(BTC_ZAR, tradeHistoryRepository.findTradeById(7).map(Trade::getCurrencyPair).orElseThrow());
+        assertTrue(tradeHistoryRepository.findTradeById(1_000).isEmpty());
+    }
+
     @Test
     void filter_trade_history_by_currency_pair_with_limit_exceeding_trades() {
         TradeHistory result = tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, 0, 20);
         assertEquals(8, result.getTrades().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void journaled_trades_are_recovered_after_restart(@TempDir Path journalDirectory) {
+        TradeHistoryRepository journaled = new TradeHistoryRepository(journalDirectory.toString(), 4096, 0, "", 0);
+        journaled.insertData();
+        journaled.addTrade(createTrade(Side.BUY, 100_000L, 100, BTC_ZAR));
+        journaled.close();
+
+        TradeHistoryRepository restarted = new TradeHistoryRepository(journalDirectory.toString(), 4096, 0, "", 0);
+        restarted.insertData();
+
+        assertEquals(journaled.filterTradeHistoryBy(BTC_ZAR, 0, 100), restarted.filterTradeHistoryBy(BTC_ZAR, 0, 100));
+        assertEquals(7, restarted.filterTradeHistoryBy(BTC_ZAR, 0, 100).getTrades().size());
+        assertEquals(12, restarted.addTrade(createTrade(Side.SELL, 100_000L, 100, BTC_USD)));
+    }
+
+    @Test
+    void trade_statistics_aggregate_trades_of_the_pair_only() {
+        TradeStatistics statistics = tradeHistoryRepository.getTradeStatistics(BTC_USD, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        assertEquals(3, statistics.getTradeCount());
+        assertEquals(new BigDecimal("0.03925700"), statistics.getBaseVolume());
+        assertEquals(0, tradeHistoryRepository.getTradeStatistics(LTC_USD, 0, Long.MAX_VALUE).getTradeCount());
+    }
+
+    @Test
+    void filter_trade_history_by_time_range_returns_trades_within_range() {
+        long from = EpochClock.fromIsoString("2024-12-01T10:00:00Z");
+        long to = EpochClock.fromIsoString("2024-12-01T10:05:00Z");
+
+        TradeHistory inRange = tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, 0, -1, from, to, 0, 10);
+        TradeHistory fromOnly = tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, 0, -1, from, Long.MAX_VALUE, 0, 10);
+        TradeHistory beforeFrom = tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, 0, -1, Long.MIN_VALUE, from, 1, 2);
+
+        assertEquals(List.of(11L), inRange.getTrades().stream().map(Trade::getId).toList());
+        assertEquals(List.of(11L, 12L), fromOnly.getTrades().stream().map(Trade::getId).toList());
+        assertEquals(List.of(6L, 7L), beforeFrom.getTrades().stream().map(Trade::getId).toList());
+        assertTrue(tradeHistoryRepository.filterTradeHistoryBy(BTC_ZAR, 0, 11, from, to, 0, 10).getTrades().isEmpty());
+    }
+}
@@ -0,0 +1,92 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.event.MarketDataBus;
+import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.repository.OrderBookRepository;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CurrencyPairOrderBookAllocationTest {
+    private static final int WARM_UP_ROUNDS = 50_000;
+    private static final int MEASURED_ROUNDS = 50_000;
+    private static final int MEASURED_WINDOWS = 3;
+
+    private OrderBookRepository repository;
+    private final Order sell = new Order(Side.SELL, 0, 0, BTC_ZAR);
+    private final Order buy = new Order(Side.BUY, 0, 0, BTC_ZAR);
+    private final FillBuffer fills = new FillBuffer();
+    private long filledQuantity;
+    private long nextOrderId = 1;
+
+    @ParameterizedTest
+    @EnumSource(OrderStorageType.class)
+    void matching_cancelling_and_publishing_fills_do_not_allocate_after_warm_up(OrderStorageType storageType) {
+        com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+        assumeTrue(threadMXBean != null && threadMXBean.isThreadAllocatedMemoryEnabled());
+        MarketDataBus marketDataBus = new MarketDataBus(List.of(trades -> { }), List.of(), 1024);
+        marketDataBus.start();
+        repository = new OrderBookRepository(storageType, marketDataBus);
+        try {
+            runRounds(WARM_UP_ROUNDS);
+            // A window may see a few bytes allocated by the JVM itself while the path is recompiled with the
+            // profiles of other tests; the steady state must still reach zero within a few windows.
+            long allocated = Long.MAX_VALUE;
+            for (int window = 0; window < MEASURED_WINDOWS && allocated != 0; window++) {
+                long filledBefore = filledQuantity;
+                long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+                runRounds(MEASURED_ROUNDS);
+                allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                assertEquals((long) MEASURED_ROUNDS * 300, filledQuantity - filledBefore);
+            }
+
+            assertEquals(0, allocated, "bytes allocated by the last measured rounds");
+        } finally {
+            marketDataBus.shutdown();
+        }
+    }
+
+    // Each round rests asks on two levels and sweeps both with a bid whose remainder rests and is then cancelled,
+    // while a second bid is filled by an ask. Levels and orders are created, filled and cancelled every round.
+    private void runRounds(int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            long price = 1_000 + (round & 7);
+            rest(sell, 100, price);
+            rest(sell, 100, price + 1);
+            rest(buy, 400, price + 1);
+            createOrder(reset(buy, 100, price - 50));
+            repository.cancelOrder(BTC_ZAR, nextOrderId - 2);
+            createOrder(reset(sell, 100, price - 50));
+        }
+    }
+
+    private void rest(Order order, long quantity, long price) {
+        createOrder(reset(order, quantity, price));
+    }
+
+    private void createOrder(Order order) {
+        repository.createOrder(order, fills);
+        for (int i = 0; i < fills.size(); i++) {
+            filledQuantity += fills.getQuantity(i);
+        }
+    }
+
+    private Order reset(Order order, long quantity, long price) {
+        order.setId(nextOrderId++);
+        order.setQuantity(quantity);
+        order.setPrice(price);
+        return order;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+                ? threadMXBean : null;
+    }
+}
@@ -0,0 +1,190 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.BestBidOffer;
+import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.OrderBook;
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.valr.orderbook.util.TestHelper.BTC_EUR;
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyPairOrderBookTest {
+
+    @Test
+    void off_heap_book_matches_like_heap_book() {
+        CurrencyPairOrderBook heapBook = new CurrencyPairOrderBook(BTC_ZAR, OrderStorageType.HEAP);
+        CurrencyPairOrderBook offHeapBook = new CurrencyPairOrderBook(BTC_ZAR, OrderStorageType.OFF_HEAP);
+        Random random = new Random(7);
+        List<Long> ids = new ArrayList<>();
+
+        for (long id = 1; id <= 50_000; id++) {
+            if (!ids.isEmpty() && random.nextInt(4) == 0) {
+                long cancelledId = ids.remove(random.nextInt(ids.size()));
+                assertEquals(heapBook.cancelOrder(cancelledId), offHeapBook.cancelOrder(cancelledId));
+                continue;
+            }
+            Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+            long quantity = 1 + random.nextInt(1_000);
+            long price = 900 + random.nextInt(200);
+            List<Trade> heapTrades = heapBook.createOrder(new Order(id, side, quantity, price, BTC_ZAR));
+            List<Trade> offHeapTrades = offHeapBook.createOrder(new Order(id, side, quantity, price, BTC_ZAR));
+            assertEquals(heapTrades.stream().map(Trade::getQuantity).toList(),
+                    offHeapTrades.stream().map(Trade::getQuantity).toList());
+            ids.add(id);
+        }
+
+        heapBook.publishSnapshot();
+        offHeapBook.publishSnapshot();
+        OrderBook expected = heapBook.getSnapshot();
+        OrderBook actual = offHeapBook.getSnapshot();
+        assertFalse(actual.getBids().isEmpty());
+        assertEquals(expected.getBids(), actual.getBids());
+        assertEquals(expected.getAsks(), actual.getAsks());
+    }
+
+    @Test
+    void every_change_bumps_the_version_of_the_published_snapshot() {
+        CurrencyPairOrderBook book = new CurrencyPairOrderBook(BTC_ZAR);
+        long initial = book.getSnapshot().getVersion();
+
+        book.createOrder(new Order(1, Side.SELL, 100, 1_000, BTC_ZAR));
+        book.createOrder(new Order(2, Side.SELL, 100, 1_001, BTC_ZAR));
+        book.publishSnapshot();
+        long afterRest = book.getSnapshot().getVersion();
+        book.publishSnapshot();
+        book.createOrder(new Order(3, Side.BUY, 50, 1_000, BTC_ZAR));
+        book.cancelOrder(2);
+        book.cancelOrder(42);
+        book.publishSnapshot();
+
+        assertTrue(initial > 0);
+        assertEquals(initial + 2, afterRest);
+        assertEquals(afterRest + 2, book.getSnapshot().getVersion());
+    }
+
+    @Test
+    void snapshot_levels_follow_fills_and_cancels() {
+        CurrencyPairOrderBook book = new CurrencyPairOrderBook(BTC_ZAR);
+        book.createOrder(new Order(1, Side.SELL, 100, 1_000, BTC_ZAR));
+        book.createOrder(new Order(2, Side.SELL, 40, 1_000, BTC_ZAR));
+        book.createOrder(new Order(3, Side.SELL, 70, 1_001, BTC_ZAR));
+        book.createOrder(new Order(4, Side.BUY, 30, 999, BTC_ZAR));
+        book.createOrder(new Order(5, Side.BUY, 120, 1_000, BTC_ZAR));
+        book.cancelOrder(3);
+        book.publishSnapshot();
+
+        OrderBook snapshot = book.getSnapshot();
+        assertEquals(1, snapshot.getAskLevels().size());
+        assertEquals(1_000, snapshot.getAskLevels().get(0).getPrice());
+        assertEquals(20, snapshot.getAskLevels().get(0).getQuantity());
+        assertEquals(1, snapshot.getAskLevels().get(0).getOrderCount());
+        assertEquals(30, snapshot.getBidLevels().get(0).getQuantity());
+        assertEquals(snapshot.getAsks().size(), snapshot.getAskLevels().get(0).getOrderCount());
+    }
+
+    @Test
+    void published_update_lists_each_changed_level_once_with_its_final_state() {
+        CurrencyPairOrderBook book = new CurrencyPairOrderBook(BTC_ZAR);
+        book.createOrder(new Order(1, Side.SELL, 100, 1_000, BTC_ZAR));
+        book.createOrder(new Order(2, Side.SELL, 100, 1_001, BTC_ZAR));
+        book.publishSnapshot();
+
+        book.createOrder(new Order(3, Side.BUY, 150, 1_001, BTC_ZAR));
+        book.createOrder(new Order(4, Side.BUY, 10, 900, BTC_ZAR));
+        book.cancelOrder(4);
+        OrderBookUpdate update = book.publishSnapshot();
+
+        assertEquals(book.getSnapshot().getVersion(), update.getVersion());
+        assertEquals(List.of(1_000L, 1_001L), update.getAsks().stream().map(OrderBookLevel::getPrice).toList());
+        assertEquals(0, update.getAsks().get(0).getQuantity());
+        assertEquals(0, update.getAsks().get(0).getOrderCount());
+        assertEquals(50, update.getAsks().get(1).getQuantity());
+        assertEquals(1, update.getBids().size());
+        assertEquals(0, update.getBids().get(0).getOrderCount());
+        assertNull(book.publishSnapshot());
+    }
+
+    @Test
+    void order_with_quote_volume_out_of_range_is_rejected_before_touching_the_book() {
+        CurrencyPairOrderBook book = new CurrencyPairOrderBook(BTC_EUR);
+        book.createOrder(new Order(1, Side.SELL, 1_000_000_000_000L, 5_000_000L, BTC_EUR));
+        book.publishSnapshot();
+        long version = book.getSnapshot().getVersion();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> book.createOrder(new Order(2, Side.BUY, 2_000_000_000_000L, 5_000_000L, BTC_EUR)));
+
+        assertNull(book.publishSnapshot());
+        assertEquals(version, book.getSnapshot().getVersion());
+        assertEquals(1_000_000_000_000L, book.getSnapshot().getAsks().get(0).getQuantity());
+    }
+
+    @Test
+    void failing_fill_listener_leaves_the_book_consistent() {
+        CurrencyPairOrderBook book = new CurrencyPairOrderBook(BTC_ZAR);
+        book.createOrder(new Order(1, Side.SELL, 100, 1_000, BTC_ZAR));
+        book.createOrder(new Order(2, Side.SELL, 50, 1_000, BTC_ZAR));
+        Order buy = new Order(3, Side.BUY, 120, 1_000, BTC_ZAR);
+
+        assertThrows(IllegalStateException.class, () -> book.createOrder(buy, (makerOrderId, takerSide, price,
+                quantity, quoteVolume, executedAt) -> {
+            throw new IllegalStateException("listener failed");
+        }));
+
+        assertEquals(20, buy.getQuantity());
+        assertFalse(book.cancelOrder(1));
+        book.publishSnapshot();
+        OrderBook snapshot = book.getSnapshot();
+        assertEquals(1, snapshot.getAsks().size());
+        assertEquals(2, snapshot.getAsks().get(0).getId());
+        assertEquals(50, snapshot.getAskLevels().get(0).getQuantity());
+        assertEquals(1, snapshot.getAskLevels().get(0).getOrderCount());
+        assertTrue(snapshot.getBids().isEmpty());
+
+        List<Trade> trades = book.createOrder(new Order(4, Side.BUY, 60, 1_000, BTC_ZAR));
+        assertEquals(1, trades.size());
+        assertEquals(50, trades.get(0).getQuantity());
+        assertEquals(50_000, trades.get(0).getQuoteVolume());
+        book.publishSnapshot();
+        assertTrue(book.getSnapshot().getAsks().isEmpty());
+        assertEquals(10, book.getSnapshot().getBids().get(0).getQuantity());
+    }
+
+    @Test
+    void best_bid_offer_follows_the_best_levels_of_published_snapshots() {
+        CurrencyPairOrderBook book = new CurrencyPairOrderBook(BTC_ZAR);
+        assertNull(book.getBestBidOffer().getBid());
+        assertNull(book.getBestBidOffer().getAsk());
+
+        book.createOrder(new Order(1, Side.SELL, 100, 1_000, BTC_ZAR));
+        book.createOrder(new Order(2, Side.SELL, 40, 1_000, BTC_ZAR));
+        book.createOrder(new Order(3, Side.SELL, 70, 1_001, BTC_ZAR));
+        book.createOrder(new Order(4, Side.BUY, 30, 999, BTC_ZAR));
+        book.createOrder(new Order(5, Side.BUY, 110, 1_000, BTC_ZAR));
+        assertNull(book.getBestBidOffer().getAsk());
+        book.publishSnapshot();
+
+        BestBidOffer bestBidOffer = book.getBestBidOffer();
+        assertEquals(BTC_ZAR, bestBidOffer.getCurrencyPair());
+        assertEquals(1_000, bestBidOffer.getAsk().getPrice());
+        assertEquals(30, bestBidOffer.getAsk().getQuantity());
+        assertEquals(1, bestBidOffer.getAsk().getOrderCount());
+        assertEquals(999, bestBidOffer.getBid().getPrice());
+        assertEquals(30, bestBidOffer.getBid().getQuantity());
+        assertEquals(book.getSnapshot().getLastChange(), bestBidOffer.getLastChange());
+        assertSame(bestBidOffer, book.getBestBidOffer());
+
+        book.cancelOrder(2);
+        book.publishSnapshot();
+        assertEquals(1_001, book.getBestBidOffer().getAsk().getPrice());
+    }
+}
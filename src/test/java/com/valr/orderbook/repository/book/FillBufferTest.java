@@ -0,0 +1,47 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FillBufferTest {
+
+    @Test
+    void buffer_grows_and_is_reused_after_clear() {
+        FillBuffer fills = new FillBuffer();
+        for (int i = 0; i < 100; i++) {
+            fills.onFill(i, Side.SELL, 1_000 + i, 10, 10L * (1_000 + i), 5);
+        }
+
+        assertEquals(100, fills.size());
+        assertEquals(Side.SELL, fills.getTakerSide());
+        assertEquals(99, fills.getMakerOrderId(99));
+        assertEquals(1_099, fills.getPrice(99));
+        assertEquals(10_990, fills.getQuoteVolume(99));
+        assertThrows(IndexOutOfBoundsException.class, () -> fills.getQuantity(100));
+
+        fills.clear();
+        assertEquals(0, fills.size());
+        assertNull(fills.getTakerSide());
+        assertSame(List.of(), fills.toTrades(BTC_ZAR));
+        assertThrows(IndexOutOfBoundsException.class, () -> fills.getPrice(0));
+    }
+
+    @Test
+    void trades_are_created_from_the_fills_in_execution_order() {
+        FillBuffer fills = new FillBuffer();
+        fills.onFill(1, Side.BUY, 100, 3, 300, 7);
+        fills.onFill(2, Side.BUY, 101, 4, 404, 7);
+
+        List<Trade> trades = fills.toTrades(BTC_ZAR);
+        fills.clear();
+
+        assertEquals(List.of(new Trade(0, 100, 3, BTC_ZAR, 7, Side.BUY, 300),
+                new Trade(0, 101, 4, BTC_ZAR, 7, Side.BUY, 404)), trades);
+    }
+}
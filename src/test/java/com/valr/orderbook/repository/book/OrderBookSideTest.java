@@ -0,0 +1,223 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.enumeration.Side;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookSideTest {
+    private final OrderStore store = new HeapOrderStore();
+
+    @Test
+    void bids_are_ordered_by_descending_price() {
+        OrderBookSide bids = new OrderBookSide(Side.BUY, store);
+        bids.addOrder(slot(1, Side.BUY, 100));
+        bids.addOrder(slot(2, Side.BUY, 300));
+        bids.addOrder(slot(3, Side.BUY, 200));
+
+        List<Order> orders = publishedOrders(bids);
+        assertEquals(List.of(300L, 200L, 100L), orders.stream().map(Order::getPrice).toList());
+        assertEquals(300, bids.getBestLevel().getPrice());
+    }
+
+    @Test
+    void asks_are_ordered_by_ascending_price() {
+        OrderBookSide asks = new OrderBookSide(Side.SELL, store);
+        asks.addOrder(slot(1, Side.SELL, 200));
+        asks.addOrder(slot(2, Side.SELL, 100));
+        asks.addOrder(slot(3, Side.SELL, 300));
+
+        List<Order> orders = publishedOrders(asks);
+        assertEquals(List.of(100L, 200L, 300L), orders.stream().map(Order::getPrice).toList());
+        assertEquals(100, asks.getBestLevel().getPrice());
+    }
+
+    @Test
+    void same_price_orders_keep_arrival_order() {
+        OrderBookSide asks = new OrderBookSide(Side.SELL, store);
+        int first = slot(1, Side.SELL, 100);
+        asks.addOrder(first);
+        asks.addOrder(slot(2, Side.SELL, 100));
+
+        PriceLevel level = asks.getLevel(100);
+        assertEquals(first, level.getHead());
+        assertEquals(2, level.getOrderCount());
+        assertEquals(1, asks.getLevelCount());
+    }
+
+    @Test
+    void removing_best_level_promotes_next_level() {
+        OrderBookSide asks = new OrderBookSide(Side.SELL, store);
+        int best = slot(1, Side.SELL, 100);
+        asks.addOrder(best);
+        asks.addOrder(slot(2, Side.SELL, 200));
+
+        asks.removeOrder(best);
+        assertNull(asks.getLevel(100));
+        assertEquals(200, asks.getBestLevel().getPrice());
+    }
+
+    @Test
+    void removing_identical_order_removes_only_that_instance() {
+        OrderBookSide bids = new OrderBookSide(Side.BUY, store);
+        int first = slot(1, Side.BUY, 100);
+        int second = slot(2, Side.BUY, 100);
+        bids.addOrder(first);
+        bids.addOrder(second);
+
+        bids.removeOrder(second);
+        assertEquals(first, bids.getLevel(100).getHead());
+        assertEquals(1, bids.getLevel(100).getOrderCount());
+    }
+
+    @Test
+    void removing_order_from_middle_of_level_keeps_queue_linked() {
+        OrderBookSide asks = new OrderBookSide(Side.SELL, store);
+        int second = slot(2, Side.SELL, 100);
+        asks.addOrder(slot(1, Side.SELL, 100));
+        asks.addOrder(second);
+        asks.addOrder(slot(3, Side.SELL, 100));
+
+        asks.removeOrder(second);
+
+        assertEquals(List.of(1L, 3L), publishedOrders(asks).stream().map(Order::getId).toList());
+        assertEquals(2, asks.getLevel(100).getOrderCount());
+    }
+
+    @Test
+    void removing_inner_level_keeps_levels_sorted() {
+        OrderBookSide bids = new OrderBookSide(Side.BUY, store);
+        int inner = slot(2, Side.BUY, 200);
+        bids.addOrder(slot(1, Side.BUY, 300));
+        bids.addOrder(inner);
+        bids.addOrder(slot(3, Side.BUY, 100));
+
+        bids.removeOrder(inner);
+        bids.addOrder(slot(4, Side.BUY, 250));
+
+        assertEquals(List.of(300L, 250L, 100L), publishedOrders(bids).stream().map(Order::getPrice).toList());
+        assertEquals(3, bids.getLevelCount());
+    }
+
+    @Test
+    void side_grows_beyond_initial_level_capacity() {
+        OrderBookSide asks = new OrderBookSide(Side.SELL, store);
+        for (int price = 1_000; price > 0; price--) {
+            asks.addOrder(slot(price, Side.SELL, price));
+        }
+
+        assertEquals(1_000, asks.getLevelCount());
+        assertEquals(1, asks.getBestLevel().getPrice());
+        assertEquals(500, asks.getLevel(500).getPrice());
+    }
+
+    @Test
+    void random_level_changes_keep_levels_sorted_and_best_level_current() {
+        OrderBookSide bids = new OrderBookSide(Side.BUY, store);
+        TreeMap<Long, Integer> expected = new TreeMap<>(Comparator.reverseOrder());
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            long price = 1 + random.nextInt(500);
+            Integer slot = expected.remove(price);
+            if (slot == null) {
+                slot = slot(i, Side.BUY, price);
+                bids.addOrder(slot);
+                expected.put(price, slot);
+            } else {
+                bids.removeOrder(slot);
+                store.release(slot);
+            }
+            assertEquals(expected.isEmpty() ? null : expected.firstKey(),
+                    bids.getBestLevel() == null ? null : bids.getBestLevel().getPrice());
+        }
+
+        assertEquals(List.copyOf(expected.keySet()),
+                publishedLevels(bids).stream().map(OrderBookLevel::getPrice).toList());
+        assertEquals(expected.size(), bids.getLevelCount());
+    }
+
+    @Test
+    void removing_last_order_empties_side() {
+        OrderBookSide bids = new OrderBookSide(Side.BUY, store);
+        int order = slot(1, Side.BUY, 100);
+        bids.addOrder(order);
+
+        bids.removeOrder(order);
+        assertNull(bids.getBestLevel());
+        assertTrue(publishedOrders(bids).isEmpty());
+    }
+
+    @Test
+    void level_list_sums_orders_by_price_best_first() {
+        OrderBookSide bids = new OrderBookSide(Side.BUY, store);
+        bids.addOrder(slot(1, Side.BUY, 100));
+        int removed = slot(2, Side.BUY, 300);
+        bids.addOrder(removed);
+        bids.addOrder(slot(3, Side.BUY, 300));
+        bids.addOrder(slot(4, Side.BUY, 300));
+        bids.removeOrder(removed);
+
+        List<OrderBookLevel> levels = publishedLevels(bids);
+        assertEquals(List.of(300L, 100L), levels.stream().map(OrderBookLevel::getPrice).toList());
+        assertEquals(200_000_000L, levels.get(0).getQuantity());
+        assertEquals(2, levels.get(0).getOrderCount());
+        assertEquals(100_000_000L, levels.get(1).getQuantity());
+        assertEquals(1, levels.get(1).getOrderCount());
+    }
+
+    @Test
+    void publishing_copies_only_changed_levels() {
+        OrderBookSide asks = new OrderBookSide(Side.SELL, store);
+        asks.addOrder(slot(1, Side.SELL, 100));
+        asks.addOrder(slot(2, Side.SELL, 200));
+        int changed = slot(3, Side.SELL, 300);
+        asks.addOrder(changed);
+        List<OrderBookLevel> before = publishedLevels(asks);
+
+        asks.removeOrder(changed);
+        asks.addOrder(slot(4, Side.SELL, 150));
+        List<OrderBookLevel> changes = asks.publishChangedLevels(BTC_ZAR);
+        List<OrderBookLevel> after = asks.getPublished().getLevels();
+
+        assertEquals(List.of(300L, 150L), changes.stream().map(OrderBookLevel::getPrice).toList());
+        assertEquals(0, changes.get(0).getOrderCount());
+        assertEquals(List.of(100L, 150L, 200L), after.stream().map(OrderBookLevel::getPrice).toList());
+        assertSame(before.get(0), after.get(0));
+        assertSame(before.get(1), after.get(2));
+        assertEquals(List.of(100L, 200L, 300L), before.stream().map(OrderBookLevel::getPrice).toList());
+        assertTrue(asks.publishChangedLevels(BTC_ZAR).isEmpty());
+    }
+
+    @Test
+    void reused_level_starts_with_an_empty_total() {
+        OrderBookSide asks = new OrderBookSide(Side.SELL, store);
+        int order = slot(1, Side.SELL, 100);
+        asks.addOrder(order);
+        asks.removeOrder(order);
+        asks.addOrder(slot(2, Side.SELL, 200));
+
+        assertEquals(100_000_000L, asks.getBestLevel().getTotalQuantity());
+    }
+
+    private static List<Order> publishedOrders(OrderBookSide side) {
+        side.publishChangedLevels(BTC_ZAR);
+        return side.getPublished().getOrders();
+    }
+
+    private static List<OrderBookLevel> publishedLevels(OrderBookSide side) {
+        side.publishChangedLevels(BTC_ZAR);
+        return side.getPublished().getLevels();
+    }
+
+    private int slot(long id, Side side, long price) {
+        return store.allocate(id, side, 100_000_000L, price);
+    }
+}
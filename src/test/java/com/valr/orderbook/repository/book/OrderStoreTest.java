@@ -0,0 +1,79 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.enumeration.Side;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static com.valr.orderbook.repository.book.OrderStore.NULL_SLOT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStoreTest {
+
+    @ParameterizedTest
+    @EnumSource(OrderStorageType.class)
+    void level_copies_hold_the_orders_of_the_level(OrderStorageType type) {
+        OrderStore store = OrderStore.create(type);
+        PriceLevel level = new PriceLevel(store, 100);
+        level.append(store.allocate(1, Side.BUY, 5, 100));
+        level.append(store.allocate(2, Side.BUY, 7, 100));
+
+        LevelSnapshot copy = LevelSnapshot.of(level, Side.BUY, store, "BTCZAR");
+
+        assertEquals(2, copy.getOrderCount());
+        assertEquals(12, copy.getLevel().getQuantity());
+        assertEquals(2, copy.getOrder(1).getId());
+        assertEquals(7, copy.getOrder(1).getQuantity());
+    }
+
+    @ParameterizedTest
+    @EnumSource(OrderStorageType.class)
+    void allocated_slot_holds_order_fields(OrderStorageType type) {
+        OrderStore store = OrderStore.create(type);
+
+        int slot = store.allocate(42, Side.SELL, 123_456_789L, -5);
+        store.setQuantity(slot, 100);
+
+        assertEquals(42, store.id(slot));
+        assertEquals(Side.SELL, store.side(slot));
+        assertEquals(100, store.quantity(slot));
+        assertEquals(-5, store.price(slot));
+        assertEquals(NULL_SLOT, store.previous(slot));
+        assertEquals(NULL_SLOT, store.next(slot));
+        assertEquals(1, store.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(OrderStorageType.class)
+    void released_slots_are_reused_before_growing(OrderStorageType type) {
+        OrderStore store = OrderStore.create(type);
+        int first = store.allocate(1, Side.BUY, 1, 1);
+        int second = store.allocate(2, Side.BUY, 1, 1);
+
+        store.release(first);
+        store.release(second);
+
+        assertEquals(second, store.allocate(3, Side.BUY, 1, 1));
+        assertEquals(first, store.allocate(4, Side.SELL, 1, 1));
+        assertEquals(Side.SELL, store.side(first));
+        assertEquals(2, store.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(OrderStorageType.class)
+    void store_grows_beyond_initial_capacity(OrderStorageType type) {
+        OrderStore store = OrderStore.create(type);
+        int orders = 3 * OffHeapOrderStore.SLOTS_PER_CHUNK + 1;
+
+        for (int i = 0; i < orders; i++) {
+            assertEquals(i, store.allocate(i, i % 2 == 0 ? Side.BUY : Side.SELL, i * 10L, i * 100L));
+        }
+
+        for (int i = 0; i < orders; i += 997) {
+            assertEquals(i, store.id(i));
+            assertEquals(i * 10L, store.quantity(i));
+            assertEquals(i * 100L, store.price(i));
+            assertEquals(i % 2 == 0 ? Side.BUY : Side.SELL, store.side(i));
+        }
+        assertEquals(orders, store.size());
+    }
+}
@@ -0,0 +1,80 @@
+package com.valr.orderbook.repository.book;
+
+import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.enumeration.Side;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SideSnapshotTest {
+    private final OrderStore store = new HeapOrderStore();
+
+    @Test
+    void published_sides_match_the_book_after_random_changes() {
+        OrderBookSide bids = new OrderBookSide(Side.BUY, store);
+        TreeMap<Long, List<Integer>> expected = new TreeMap<>(Comparator.reverseOrder());
+        Random random = new Random(11);
+        List<SideSnapshot> published = new ArrayList<>();
+        List<List<Order>> publishedOrders = new ArrayList<>();
+
+        for (int round = 0; round < 200; round++) {
+            for (int change = 0; change < 1 + random.nextInt(20); change++) {
+                long price = 1 + random.nextInt(100);
+                List<Integer> level = expected.get(price);
+                if (level != null && random.nextBoolean()) {
+                    int slot = level.remove(random.nextInt(level.size()));
+                    bids.removeOrder(slot);
+                    store.release(slot);
+                    if (level.isEmpty()) {
+                        expected.remove(price);
+                    }
+                } else {
+                    int slot = store.allocate(round * 100L + change, Side.BUY, 1 + random.nextInt(1_000), price);
+                    bids.addOrder(slot);
+                    expected.computeIfAbsent(price, key -> new ArrayList<>()).add(slot);
+                }
+            }
+            bids.publishChangedLevels(BTC_ZAR);
+            published.add(bids.getPublished());
+            publishedOrders.add(List.copyOf(expectedOrders(expected)));
+        }
+
+        for (int i = 0; i < published.size(); i++) {
+            List<Order> expectedOrders = publishedOrders.get(i);
+            List<Order> orders = published.get(i).getOrders();
+            assertEquals(expectedOrders, orders);
+            assertEquals(expectedOrders, IntStream.range(0, orders.size()).mapToObj(orders::get).toList());
+        }
+        List<OrderBookLevel> levels = bids.getPublished().getLevels();
+        assertEquals(List.copyOf(expected.keySet()), levels.stream().map(OrderBookLevel::getPrice).toList());
+        assertEquals(levels.get(levels.size() / 2), levels.subList(0, levels.size()).get(levels.size() / 2));
+    }
+
+    @Test
+    void empty_side_has_no_levels_or_orders() {
+        SideSnapshot side = SideSnapshot.empty(Side.SELL);
+
+        assertTrue(side.getLevels().isEmpty());
+        assertTrue(side.getOrders().isEmpty());
+        assertSame(side, side.without(100));
+        assertThrows(IndexOutOfBoundsException.class, () -> side.getOrders().get(0));
+        assertThrows(UnsupportedOperationException.class, () -> side.getLevels().add(null));
+    }
+
+    private List<Order> expectedOrders(Map<Long, List<Integer>> levels) {
+        List<Order> orders = new ArrayList<>();
+        levels.values().forEach(slots -> slots.forEach(slot -> orders.add(new Order(store.id(slot), Side.BUY,
+                store.quantity(slot), store.price(slot), BTC_ZAR))));
+        return orders;
+    }
+}
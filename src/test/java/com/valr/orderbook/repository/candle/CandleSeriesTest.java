@@ -0,0 +1,94 @@
+package com.valr.orderbook.repository.candle;
+
+import com.valr.orderbook.model.Candle;
+import com.valr.orderbook.model.enumeration.CandleInterval;
+import com.valr.orderbook.util.EpochClock;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleSeriesTest {
+    private static final long MINUTE = CandleInterval.ONE_MINUTE.getNanos();
+    private static final long START = EpochClock.fromIsoString("2024-12-01T10:00:00Z");
+
+    @Test
+    void trades_of_one_interval_form_one_candle() {
+        CandleSeries series = new CandleSeries(BTC_ZAR, CandleInterval.ONE_MINUTE);
+
+        series.addTrade(START + 1, 100, 2, 200);
+        series.addTrade(START + 3, 130, 1, 130);
+        series.addTrade(START + 2, 90, 1, 90);
+        series.addTrade(START + 4, 110, 3, 330);
+
+        List<Candle> candles = series.latest(10);
+        assertEquals(1, candles.size());
+        Candle candle = candles.get(0);
+        assertEquals("2024-12-01T10:00:00Z", candle.getOpenTime());
+        assertEquals("1m", candle.getInterval());
+        assertEquals(100, candle.getOpen());
+        assertEquals(130, candle.getHigh());
+        assertEquals(90, candle.getLow());
+        assertEquals(110, candle.getClose());
+        assertEquals(7, candle.getVolume());
+        assertEquals(BigInteger.valueOf(750), candle.getQuoteVolume());
+        assertEquals(4, candle.getTradeCount());
+    }
+
+    @Test
+    void quote_volume_of_a_candle_does_not_overflow() {
+        CandleSeries series = new CandleSeries(BTC_ZAR, CandleInterval.ONE_MINUTE);
+
+        series.addTrade(START, 2, Long.MAX_VALUE / 4, Long.MAX_VALUE / 2);
+        series.addTrade(START + 1, 2, Long.MAX_VALUE / 4, Long.MAX_VALUE / 2);
+        series.addTrade(START + 2, 2, Long.MAX_VALUE / 4, Long.MAX_VALUE / 2);
+
+        Candle candle = series.latest(1).get(0);
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE / 2).multiply(BigInteger.valueOf(3)), candle.getQuoteVolume());
+        series.addTrade(START + MINUTE * CandleInterval.ONE_MINUTE.getCapacity(), 2, 1, 2);
+        assertEquals(BigInteger.TWO, series.latest(1).get(0).getQuoteVolume());
+    }
+
+    @Test
+    void late_trade_updates_open_by_execution_time() {
+        CandleSeries series = new CandleSeries(BTC_ZAR, CandleInterval.ONE_MINUTE);
+
+        series.addTrade(START + 10, 100, 1, 100);
+        series.addTrade(START + 5, 95, 1, 95);
+
+        Candle candle = series.latest(1).get(0);
+        assertEquals(95, candle.getOpen());
+        assertEquals(100, candle.getClose());
+    }
+
+    @Test
+    void latest_returns_most_recent_candles_in_ascending_order_skipping_empty_intervals() {
+        CandleSeries series = new CandleSeries(BTC_ZAR, CandleInterval.ONE_MINUTE);
+
+        series.addTrade(START, 100, 1, 100);
+        series.addTrade(START + MINUTE, 101, 1, 101);
+        series.addTrade(START + 4 * MINUTE, 104, 1, 104);
+
+        assertEquals(List.of(100L, 101L, 104L), series.latest(10).stream().map(Candle::getOpen).toList());
+        assertEquals(List.of(101L, 104L), series.latest(2).stream().map(Candle::getOpen).toList());
+        assertTrue(new CandleSeries(BTC_ZAR, CandleInterval.ONE_DAY).latest(10).isEmpty());
+    }
+
+    @Test
+    void ring_keeps_only_the_retained_window() {
+        CandleSeries series = new CandleSeries(BTC_ZAR, CandleInterval.ONE_MINUTE);
+        int capacity = CandleInterval.ONE_MINUTE.getCapacity();
+
+        series.addTrade(START, 100, 1, 100);
+        series.addTrade(START + capacity * MINUTE, 200, 1, 200);
+        series.addTrade(START + MINUTE, 150, 1, 150);
+        series.addTrade(START, 50, 1, 50);
+
+        List<Candle> candles = series.latest(capacity);
+        assertEquals(List.of(150L, 200L), candles.stream().map(Candle::getOpen).toList());
+        assertEquals(1, candles.get(1).getTradeCount());
+    }
+}
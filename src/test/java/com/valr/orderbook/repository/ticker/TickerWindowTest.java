@@ -0,0 +1,134 @@
+package com.valr.orderbook.repository.ticker;
+
+import com.valr.orderbook.model.Ticker;
+import com.valr.orderbook.util.EpochClock;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickerWindowTest {
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+    private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+    private static final long DAY = TimeUnit.DAYS.toNanos(1);
+    private static final long START = EpochClock.fromIsoString("2024-12-01T10:00:00Z");
+
+    @Test
+    void ticker_aggregates_trades_of_the_window() {
+        TickerWindow window = new TickerWindow(BTC_ZAR);
+
+        window.addTrade(START, 100, 2, 200);
+        window.addTrade(START + HOUR, 150, 1, 150);
+        window.addTrade(START + 2 * HOUR, 80, 1, 80);
+        window.addTrade(START + 3 * HOUR, 120, 4, 480);
+
+        Ticker ticker = window.ticker(START + 3 * HOUR);
+        assertEquals(BTC_ZAR, ticker.getCurrencyPair());
+        assertEquals(120, ticker.getLastPrice());
+        assertEquals(100, ticker.getOpenPrice());
+        assertEquals(150, ticker.getHighPrice());
+        assertEquals(80, ticker.getLowPrice());
+        assertEquals(8, ticker.getBaseVolume());
+        assertEquals(BigInteger.valueOf(910), ticker.getQuoteVolume());
+        assertEquals(114, ticker.getVwap());
+        assertEquals(new BigDecimal("20.00"), ticker.getChangePercent());
+        assertEquals(4, ticker.getTradeCount());
+    }
+
+    @Test
+    void trades_older_than_24_hours_expire_lazily() {
+        TickerWindow window = new TickerWindow(BTC_ZAR);
+
+        window.addTrade(START, 200, 2, 400);
+        window.addTrade(START + HOUR, 100, 1, 100);
+
+        Ticker ticker = window.ticker(START + DAY + MINUTE);
+        assertEquals(1, ticker.getTradeCount());
+        assertEquals(100, ticker.getOpenPrice());
+        assertEquals(100, ticker.getHighPrice());
+        assertEquals(1, ticker.getBaseVolume());
+        assertEquals(new BigDecimal("0.00"), ticker.getChangePercent());
+
+        Ticker empty = window.ticker(START + 2 * DAY);
+        assertEquals(0, empty.getTradeCount());
+        assertEquals(0, empty.getBaseVolume());
+        assertEquals(100, empty.getLastPrice());
+        assertEquals(100, empty.getHighPrice());
+    }
+
+    @Test
+    void quote_volumes_beyond_a_long_keep_the_vwap_exact() {
+        TickerWindow window = new TickerWindow(BTC_ZAR);
+        long price = 1L << 40;
+        long quantity = (1L << 22) - 1;
+        long quoteVolume = price * quantity;
+
+        for (int i = 0; i < 4; i++) {
+            window.addTrade(START, price, quantity, quoteVolume);
+        }
+        window.addTrade(START + HOUR, price, quantity, quoteVolume);
+
+        Ticker ticker = window.ticker(START + HOUR);
+        assertEquals(BigInteger.valueOf(quoteVolume).multiply(BigInteger.valueOf(5)), ticker.getQuoteVolume());
+        assertEquals(5 * quantity, ticker.getBaseVolume());
+        assertEquals(price, ticker.getVwap());
+
+        Ticker expired = window.ticker(START + DAY + MINUTE);
+        assertEquals(BigInteger.valueOf(quoteVolume), expired.getQuoteVolume());
+        assertEquals(price, expired.getVwap());
+        assertEquals(BigInteger.ZERO, window.ticker(START + 2 * DAY).getQuoteVolume());
+    }
+
+    @Test
+    void late_trade_is_counted_in_latest_bucket() {
+        TickerWindow window = new TickerWindow(BTC_ZAR);
+
+        window.addTrade(START + 10 * MINUTE, 100, 1, 100);
+        window.addTrade(START, 300, 1, 300);
+
+        Ticker ticker = window.ticker(START + 10 * MINUTE);
+        assertEquals(100, ticker.getLastPrice());
+        assertEquals(300, ticker.getHighPrice());
+        assertEquals(2, ticker.getTradeCount());
+        assertEquals(2, window.ticker(START + DAY + 5 * MINUTE).getTradeCount());
+    }
+
+    @Test
+    void high_and_low_match_brute_force_over_random_trades() {
+        TickerWindow window = new TickerWindow(BTC_ZAR);
+        Random random = new Random(7);
+        int trades = 20_000;
+        long[] times = new long[trades];
+        long[] prices = new long[trades];
+        long time = START;
+
+        for (int i = 0; i < trades; i++) {
+            time += random.nextInt(10) * MINUTE / 2;
+            times[i] = time;
+            prices[i] = 1_000 + random.nextInt(500);
+            window.addTrade(time, prices[i], 1, prices[i]);
+            if (i % 97 == 0) {
+                long oldestBucket = Math.floorDiv(time, MINUTE) - TickerWindow.BUCKET_COUNT + 1;
+                long high = Long.MIN_VALUE;
+                long low = Long.MAX_VALUE;
+                int count = 0;
+                for (int j = 0; j <= i; j++) {
+                    if (Math.floorDiv(times[j], MINUTE) >= oldestBucket) {
+                        high = Math.max(high, prices[j]);
+                        low = Math.min(low, prices[j]);
+                        count++;
+                    }
+                }
+                Ticker ticker = window.ticker(time);
+                assertEquals(high, ticker.getHighPrice());
+                assertEquals(low, ticker.getLowPrice());
+                assertEquals(count, ticker.getTradeCount());
+            }
+        }
+    }
+}
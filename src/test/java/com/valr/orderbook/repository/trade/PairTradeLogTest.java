@@ -0,0 +1,242 @@
+package com.valr.orderbook.repository.trade;
+
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.TradeStatistics;
+import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.util.EpochClock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PairTradeLogTest {
+    private static final int SEGMENT_SIZE = 10 * TradeRecord.SIZE;
+
+    @TempDir
+    Path journalDirectory;
+
+    private PairTradeLog createLog(boolean journaled) {
+        return journaled
+                ? PairTradeLog.journaled(BTC_ZAR, journalDirectory, SEGMENT_SIZE)
+                : PairTradeLog.inMemory(BTC_ZAR);
+    }
+
+    private static Trade trade(int i) {
+        return Trade.builder()
+                .price(1_000_000L + i)
+                .quantity(100L + i)
+                .quoteVolume(7L * i)
+                .currencyPair(BTC_ZAR)
+                .tradedAt(EpochClock.fromIsoString("2024-12-01T10:00:00.123456Z"))
+                .takerSide(i % 2 == 0 ? Side.BUY : Side.SELL)
+                .build();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void appended_trades_keep_their_fields_and_sequence_ids(boolean journaled) {
+        PairTradeLog log = createLog(journaled);
+        AtomicLong ids = new AtomicLong(5);
+
+        for (int i = 0; i < 25; i++) {
+            assertEquals(5 + i, log.append(trade(i), ids));
+        }
+
+        assertEquals(25, log.size());
+        assertEquals(29, log.lastId());
+        List<Trade> page = log.page(11, 3);
+        assertEquals(3, page.size());
+        Trade expected = trade(11);
+        expected.setId(16);
+        expected.setSequence(12);
+        assertEquals(expected, page.get(0));
+        assertEquals(List.of(17L, 18L), page.subList(1, 3).stream().map(Trade::getId).toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void ids_beyond_the_int_range_keep_their_order(boolean journaled) {
+        PairTradeLog log = createLog(journaled);
+        AtomicLong ids = new AtomicLong(Integer.MAX_VALUE - 1L);
+        for (int i = 0; i < 4; i++) {
+            log.append(trade(i), ids);
+        }
+
+        assertEquals(Integer.MAX_VALUE + 2L, log.lastId());
+        assertEquals(2, log.positionAfter(Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE + 1L, log.find(Integer.MAX_VALUE + 1L).getId());
+        assertEquals(Integer.MAX_VALUE + 2L, log.page(3, 1).get(0).getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void cursor_and_lookup_use_the_stored_ids(boolean journaled) {
+        PairTradeLog log = createLog(journaled);
+        AtomicLong ids = new AtomicLong();
+        for (int i = 0; i < 25; i++) {
+            log.append(trade(i), ids);
+            ids.incrementAndGet();
+        }
+
+        assertEquals(0, log.positionAfter(-1));
+        assertEquals(4, log.positionAfter(6));
+        assertEquals(4, log.positionAfter(7));
+        assertEquals(25, log.positionAfter(48));
+        assertEquals(20, log.find(20).getId());
+        assertNull(log.find(21));
+        assertTrue(log.page(25, 10).isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void statistics_aggregate_trades_within_time_range(boolean journaled) {
+        PairTradeLog log = createLog(journaled);
+        AtomicLong ids = new AtomicLong();
+        long[][] trades = {{1_000_000, 50_000_000}, {1_200_000, 150_000_000}, {900_000, 100_000_000}};
+        for (int i = 0; i < trades.length; i++) {
+            log.append(Trade.builder()
+                    .price(trades[i][0])
+                    .quantity(trades[i][1])
+                    .quoteVolume(trades[i][0] * trades[i][1])
+                    .currencyPair(BTC_ZAR)
+                    .tradedAt(EpochClock.fromIsoString("2024-12-01T10:0" + i + ":00Z"))
+                    .takerSide(Side.BUY)
+                    .build(), ids);
+        }
+        long from = EpochClock.fromIsoString("2024-12-01T10:00:00Z");
+        long to = EpochClock.fromIsoString("2024-12-01T10:02:00Z");
+
+        TradeStatistics all = log.statistics(Long.MIN_VALUE, Long.MAX_VALUE);
+        TradeStatistics range = log.statistics(from, to);
+        TradeStatistics empty = log.statistics(to + 1, Long.MAX_VALUE);
+
+        assertEquals(3, all.getTradeCount());
+        assertEquals(new BigDecimal("3.00000000"), all.getBaseVolume());
+        assertEquals(0, new BigDecimal("3200000").compareTo(all.getQuoteVolume()));
+        assertEquals(new BigDecimal("1066667"), all.getVwap());
+        assertEquals(2, range.getTradeCount());
+        assertEquals(0, new BigDecimal("2300000").compareTo(range.getQuoteVolume()));
+        assertEquals(new BigDecimal("1150000"), range.getVwap());
+        assertEquals(0, empty.getTradeCount());
+        assertNull(empty.getVwap());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void statistics_quote_volume_does_not_overflow(boolean journaled) {
+        PairTradeLog log = createLog(journaled);
+        AtomicLong ids = new AtomicLong();
+        for (int i = 0; i < 3; i++) {
+            Trade trade = trade(i);
+            trade.setQuoteVolume(Long.MAX_VALUE);
+            log.append(trade, ids);
+        }
+
+        BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(3)).movePointLeft(8);
+        assertEquals(expected, log.statistics(Long.MIN_VALUE, Long.MAX_VALUE).getQuoteVolume());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void time_index_locates_ranges_and_keeps_times_in_id_order(boolean journaled) {
+        PairTradeLog log = createLog(journaled);
+        AtomicLong ids = new AtomicLong();
+        long[] times = {10, 20, 20, 15, 30, 40};
+        for (long time : times) {
+            Trade trade = trade(0);
+            trade.setTradedAt(time);
+            log.append(trade, ids);
+        }
+
+        assertEquals(List.of(10L, 20L, 20L, 20L, 30L, 40L),
+                log.page(0, 10).stream().map(Trade::getTradedAt).toList());
+        assertEquals(1, log.positionAtOrAfter(11));
+        assertEquals(1, log.positionAtOrAfter(20));
+        assertEquals(6, log.positionAtOrAfter(41));
+        assertEquals(List.of(1L, 2L, 3L), log.page(log.positionAtOrAfter(20), 10, 30).stream().map(Trade::getId).toList());
+        assertEquals(4, log.statistics(20, 40).getTradeCount());
+    }
+
+    @Test
+    void journal_is_rolled_into_segments_and_recovered_on_reopen() throws Exception {
+        PairTradeLog log = createLog(true);
+        AtomicLong ids = new AtomicLong();
+        for (int i = 0; i < 23; i++) {
+            log.append(trade(i), ids);
+        }
+        log.close();
+
+        try (var segments = Files.list(journalDirectory.resolve(BTC_ZAR))) {
+            assertEquals(3, segments.count());
+        }
+        PairTradeLog reopened = PairTradeLog.journaled(BTC_ZAR, journalDirectory, 4 * SEGMENT_SIZE);
+
+        assertEquals(23, reopened.size());
+        assertEquals(22, reopened.lastId());
+        assertEquals(log.page(0, 23), reopened.page(0, 23));
+        assertEquals(23, reopened.append(trade(23), ids));
+        assertEquals(24, reopened.size());
+    }
+
+    @Test
+    void journal_rejects_segments_smaller_than_a_record() {
+        assertThrows(IllegalArgumentException.class, () -> PairTradeLog.journaled(BTC_ZAR, journalDirectory, 1));
+    }
+
+    @Test
+    void tiered_log_spills_old_chunks_and_reads_across_tiers() throws Exception {
+        TieredTradeLog tiered = TieredTradeLog.open(BTC_ZAR, journalDirectory, HeapTradeLog.CHUNK_SIZE, 2);
+        PairTradeLog heap = createLog(false);
+        AtomicLong tieredIds = new AtomicLong();
+        AtomicLong heapIds = new AtomicLong();
+        int count = 5 * HeapTradeLog.CHUNK_SIZE - 100;
+        for (int i = 0; i < count; i++) {
+            Trade trade = trade(i);
+            trade.setTradedAt(i * 1_000L);
+            heap.append(trade, heapIds);
+            trade = trade(i);
+            trade.setTradedAt(i * 1_000L);
+            tiered.append(trade, tieredIds);
+        }
+
+        assertEquals(3, tiered.coldChunks());
+        try (var files = Files.list(journalDirectory)) {
+            assertEquals(3, files.count());
+        }
+        assertEquals(count, tiered.size());
+        assertEquals(heap.page(0, count), tiered.page(0, count));
+        int boundary = 3 * HeapTradeLog.CHUNK_SIZE;
+        assertEquals(heap.page(boundary - 5, 10), tiered.page(boundary - 5, 10));
+        assertEquals(17, tiered.find(17).getId());
+        assertEquals(1500, tiered.positionAfter(1499));
+        assertEquals(2000, tiered.positionAtOrAfter(2_000_000L));
+        assertEquals(heap.statistics(500_000L, 4_000_000L), tiered.statistics(500_000L, 4_000_000L));
+    }
+
+    @Test
+    void tiered_log_discards_cold_files_on_reopen() throws Exception {
+        TieredTradeLog tiered = TieredTradeLog.open(BTC_ZAR, journalDirectory, 1, 1);
+        AtomicLong ids = new AtomicLong();
+        for (int i = 0; i < 3 * HeapTradeLog.CHUNK_SIZE; i++) {
+            tiered.append(trade(i), ids);
+        }
+        assertEquals(1, tiered.coldChunks());
+
+        TieredTradeLog reopened = TieredTradeLog.open(BTC_ZAR, journalDirectory, 1, 1);
+
+        assertEquals(0, reopened.size());
+        try (var files = Files.list(journalDirectory)) {
+            assertEquals(0, files.count());
+        }
+        assertThrows(IllegalArgumentException.class, () -> TieredTradeLog.open(BTC_ZAR, journalDirectory, 0, 1));
+    }
+}
@@ -1,12 +1,17 @@
 package com.valr.orderbook.rest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.valr.orderbook.exception.UnsupportedCurrencyPairException;
 import com.valr.orderbook.model.*;
+import com.valr.orderbook.model.enumeration.CandleInterval;
 import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.model.enumeration.TradeExportFormat;
 import com.valr.orderbook.security.JwtUtil;
 import com.valr.orderbook.service.OrderBookService;
 import com.valr.orderbook.service.TradeHistoryService;
 import com.valr.orderbook.service.UserService;
+import com.valr.orderbook.stream.MarketDataPublisher;
+import com.valr.orderbook.util.EpochClock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -18,15 +23,26 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
-
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.valr.orderbook.util.TestHelper.*;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -34,6 +50,7 @@ public class WebControllerTest {
 
     public static final String SKIP = "skip";
     public static final String LIMIT = "limit";
+    private static final Duration COMMAND_TIMEOUT = Duration.ofMillis(200);
 
     @Mock
     private JwtUtil jwtUtil;
@@ -42,6 +59,8 @@ public class WebControllerTest {
     @Mock
     private TradeHistoryService tradeHistoryService;
     @Mock
+    private MarketDataPublisher marketDataPublisher;
+    @Mock
     private UserService userService;
     @InjectMocks
     private WebController webController;
@@ -54,7 +73,8 @@ public class WebControllerTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        webController = new WebController(orderBookService, tradeHistoryService, userService, jwtUtil);
+        webController = new WebController(orderBookService, tradeHistoryService, marketDataPublisher, userService,
+                jwtUtil, COMMAND_TIMEOUT);
         mockMvc = MockMvcBuilders.standaloneSetup(webController).build();
     }
 
@@ -115,14 +135,132 @@ public class WebControllerTest {
     @Test
     public void get_orderbook_with_valid_currency_pair_returns_orderbook() throws Exception {
         OrderBook orderBook = createOrderBook();
-        when(orderBookService.getOrderBookBy(anyString())).thenReturn(orderBook);
+        when(orderBookService.getSerializedOrderBookBy(anyString()))
+                .thenReturn(new SerializedOrderBook(7, objectMapper.writeValueAsBytes(orderBook)));
         MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/orderbook")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andReturn();
         String actualResponse = mvcResult.getResponse().getContentAsString();
         assertThat(actualResponse).isEqualToIgnoringWhitespace(objectMapper.writeValueAsString(orderBook));
-        verify(orderBookService).getOrderBookBy(BTC_ZAR);
+        assertThat(mvcResult.getResponse().getHeader("ETag")).isEqualTo("\"7\"");
+        verify(orderBookService).getSerializedOrderBookBy(BTC_ZAR);
+    }
+
+    @Test
+    public void get_orderbook_with_matching_etag_returns_not_modified() throws Exception {
+        when(orderBookService.getSerializedOrderBookBy(anyString()))
+                .thenReturn(new SerializedOrderBook(7, objectMapper.writeValueAsBytes(createOrderBook())));
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/orderbook")
+                        .header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).isEmpty();
+        mockMvc.perform(get("/api/BTCZAR/orderbook")
+                        .header("If-None-Match", "\"6\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void get_orderbook_aggregated_returns_price_levels() throws Exception {
+        AggregatedOrderBook orderBook = AggregatedOrderBook.builder()
+                .currencyPair(BTC_ZAR)
+                .asks(List.of(OrderBookLevel.builder().price(100_000_000L).quantity(150_000_000L).orderCount(2)
+                        .currencyPair(BTC_ZAR).build()))
+                .bids(List.of())
+                .version(9)
+                .build();
+        when(orderBookService.getAggregatedOrderBookBy(anyString(), anyInt())).thenReturn(orderBook);
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/orderbook")
+                        .param("aggregate", "true")
+                        .param("depth", "10"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString())
+                .contains("\"price\":100000000", "\"quantity\":1.5", "\"orderCount\":2");
+        assertThat(mvcResult.getResponse().getHeader("ETag")).isEqualTo("\"9\"");
+        verify(orderBookService).getAggregatedOrderBookBy(BTC_ZAR, 10);
+        verify(orderBookService, never()).getSerializedOrderBookBy(anyString());
+    }
+
+    @Test
+    public void get_orderbook_with_invalid_depth_returns_error() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/orderbook")
+                        .param("depth", "0"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        String actualResponse = mvcResult.getResponse().getContentAsString();
+        assertThat(actualResponse).isEqualToIgnoringWhitespace("{\"code\":-31,\"message\":\"Invalid depth value. " +
+                "Depth must be greater than 0.\"}");
+    }
+
+    @Test
+    public void stream_market_data_subscribes_to_currency_pair() throws Exception {
+        when(marketDataPublisher.subscribe(anyString(), any())).thenReturn(new SseEmitter());
+        mockMvc.perform(get("/api/btczar/stream"))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk());
+
+        verify(marketDataPublisher).subscribe(eq(BTC_ZAR), any());
+    }
+
+    @Test
+    public void stream_market_data_with_invalid_currency_pair_returns_error_event() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTC@AR/stream"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("event:error", "\"code\":-21");
+        verifyNoInteractions(marketDataPublisher);
+    }
+
+    @Test
+    public void get_stream_subscribers_returns_lag_statistics() throws Exception {
+        when(marketDataPublisher.getSubscriberStatistics(BTC_ZAR)).thenReturn(List.of(SubscriberStatistics.builder()
+                .id(3).currencyPair(BTC_ZAR).versionLag(4).conflatedUpdates(2).build()));
+        MvcResult mvcResult = mockMvc.perform(get("/api/btczar/stream/subscribers"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString())
+                .contains("\"id\":3", "\"versionLag\":4", "\"conflatedUpdates\":2");
+    }
+
+    @Test
+    public void get_best_bid_offer_returns_top_of_book() throws Exception {
+        when(orderBookService.getBestBidOfferBy(anyString())).thenReturn(BestBidOffer.builder()
+                .currencyPair(BTC_ZAR)
+                .bid(OrderBookLevel.builder().price(1_000_000L).quantity(50_000_000L).orderCount(3)
+                        .currencyPair(BTC_ZAR).build())
+                .build());
+        MvcResult mvcResult = mockMvc.perform(get("/api/btczar/bbo"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("\"currencyPair\":\"BTCZAR\"",
+                "\"bid\":{\"price\":1000000,\"quantity\":0.5,\"orderCount\":3}", "\"ask\":null");
+        verify(orderBookService).getBestBidOfferBy("btczar");
+    }
+
+    @Test
+    public void get_best_bid_offer_with_invalid_currency_pair_returns_error() throws Exception {
+        mockMvc.perform(get("/api/BTC@AR/bbo"))
+                .andExpect(status().isBadRequest());
+        verify(orderBookService, never()).getBestBidOfferBy(anyString());
+    }
+
+    @Test
+    public void get_best_bid_offers_returns_all_pairs() throws Exception {
+        when(orderBookService.getBestBidOffers()).thenReturn(List.of(
+                BestBidOffer.builder().currencyPair(BTC_USD).build(),
+                BestBidOffer.builder().currencyPair(BTC_ZAR).build()));
+        MvcResult mvcResult = mockMvc.perform(get("/api/bbo"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("BTCUSD", "BTCZAR");
     }
 
     @Test
@@ -149,9 +287,10 @@ public class WebControllerTest {
 
     @Test
     public void create_limit_order_with_valid_data_returns_success() throws Exception {
-        LimitOrderDTO limitOrder = new LimitOrderDTO(Side.SELL, 0.5, 100, BTC_ZAR);
-        Order executedOrder = createOrder(Side.SELL, 0.5, 100, BTC_ZAR);
-        when(orderBookService.createLimitOrder(any())).thenReturn(executedOrder);
+        LimitOrderDTO limitOrder = new LimitOrderDTO(Side.SELL, 50_000_000L, 100, BTC_ZAR);
+        List<Trade> trades = List.of(createTrade(Side.SELL, 50_000_000L, 100, BTC_ZAR));
+        when(orderBookService.createLimitOrder(any()))
+                .thenReturn(CompletableFuture.completedFuture(new LimitOrderResult(1, trades)));
 
         MvcResult mvcResult = mockMvc.perform(post("/api/order/limit")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -159,15 +298,16 @@ public class WebControllerTest {
                 .andExpect(status().isOk())
                 .andReturn();
         String actualResponse = mvcResult.getResponse().getContentAsString();
-        assertThat(actualResponse).isEqualToIgnoringWhitespace("Limit order created successfully.");
+        assertThat(actualResponse).contains("\"id\":1", "\"message\":\"Limit order created successfully.\"");
         verify(orderBookService).createLimitOrder(any(LimitOrderDTO.class));
-        verify(tradeHistoryService).addTradeOrder(executedOrder);
+        verify(tradeHistoryService, never()).addTrades(anyList());
     }
 
     @Test
     public void create_limit_order_with_valid_data_but_no_executed_order_returns_success() throws Exception {
-        LimitOrderDTO limitOrder = new LimitOrderDTO(Side.SELL, 0.5, 100, BTC_ZAR);
-        when(orderBookService.createLimitOrder(any())).thenReturn(null);
+        LimitOrderDTO limitOrder = new LimitOrderDTO(Side.SELL, 50_000_000L, 100, BTC_ZAR);
+        when(orderBookService.createLimitOrder(any()))
+                .thenReturn(CompletableFuture.completedFuture(new LimitOrderResult(1, List.of())));
 
         MvcResult mvcResult = mockMvc.perform(post("/api/order/limit")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -176,9 +316,150 @@ public class WebControllerTest {
                 .andReturn();
 
         String actualResponse = mvcResult.getResponse().getContentAsString();
-        assertThat(actualResponse).isEqualToIgnoringWhitespace("Limit order created successfully.");
+        assertThat(actualResponse).contains("\"id\":1", "\"message\":\"Limit order created successfully.\"");
         verify(orderBookService).createLimitOrder(any(LimitOrderDTO.class));
-        verify(tradeHistoryService, never()).addTradeOrder(any(Order.class));
+        verify(tradeHistoryService, never()).addTrades(anyList());
+    }
+
+    @Test
+    public void create_limit_order_scales_decimal_amounts_by_currency_pair_precision() throws Exception {
+        when(orderBookService.createLimitOrder(any()))
+                .thenReturn(CompletableFuture.completedFuture(new LimitOrderResult(1, List.of())));
+
+        mockMvc.perform(post("/api/order/limit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"side\":\"BUY\",\"quantity\":0.12345678,\"price\":1205649.5," +
+                                "\"currencyPair\":\"BTCUSD\"}"))
+                .andExpect(status().isOk());
+
+        verify(orderBookService).createLimitOrder(new LimitOrderDTO(Side.BUY, 12_345_678L, 120_564_950L, BTC_USD));
+    }
+
+    @Test
+    public void create_limit_order_with_excess_precision_returns_bad_request() throws Exception {
+        mockMvc.perform(post("/api/order/limit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"side\":\"BUY\",\"quantity\":0.123456789,\"price\":100," +
+                                "\"currencyPair\":\"BTCZAR\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderBookService, never()).createLimitOrder(any(LimitOrderDTO.class));
+    }
+
+    @Test
+    public void create_limit_order_with_quote_volume_out_of_range_returns_bad_request() throws Exception {
+        mockMvc.perform(post("/api/order/limit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"side\":\"SELL\",\"quantity\":20000,\"price\":50000.00," +
+                                "\"currencyPair\":\"BTCEUR\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderBookService, never()).createLimitOrder(any(LimitOrderDTO.class));
+    }
+
+    @Test
+    public void cancel_order_returns_success() throws Exception {
+        when(orderBookService.cancelOrder(BTC_ZAR, 1L)).thenReturn(CompletableFuture.completedFuture(true));
+
+        MvcResult mvcResult = mockMvc.perform(delete("/api/order/BTCZAR/1"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String actualResponse = mvcResult.getResponse().getContentAsString();
+        assertThat(actualResponse).isEqualToIgnoringWhitespace("Order cancelled successfully.");
+        verify(orderBookService).cancelOrder(BTC_ZAR, 1L);
+    }
+
+    @Test
+    public void cancel_unknown_order_returns_not_found() throws Exception {
+        when(orderBookService.cancelOrder(BTC_ZAR, 1L)).thenReturn(CompletableFuture.completedFuture(false));
+
+        MvcResult mvcResult = mockMvc.perform(delete("/api/order/BTCZAR/1"))
+                .andExpect(status().isNotFound())
+                .andReturn();
+
+        String actualResponse = mvcResult.getResponse().getContentAsString();
+        assertThat(actualResponse).isEqualToIgnoringWhitespace("{\"code\":-25,\"message\":\"Order not found.\"}");
+    }
+
+    @Test
+    public void cancel_order_not_executed_in_time_returns_service_unavailable() throws Exception {
+        when(orderBookService.cancelOrder(BTC_ZAR, 1L)).thenReturn(new CompletableFuture<>());
+
+        MvcResult mvcResult = mockMvc.perform(delete("/api/order/BTCZAR/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("\"code\":-33");
+    }
+
+    @Test
+    public void create_limit_order_failing_on_the_matching_thread_returns_service_unavailable() throws Exception {
+        when(orderBookService.createLimitOrder(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("stopped")));
+
+        mockMvc.perform(post("/api/order/limit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LimitOrderDTO(Side.SELL, 50_000_000L, 100,
+                                BTC_ZAR))))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void create_limit_order_for_unsupported_pair_returns_bad_request() throws Exception {
+        when(orderBookService.createLimitOrder(any()))
+                .thenReturn(CompletableFuture.failedFuture(new UnsupportedCurrencyPairException(LTC_USD)));
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/order/limit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LimitOrderDTO(Side.SELL, 50_000_000L, 100,
+                                LTC_USD))))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("\"code\":-32");
+    }
+
+    @Test
+    public void create_limit_order_rejected_by_the_book_returns_invalid_order() throws Exception {
+        when(orderBookService.createLimitOrder(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException(
+                        "Quote volume of order 1 exceeds the supported range")));
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/order/limit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LimitOrderDTO(Side.SELL, 50_000_000L, 100,
+                                BTC_ZAR))))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("\"code\":-23", "Quote volume");
+    }
+
+    @Test
+    public void cancel_order_with_invalid_currency_pair_returns_bad_request() throws Exception {
+        mockMvc.perform(delete("/api/order/BTC/1"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderBookService, never()).cancelOrder(anyString(), anyLong());
+    }
+
+    @Test
+    public void get_orderbook_writes_scaled_amounts_as_decimals() throws Exception {
+        OrderBook orderBook = OrderBook.builder()
+                .asks(List.of(new Order(Side.SELL, 2_352_094L, 1_205_649L, BTC_ZAR)))
+                .bids(List.of())
+                .build();
+        when(orderBookService.getSerializedOrderBookBy(anyString()))
+                .thenReturn(new SerializedOrderBook(1, objectMapper.writeValueAsBytes(orderBook)));
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/orderbook")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String actualResponse = mvcResult.getResponse().getContentAsString();
+        assertThat(actualResponse).contains("\"quantity\":0.02352094", "\"price\":1205649");
     }
 
     @Test
@@ -196,7 +477,7 @@ public class WebControllerTest {
                 " Please provide a 6 character currency pair - valid example: BTCZAR | btczar.\\nQuantity and price " +
                 "must be greater than 0.\\nSide must be either 'BUY' or 'SELL'.\"}");
         verify(orderBookService, never()).createLimitOrder(any(LimitOrderDTO.class));
-        verify(tradeHistoryService, never()).addTradeOrder(any(Order.class));
+        verify(tradeHistoryService, never()).addTrades(anyList());
     }
 
     @Test
@@ -227,6 +508,96 @@ public class WebControllerTest {
         verify(tradeHistoryService).getTradeHistoryBy(eq(BTC_ZAR), eq(0), eq(10));
     }
 
+    @Test
+    public void get_tradehistory_with_after_id_reads_from_cursor() throws Exception {
+        TradeHistory tradeHistory = TradeHistory.builder().build();
+        when(tradeHistoryService.getTradeHistoryBy(anyString(), anyLong(), anyLong(), anyLong(), anyLong(), anyInt(),
+                anyInt()))
+                .thenReturn(tradeHistory);
+        mockMvc.perform(get("/api/BTCZAR/trades")
+                        .param("afterId", "42")
+                        .param(LIMIT, "20")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(tradeHistoryService).getTradeHistoryBy(eq(BTC_ZAR), eq(0L), eq(42L), eq(Long.MIN_VALUE),
+                eq(Long.MAX_VALUE), eq(0), eq(20));
+        verify(tradeHistoryService, never()).getTradeHistoryBy(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void get_tradehistory_with_since_reads_after_sequence_number() throws Exception {
+        when(tradeHistoryService.getTradeHistoryBy(anyString(), anyLong(), anyLong(), anyLong(), anyLong(), anyInt(),
+                anyInt())).thenReturn(TradeHistory.builder().build());
+        mockMvc.perform(get("/api/BTCZAR/trades")
+                        .param("since", "1500")
+                        .param(LIMIT, "100")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(tradeHistoryService).getTradeHistoryBy(eq(BTC_ZAR), eq(1500L), eq(-1L), eq(Long.MIN_VALUE),
+                eq(Long.MAX_VALUE), eq(0), eq(100));
+    }
+
+    @Test
+    public void get_tradehistory_with_negative_since_returns_error() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/trades")
+                        .param("since", "-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("-30");
+    }
+
+    @Test
+    public void get_tradehistory_with_time_range_reads_from_time_index() throws Exception {
+        when(tradeHistoryService.getTradeHistoryBy(anyString(), anyLong(), anyLong(), anyLong(), anyLong(), anyInt(),
+                anyInt()))
+                .thenReturn(TradeHistory.builder().build());
+        mockMvc.perform(get("/api/BTCZAR/trades")
+                        .param("from", "2024-12-01T10:00:00Z")
+                        .param("to", "2024-12-01T11:00:00.5Z")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(tradeHistoryService).getTradeHistoryBy(eq(BTC_ZAR), eq(0L), eq(-1L),
+                eq(EpochClock.fromIsoString("2024-12-01T10:00:00Z")),
+                eq(EpochClock.fromIsoString("2024-12-01T11:00:00.5Z")), eq(0), eq(10));
+    }
+
+    @Test
+    public void get_tradehistory_with_invalid_time_returns_error() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/trades")
+                        .param("from", "yesterday")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        String actualResponse = mvcResult.getResponse().getContentAsString();
+        assertThat(actualResponse).isEqualToIgnoringWhitespace("{\"code\":-28,\"message\":\"Invalid from or to value. " +
+                "Please provide an ISO-8601 timestamp between 1678 and 2262 - valid example: 2024-12-01T10:00:00Z.\"}");
+    }
+
+    @Test
+    public void get_tradehistory_with_time_outside_nanosecond_range_returns_error() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/trades")
+                        .param("to", "2300-01-01T00:00:00Z")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("-28");
+        verify(tradeHistoryService, never()).getTradeHistoryBy(anyString(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyInt(), anyInt());
+    }
+
+    @Test
+    public void get_tradehistory_with_negative_after_id_returns_error() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/trades")
+                        .param("afterId", "-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        String actualResponse = mvcResult.getResponse().getContentAsString();
+        assertThat(actualResponse).isEqualToIgnoringWhitespace("{\"code\":-26,\"message\":\"Invalid afterId value. " +
+                "Please provide the id of a previously returned trade.\"}");
+    }
+
     @Test
     public void get_tradehistory_with_invalid_currency_pair_returns_error() throws Exception {
         MvcResult mvcResult = mockMvc.perform(get("/api/BTC@AR/trades")
@@ -278,4 +649,129 @@ public class WebControllerTest {
         assertThat(actualResponse).isEqualToIgnoringWhitespace("{\"code\":-22,\"message\":\"Invalid skip or limit value. " +
                 "Please provide a positive integer value for skip and limit (max limit is 100).\"}");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void get_candles_with_valid_parameters_returns_candles() throws Exception {
+        List<Candle> candles = List.of(Candle.builder().currencyPair(BTC_ZAR).interval("5m")
+                .openTime("2024-12-01T10:00:00Z").open(100).high(120).low(90).close(110).volume(100_000_000L)
+                .quoteVolume(BigInteger.valueOf(110L * 100_000_000L)).tradeCount(3).build());
+        when(tradeHistoryService.getCandles(BTC_ZAR, CandleInterval.FIVE_MINUTES, 50)).thenReturn(candles);
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/candles")
+                        .param("interval", "5m")
+                        .param(LIMIT, "50")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        String actualResponse = mvcResult.getResponse().getContentAsString();
+        assertThat(actualResponse).isEqualToIgnoringWhitespace("[{\"currencyPair\":\"BTCZAR\",\"interval\":\"5m\"," +
+                "\"openTime\":\"2024-12-01T10:00:00Z\",\"open\":100,\"high\":120,\"low\":90,\"close\":110," +
+                "\"volume\":1,\"quoteVolume\":110,\"tradeCount\":3}]");
+    }
+
+    @Test
+    public void get_candles_without_parameters_uses_one_minute_interval() throws Exception {
+        when(tradeHistoryService.getCandles(anyString(), any(CandleInterval.class), anyInt())).thenReturn(List.of());
+        mockMvc.perform(get("/api/BTCZAR/candles")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(tradeHistoryService).getCandles(BTC_ZAR, CandleInterval.ONE_MINUTE, 100);
+    }
+
+    @Test
+    public void get_candles_with_unsupported_interval_returns_error() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/BTCZAR/candles")
+                        .param("interval", "2m")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        String actualResponse = mvcResult.getResponse().getContentAsString();
+        assertThat(actualResponse).isEqualToIgnoringWhitespace("{\"code\":-27,\"message\":\"Invalid interval or " +
+                "limit value. Supported intervals are 1m, 5m, 1h and 1d, limit must be between 1 and 1000.\"}");
+        verify(tradeHistoryService, never()).getCandles(anyString(), any(CandleInterval.class), anyInt());
+    }
+
+    @Test
+    public void get_ticker_returns_ticker_of_the_pair() throws Exception {
+        Ticker ticker = Ticker.builder().currencyPair(BTC_ZAR).lastPrice(120).openPrice(100).highPrice(150)
+                .lowPrice(80).baseVolume(800_000_000L).quoteVolume(BigInteger.valueOf(910L * 100_000_000L)).vwap(114)
+                .changePercent(new BigDecimal("20.00")).tradeCount(4).build();
+        when(tradeHistoryService.getTicker("btczar")).thenReturn(ticker);
+        MvcResult mvcResult = mockMvc.perform(get("/api/btczar/ticker")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        String actualResponse = mvcResult.getResponse().getContentAsString();
+        assertThat(actualResponse).isEqualToIgnoringWhitespace("{\"currencyPair\":\"BTCZAR\",\"lastPrice\":120," +
+                "\"openPrice\":100,\"highPrice\":150,\"lowPrice\":80,\"baseVolume\":8,\"quoteVolume\":910," +
+                "\"vwap\":114,\"changePercent\":20.00,\"tradeCount\":4}");
+    }
+
+    @Test
+    public void get_ticker_with_invalid_currency_pair_returns_error() throws Exception {
+        mockMvc.perform(get("/api/BTC@AR/ticker")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(tradeHistoryService, never()).getTicker(anyString());
+    }
+
+    @Test
+    public void get_tickers_returns_tickers_of_all_pairs() throws Exception {
+        when(tradeHistoryService.getTickers()).thenReturn(List.of(
+                Ticker.builder().currencyPair(BTC_USD).changePercent(BigDecimal.ZERO).build(),
+                Ticker.builder().currencyPair(BTC_ZAR).changePercent(BigDecimal.ZERO).build()));
+        MvcResult mvcResult = mockMvc.perform(get("/api/tickers")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        String actualResponse = mvcResult.getResponse().getContentAsString();
+        assertThat(actualResponse).contains("\"currencyPair\":\"BTCUSD\"").contains("\"currencyPair\":\"BTCZAR\"");
+    }
+
+    @Test
+    public void export_trades_streams_service_output_as_csv() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(4, OutputStream.class).write("id\n1\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(tradeHistoryService).exportTradeHistory(eq("btczar"), eq(TradeExportFormat.CSV),
+                eq(EpochClock.fromIsoString("2024-12-01T10:00:00Z")), eq(Long.MAX_VALUE), any());
+        MvcResult asyncResult = mockMvc.perform(get("/api/btczar/trades/export")
+                        .param("from", "2024-12-01T10:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult mvcResult = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentType()).isEqualTo("text/csv");
+        assertThat(mvcResult.getResponse().getContentAsString()).isEqualTo("id\n1\n");
+    }
+
+    @Test
+    public void export_trades_with_time_outside_nanosecond_range_returns_error() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/api/BTCZAR/trades/export")
+                        .param("from", "1600-01-01T00:00:00Z"))
+                .andReturn();
+
+        MvcResult mvcResult = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("-28");
+        verify(tradeHistoryService, never()).exportTradeHistory(anyString(), any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void export_trades_with_unsupported_format_returns_error() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/api/BTCZAR/trades/export")
+                        .param("format", "xml"))
+                .andReturn();
+
+        MvcResult mvcResult = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("-29");
+        verify(tradeHistoryService, never()).exportTradeHistory(anyString(), any(), anyLong(), anyLong(), any());
+    }
+}
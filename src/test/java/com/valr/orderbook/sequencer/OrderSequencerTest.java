@@ -0,0 +1,197 @@
+package com.valr.orderbook.sequencer;
+
+import com.valr.orderbook.exception.UnsupportedCurrencyPairException;
+import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.OrderBook;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.repository.OrderBookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.valr.orderbook.util.TestHelper.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderSequencerTest {
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 2_000;
+
+    private OrderBookRepository orderBookRepository;
+    private OrderSequencer orderSequencer;
+
+    @BeforeEach
+    void setUp() {
+        orderBookRepository = new OrderBookRepository();
+        orderSequencer = new OrderSequencer(orderBookRepository, TRADED_CURRENCY_PAIRS, 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderSequencer.shutdown();
+    }
+
+    @Test
+    void submit_order_returns_trades_of_the_order() {
+        orderSequencer.submitOrder(new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR)).join();
+
+        List<Trade> trades = orderSequencer.submitOrder(new Order(Side.BUY, 50_000_000L, 100, BTC_ZAR)).join();
+
+        assertEquals(1, trades.size());
+        assertEquals(50_000_000L, trades.get(0).getQuantity());
+    }
+
+    @Test
+    void submitted_order_is_visible_to_readers_once_completed() {
+        orderSequencer.submitOrder(new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR)).join();
+
+        OrderBook orderBook = orderBookRepository.filterOrderBookBy(BTC_ZAR);
+
+        assertEquals(1, orderBook.getAsks().size());
+        assertNotNull(orderBook.getLastChange());
+    }
+
+    @Test
+    void submit_cancel_removes_resting_order_before_completing() {
+        Order ask = new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR);
+        orderSequencer.submitOrder(ask).join();
+
+        assertTrue(orderSequencer.submitCancel(BTC_ZAR, ask.getId()).join());
+        assertFalse(orderSequencer.submitCancel(BTC_ZAR, ask.getId()).join());
+        assertTrue(orderBookRepository.filterOrderBookBy(BTC_ZAR).getAsks().isEmpty());
+    }
+
+    @Test
+    void commands_for_unsupported_pairs_create_no_book() {
+        CompletableFuture<List<Trade>> order = orderSequencer.submitOrder(new Order(Side.SELL, 50_000_000L, 100, LTC_USD));
+
+        CompletionException failure = assertThrows(CompletionException.class, order::join);
+        assertInstanceOf(UnsupportedCurrencyPairException.class, failure.getCause());
+        assertFalse(orderSequencer.submitCancel(LTC_USD, 1).join());
+        assertEquals(0, orderBookRepository.filterOrderBookBy(LTC_USD).getVersion());
+    }
+
+    @Test
+    void commands_submitted_after_shutdown_fail() {
+        orderSequencer.submitOrder(new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR)).join();
+        orderSequencer.shutdown();
+
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> orderSequencer.submitCancel(BTC_ZAR, 1).join());
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    @Test
+    void commands_racing_with_shutdown_are_all_completed() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<CompletableFuture<List<Trade>>> results = new ArrayList<>();
+        try {
+            List<CompletableFuture<Void>> producers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                producers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        CompletableFuture<List<Trade>> result = orderSequencer.submitOrder(
+                                new Order(Side.SELL, 1_000L, 100 + i, BTC_ZAR));
+                        synchronized (results) {
+                            results.add(result);
+                        }
+                    }
+                }, executor));
+            }
+            Thread.sleep(5);
+            orderSequencer.shutdown();
+
+            CompletableFuture.allOf(producers.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * ORDERS_PER_THREAD, results.size());
+        for (CompletableFuture<List<Trade>> result : results) {
+            try {
+                result.orTimeout(10, TimeUnit.SECONDS).join();
+            } catch (CompletionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+    }
+
+    @Test
+    void failing_snapshot_publication_completes_the_commands_and_is_retried_with_the_next_batch() {
+        AtomicBoolean failed = new AtomicBoolean();
+        OrderBookRepository failingRepository = new OrderBookRepository() {
+            @Override
+            public void publishSnapshot(String currencyPair) {
+                if (failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("publication failed");
+                }
+                super.publishSnapshot(currencyPair);
+            }
+        };
+        OrderSequencer failingSequencer = new OrderSequencer(failingRepository, TRADED_CURRENCY_PAIRS, 64);
+        try {
+            List<Trade> trades = failingSequencer.submitOrder(new Order(Side.SELL, 50_000_000L, 100, BTC_ZAR))
+                    .orTimeout(10, TimeUnit.SECONDS).join();
+
+            assertTrue(trades.isEmpty());
+            assertTrue(failingRepository.filterOrderBookBy(BTC_ZAR).getAsks().isEmpty());
+
+            failingSequencer.submitOrder(new Order(Side.SELL, 50_000_000L, 101, BTC_ZAR))
+                    .orTimeout(10, TimeUnit.SECONDS).join();
+
+            assertEquals(2, failingRepository.filterOrderBookBy(BTC_ZAR).getAsks().size());
+        } finally {
+            failingSequencer.shutdown();
+        }
+    }
+
+    @Test
+    void concurrent_orders_and_snapshots_keep_book_consistent() {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<CompletableFuture<List<Trade>>> results = new ArrayList<>();
+        List<OrderBook> snapshots = new ArrayList<>();
+        try {
+            List<CompletableFuture<Void>> producers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                Side side = thread % 2 == 0 ? Side.BUY : Side.SELL;
+                producers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        synchronized (results) {
+                            results.add(orderSequencer.submitOrder(new Order(side, 1_000L, 100, BTC_ZAR)));
+                        }
+                        if (i % 100 == 0) {
+                            synchronized (snapshots) {
+                                snapshots.add(orderBookRepository.filterOrderBookBy(BTC_ZAR));
+                            }
+                        }
+                    }
+                }, executor));
+            }
+            producers.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+
+        long tradedQuantity = results.stream()
+                .map(CompletableFuture::join)
+                .flatMap(List::stream)
+                .mapToLong(Trade::getQuantity)
+                .sum();
+        snapshots.forEach(snapshot -> assertTrue(snapshot.getBids().isEmpty() || snapshot.getAsks().isEmpty()));
+        OrderBook orderBook = orderBookRepository.filterOrderBookBy(BTC_ZAR);
+        long restingQuantity = orderBook.getBids().stream().mapToLong(Order::getQuantity).sum()
+                + orderBook.getAsks().stream().mapToLong(Order::getQuantity).sum();
+
+        assertEquals((long) THREADS * ORDERS_PER_THREAD * 1_000L, 2 * tradedQuantity + restingQuantity);
+        assertTrue(orderBook.getBids().isEmpty() || orderBook.getAsks().isEmpty());
+    }
+}
@@ -1,19 +1,34 @@
 package com.valr.orderbook.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.valr.orderbook.model.Order;
+import com.valr.orderbook.model.AggregatedOrderBook;
 import com.valr.orderbook.model.OrderBook;
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.SerializedOrderBook;
+import com.valr.orderbook.model.Trade;
 import com.valr.orderbook.model.enumeration.Side;
 import com.valr.orderbook.repository.OrderBookRepository;
+import com.valr.orderbook.repository.book.FillBuffer;
+import com.valr.orderbook.sequencer.OrderSequencer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import com.valr.orderbook.model.LimitOrderDTO;
+import com.valr.orderbook.model.LimitOrderResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static com.valr.orderbook.util.TestHelper.TRADED_CURRENCY_PAIRS;
 import static com.valr.orderbook.util.TestHelper.createOrderBook;
+import static com.valr.orderbook.util.TestHelper.createTrade;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class OrderBookServiceTest {
@@ -21,12 +36,20 @@ class OrderBookServiceTest {
     @Mock
     private OrderBookRepository orderBookRepository;
 
-    @InjectMocks
+    private OrderSequencer orderSequencer;
+
     private OrderBookService orderBookService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        orderSequencer = new OrderSequencer(orderBookRepository, TRADED_CURRENCY_PAIRS, 8);
+        orderBookService = new OrderBookService(orderBookRepository, orderSequencer, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderSequencer.shutdown();
     }
 
     @Test
@@ -39,16 +62,80 @@ class OrderBookServiceTest {
         verify(orderBookRepository, times(1)).filterOrderBookBy(BTC_ZAR);
     }
 
+    @Test
+    void order_book_with_depth_keeps_the_orders_of_the_best_levels() {
+        List<Order> asks = List.of(new Order(1, Side.SELL, 10, 100, BTC_ZAR), new Order(2, Side.SELL, 20, 100, BTC_ZAR),
+                new Order(3, Side.SELL, 30, 101, BTC_ZAR));
+        OrderBook snapshot = OrderBook.builder()
+                .asks(asks)
+                .bids(List.of())
+                .askLevels(List.of(level(100, 30, 2), level(101, 30, 1)))
+                .bidLevels(List.of())
+                .version(3)
+                .build();
+        when(orderBookRepository.filterOrderBookBy(BTC_ZAR)).thenReturn(snapshot);
+
+        OrderBook result = orderBookService.getOrderBookBy("btczar", 1);
+        AggregatedOrderBook aggregated = orderBookService.getAggregatedOrderBookBy(BTC_ZAR, 5);
+
+        assertEquals(asks.subList(0, 2), result.getAsks());
+        assertTrue(result.getBids().isEmpty());
+        assertEquals(3, result.getVersion());
+        assertEquals(snapshot.getAskLevels(), aggregated.getAsks());
+        assertEquals(BTC_ZAR, aggregated.getCurrencyPair());
+    }
+
+    @Test
+    void serialized_order_book_is_shared_until_the_version_changes() {
+        OrderBook first = OrderBook.builder().asks(List.of()).bids(List.of()).version(5).build();
+        OrderBook second = OrderBook.builder().asks(List.of()).bids(List.of()).lastChange("2024-12-01T10:00:00Z")
+                .version(6).build();
+        when(orderBookRepository.filterOrderBookBy(BTC_ZAR)).thenReturn(first, first, second);
+
+        SerializedOrderBook cached = orderBookService.getSerializedOrderBookBy("btczar");
+        SerializedOrderBook unchanged = orderBookService.getSerializedOrderBookBy(BTC_ZAR);
+        SerializedOrderBook changed = orderBookService.getSerializedOrderBookBy(BTC_ZAR);
+
+        assertSame(cached, unchanged);
+        assertEquals(5, cached.getVersion());
+        assertEquals(6, changed.getVersion());
+        assertTrue(new String(changed.getJson(), StandardCharsets.UTF_8).contains("2024-12-01T10:00:00Z"));
+    }
+
     @Test
     void create_limit_order_creates_order_successfully() {
         LimitOrderDTO limitOrderDTO = new LimitOrderDTO(Side.BUY, 10, 100, BTC_ZAR);
-        Order expectedOrder = new Order(limitOrderDTO);
-        when(orderBookRepository.createOrder(any(Order.class))).thenReturn(expectedOrder);
+        List<Trade> expectedTrades = List.of(createTrade(Side.BUY, 10, 100, BTC_ZAR));
+        when(orderBookRepository.nextOrderId()).thenReturn(42L);
+        doAnswer(invocation -> {
+            invocation.<FillBuffer>getArgument(1).onFill(1, Side.BUY, 100, 10, 1_000, 0);
+            return null;
+        }).when(orderBookRepository).createOrder(any(Order.class), any(FillBuffer.class));
+
+        LimitOrderResult result = orderBookService.createLimitOrder(limitOrderDTO).join();
+
+        assertEquals(42L, result.getOrderId());
+        assertEquals(expectedTrades, result.getTrades());
+        verify(orderBookRepository, times(1)).createOrder(argThat(order -> order.getId() == 42L),
+                any(FillBuffer.class));
+    }
+
+    @Test
+    void cancel_order_is_executed_on_the_currency_pair_book() {
+        when(orderBookRepository.cancelOrder(BTC_ZAR, 7L)).thenReturn(true);
 
-        Order result = orderBookService.createLimitOrder(limitOrderDTO);
+        boolean result = orderBookService.cancelOrder("btczar", 7L).join();
 
-        assertEquals(expectedOrder, result);
-        verify(orderBookRepository, times(1)).createOrder(any(Order.class));
+        assertTrue(result);
+        verify(orderBookRepository).cancelOrder(BTC_ZAR, 7L);
+    }
+
+    @Test
+    void create_limit_order_normalizes_currency_pair() {
+        orderBookService.createLimitOrder(new LimitOrderDTO(Side.BUY, 10, 100, "btczar")).join();
+
+        verify(orderBookRepository).createOrder(argThat(order -> BTC_ZAR.equals(order.getCurrencyPair())),
+                any(FillBuffer.class));
     }
 
     @Test
@@ -65,4 +152,9 @@ class OrderBookServiceTest {
         assertEquals(2, orderBook.getAsks().get(1).getPrice());
         assertEquals(3, orderBook.getAsks().get(2).getPrice());
     }
-}
\ No newline at end of file
+
+    private static OrderBookLevel level(long price, long quantity, int orderCount) {
+        return OrderBookLevel.builder().price(price).quantity(quantity).orderCount(orderCount).currencyPair(BTC_ZAR)
+                .build();
+    }
+}
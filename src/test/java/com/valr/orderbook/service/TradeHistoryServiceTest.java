@@ -0,0 +1,83 @@
+package com.valr.orderbook.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+import com.valr.orderbook.model.enumeration.TradeExportFormat;
+import com.valr.orderbook.repository.CandleRepository;
+import com.valr.orderbook.repository.TickerRepository;
+import com.valr.orderbook.repository.TradeHistoryRepository;
+import com.valr.orderbook.util.EpochClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static com.valr.orderbook.util.TestHelper.createTrade;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TradeHistoryServiceTest {
+    private static final long START = EpochClock.fromIsoString("2024-12-01T10:00:00Z");
+    private static final int TRADES = 2 * TradeHistoryService.EXPORT_BATCH_SIZE + 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TradeHistoryService tradeHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        tradeHistoryService = new TradeHistoryService(new TradeHistoryRepository(), new CandleRepository(),
+                new TickerRepository(), objectMapper);
+        List<Trade> trades = new ArrayList<>();
+        for (int i = 0; i < TRADES; i++) {
+            Trade trade = createTrade(i % 2 == 0 ? Side.BUY : Side.SELL, 1_000_000L + i, 1_200_000L, BTC_ZAR);
+            trade.setTradedAt(START + i * 1_000_000_000L);
+            trades.add(trade);
+        }
+        tradeHistoryService.addTrades(trades);
+    }
+
+    private List<String> export(TradeExportFormat format, long fromNanos, long toNanos) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tradeHistoryService.exportTradeHistory("btczar", format, fromNanos, toNanos, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    @Test
+    void csv_export_streams_all_trades_across_batches() throws Exception {
+        List<String> lines = export(TradeExportFormat.CSV, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        assertEquals(TRADES + 1, lines.size());
+        assertEquals("id,sequence,price,quantity,currencyPair,tradedAt,takerSide,quoteVolume", lines.get(0));
+        assertEquals("0,1,1200000,0.01,BTCZAR,2024-12-01T10:00:00Z,BUY,12000", lines.get(1));
+        assertEquals(String.valueOf(TRADES - 1), lines.get(TRADES).split(",")[0]);
+    }
+
+    @Test
+    void ndjson_export_is_limited_to_time_range() throws Exception {
+        long from = START + 999 * 1_000_000_000L;
+        long to = START + 2001 * 1_000_000_000L;
+
+        List<String> lines = export(TradeExportFormat.NDJSON, from, to);
+
+        assertEquals(1002, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(999, first.get("id").asInt());
+        assertEquals("SELL", first.get("takerSide").asText());
+        assertEquals(BTC_ZAR, first.get("currencyPair").asText());
+        assertEquals(2000, objectMapper.readTree(lines.get(1001)).get("id").asInt());
+    }
+
+    @Test
+    void export_of_unknown_pair_has_only_the_header() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        tradeHistoryService.exportTradeHistory("ETHZAR", TradeExportFormat.CSV, Long.MIN_VALUE, Long.MAX_VALUE, out);
+
+        assertEquals(1, out.toString(StandardCharsets.UTF_8).lines().count());
+    }
+}
@@ -0,0 +1,188 @@
+package com.valr.orderbook.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.valr.orderbook.model.AggregatedOrderBook;
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.SubscriberStatistics;
+import com.valr.orderbook.model.Trade;
+import com.valr.orderbook.model.enumeration.Side;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.valr.orderbook.util.TestHelper.BTC_USD;
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static com.valr.orderbook.util.TestHelper.createTrade;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketDataPublisherTest {
+    private static final int THREADS = 2;
+
+    private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+    private CountDownLatch released = new CountDownLatch(0);
+    private MarketDataPublisher publisher = publisher(16);
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    private MarketDataPublisher publisher(int queueCapacity) {
+        return new MarketDataPublisher(new ObjectMapper(), THREADS, queueCapacity, Duration.ofSeconds(30)) {
+            @Override
+            SseEmitter createEmitter() {
+                return new SseEmitter() {
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        try {
+                            released.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        sent.add(builder.build().stream()
+                                .map(data -> data.getData().toString())
+                                .collect(Collectors.joining()));
+                    }
+                };
+            }
+        };
+    }
+
+    private static AggregatedOrderBook snapshot(long version) {
+        return AggregatedOrderBook.builder()
+                .currencyPair(BTC_ZAR)
+                .asks(List.of())
+                .bids(List.of())
+                .version(version)
+                .build();
+    }
+
+    private static OrderBookUpdate update(String currencyPair, long version) {
+        return update(currencyPair, version, 100);
+    }
+
+    private static OrderBookUpdate update(String currencyPair, long version, long price) {
+        return OrderBookUpdate.builder()
+                .currencyPair(currencyPair)
+                .version(version)
+                .asks(List.of(OrderBookLevel.builder().price(price).quantity(version).orderCount(1)
+                        .currencyPair(currencyPair).build()))
+                .bids(List.of())
+                .build();
+    }
+
+    @Test
+    void subscriber_receives_snapshot_then_newer_updates_and_trades_of_its_pair() throws Exception {
+        publisher.subscribe(BTC_ZAR, () -> snapshot(5));
+        Trade trade = createTrade(Side.BUY, 5, 100, BTC_ZAR);
+        trade.setSequence(12);
+
+        publisher.onOrderBookUpdate(update(BTC_ZAR, 5));
+        publisher.onOrderBookUpdate(update(BTC_USD, 6));
+        publisher.onTrades(List.of(trade, createTrade(Side.BUY, 5, 100, BTC_USD)));
+        publisher.onOrderBookUpdate(update(BTC_ZAR, 6));
+
+        assertTrue(sent.poll(10, TimeUnit.SECONDS).startsWith("event:snapshot\nid:5\n"));
+        String trades = sent.poll(10, TimeUnit.SECONDS);
+        assertTrue(trades.startsWith("event:trades\nid:12\n"));
+        assertTrue(trades.contains("\"sequence\":12"));
+        String update = sent.poll(10, TimeUnit.SECONDS);
+        assertTrue(update.startsWith("event:update\nid:6\n"));
+        assertTrue(update.contains("\"orderCount\":1"));
+        assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscriber_statistics_report_the_lag_of_each_subscriber() throws Exception {
+        publisher.subscribe(BTC_ZAR, () -> snapshot(1));
+        assertTrue(sent.poll(10, TimeUnit.SECONDS).startsWith("event:snapshot"));
+        released = new CountDownLatch(1);
+
+        for (long version = 2; version <= 10; version++) {
+            publisher.onOrderBookUpdate(update(BTC_ZAR, version, 100 + version % 3));
+        }
+        SubscriberStatistics lagging = publisher.getSubscriberStatistics(BTC_ZAR).get(0);
+        released.countDown();
+
+        assertEquals(9, lagging.getVersionLag());
+        assertTrue(lagging.getLagNanos() > 0);
+        assertTrue(lagging.getPendingLevels() <= 3);
+        assertTrue(publisher.getSubscriberStatistics(BTC_USD).isEmpty());
+    }
+
+    @Test
+    void subscriber_falling_behind_its_trade_queue_is_closed() throws Exception {
+        publisher.shutdown();
+        publisher = publisher(2);
+        publisher.subscribe(BTC_ZAR, () -> snapshot(1));
+        released = new CountDownLatch(1);
+
+        for (int i = 0; i < 10; i++) {
+            publisher.onTrades(List.of(createTrade(Side.BUY, 5, 100, BTC_ZAR)));
+        }
+        released.countDown();
+
+        assertEquals(0, publisher.subscriberCount(BTC_ZAR));
+        assertTrue(sent.poll(10, TimeUnit.SECONDS).startsWith("event:snapshot"));
+    }
+
+    @Test
+    void stalled_clients_are_disconnected_without_holding_up_other_clients() throws Exception {
+        publisher.shutdown();
+        CountDownLatch stalled = new CountDownLatch(1);
+        AtomicInteger emitters = new AtomicInteger();
+        publisher = new MarketDataPublisher(new ObjectMapper(), THREADS, 16, Duration.ofMillis(100)) {
+            @Override
+            SseEmitter createEmitter() {
+                boolean stalling = emitters.incrementAndGet() <= THREADS + 1;
+                return new SseEmitter() {
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        String event = builder.build().stream()
+                                .map(data -> data.getData().toString())
+                                .collect(Collectors.joining());
+                        if (!stalling) {
+                            sent.add(event);
+                        } else if (!event.startsWith("event:snapshot")) {
+                            try {
+                                stalled.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    }
+                };
+            }
+        };
+        try {
+            for (int i = 0; i <= THREADS + 1; i++) {
+                publisher.subscribe(BTC_ZAR, () -> snapshot(1));
+            }
+            assertTrue(sent.poll(10, TimeUnit.SECONDS).startsWith("event:snapshot"));
+
+            publisher.onOrderBookUpdate(update(BTC_ZAR, 2));
+
+            String update = sent.poll(5, TimeUnit.SECONDS);
+            assertNotNull(update);
+            assertTrue(update.startsWith("event:update\nid:2\n"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (publisher.subscriberCount(BTC_ZAR) > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, publisher.subscriberCount(BTC_ZAR));
+        } finally {
+            stalled.countDown();
+        }
+    }
+}
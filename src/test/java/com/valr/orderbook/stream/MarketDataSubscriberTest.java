@@ -0,0 +1,118 @@
+package com.valr.orderbook.stream;
+
+import com.valr.orderbook.model.OrderBookLevel;
+import com.valr.orderbook.model.OrderBookUpdate;
+import com.valr.orderbook.model.SubscriberStatistics;
+import com.valr.orderbook.stream.MarketDataSubscriber.StreamEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.stream.Collectors;
+
+import static com.valr.orderbook.util.TestHelper.BTC_ZAR;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketDataSubscriberTest {
+    private final List<String> sent = new ArrayList<>();
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final List<OrderBookUpdate> serialized = new ArrayList<>();
+    private final MarketDataSubscriber subscriber = new MarketDataSubscriber(1, BTC_ZAR, new SseEmitter() {
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+    }, tasks::add, update -> {
+        serialized.add(update);
+        return "merged";
+    }, 4, () -> {
+    });
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    private static OrderBookUpdate update(long version, long price, long quantity) {
+        return OrderBookUpdate.builder()
+                .currencyPair(BTC_ZAR)
+                .version(version)
+                .asks(List.of(OrderBookLevel.builder().price(price).quantity(quantity).orderCount(1)
+                        .currencyPair(BTC_ZAR).build()))
+                .bids(List.of())
+                .build();
+    }
+
+    private void offer(OrderBookUpdate update) {
+        subscriber.offerUpdate(update, new StreamEvent(MarketDataSubscriber.UPDATE_EVENT, update.getVersion(),
+                "shared-" + update.getVersion()));
+    }
+
+    @Test
+    void pending_updates_are_merged_keeping_the_latest_state_of_each_level() {
+        subscriber.start(1, "snapshot");
+        for (long version = 2; version <= 10; version++) {
+            offer(update(version, 100 + version % 3, version));
+        }
+
+        SubscriberStatistics lagging = subscriber.statistics();
+        assertEquals(3, lagging.getPendingLevels());
+        assertEquals(9, lagging.getVersionLag());
+        assertEquals(8, lagging.getConflatedUpdates());
+        assertTrue(lagging.getLagNanos() > 0);
+
+        runTasks();
+
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(1).startsWith("event:update\nid:10\n"));
+        assertTrue(sent.get(1).contains("merged"));
+        OrderBookUpdate merged = serialized.get(0);
+        assertEquals(10, merged.getVersion());
+        assertEquals(List.of(8L, 9L, 10L), merged.getAsks().stream().map(OrderBookLevel::getQuantity).sorted()
+                .toList());
+        SubscriberStatistics caughtUp = subscriber.statistics();
+        assertEquals(0, caughtUp.getVersionLag());
+        assertEquals(0, caughtUp.getPendingLevels());
+        assertEquals(0, caughtUp.getLagNanos());
+        assertEquals(1, caughtUp.getDeliveredUpdates());
+    }
+
+    @Test
+    void single_update_is_written_with_the_shared_json() {
+        subscriber.start(1, "snapshot");
+        offer(update(2, 100, 5));
+        runTasks();
+
+        assertTrue(sent.get(1).contains("shared-2"));
+        assertTrue(serialized.isEmpty());
+    }
+
+    @Test
+    void updates_contained_in_the_snapshot_are_skipped() {
+        offer(update(2, 100, 5));
+        offer(update(3, 100, 6));
+        subscriber.start(3, "snapshot");
+        runTasks();
+
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0).startsWith("event:snapshot\nid:3\n"));
+    }
+
+    @Test
+    void trades_are_written_before_the_pending_update() {
+        subscriber.start(1, "snapshot");
+        offer(update(2, 100, 5));
+        subscriber.offerTrades(new StreamEvent(MarketDataSubscriber.TRADES_EVENT, 7, "trades"));
+        runTasks();
+
+        assertTrue(sent.get(1).startsWith("event:trades\nid:7\n"));
+        assertTrue(sent.get(2).startsWith("event:update\nid:2\n"));
+        assertEquals(1, subscriber.statistics().getDeliveredTradeEvents());
+    }
+}
@@ -0,0 +1,53 @@
+package com.valr.orderbook.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static com.valr.orderbook.util.TestHelper.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+    @Test
+    void scales_quantity_by_pair_precision() {
+        assertEquals(2_352_094L, FixedPoint.toScaledQuantity(new BigDecimal("0.02352094"), BTC_ZAR));
+        assertEquals(new BigDecimal("0.02352094"), FixedPoint.toDecimalQuantity(2_352_094L, BTC_ZAR));
+    }
+
+    @Test
+    void scales_price_by_pair_precision() {
+        assertEquals(1_205_649L, FixedPoint.toScaledPrice(new BigDecimal("1205649"), BTC_ZAR));
+        assertEquals(120_564_950L, FixedPoint.toScaledPrice(new BigDecimal("1205649.5"), BTC_USD));
+    }
+
+    @Test
+    void unknown_pair_uses_default_precision() {
+        assertEquals(FixedPoint.DEFAULT_PRECISION, FixedPoint.precisionOf(LTC_USD));
+    }
+
+    @Test
+    void excess_precision_is_rejected() {
+        assertThrows(ArithmeticException.class, () -> FixedPoint.toScaledQuantity(new BigDecimal("0.123456789"), BTC_ZAR));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.toScaledPrice(new BigDecimal("100.5"), BTC_ZAR));
+    }
+
+    @Test
+    void quote_volume_carries_both_scales() {
+        long quoteVolume = FixedPoint.quoteVolume(120_564_950L, 50_000_000L);
+        assertEquals(new BigDecimal("602824.7500000000"), FixedPoint.toDecimalQuoteVolume(quoteVolume, BTC_USD));
+    }
+
+    @Test
+    void quote_volume_range_check_matches_exact_multiplication() {
+        assertTrue(FixedPoint.isQuoteVolumeInRange(5_000_000L, 1_000_000_000_000L));
+        assertFalse(FixedPoint.isQuoteVolumeInRange(5_000_000L, 2_000_000_000_000L));
+        assertTrue(FixedPoint.isQuoteVolumeInRange(Long.MAX_VALUE, 1));
+        assertFalse(FixedPoint.isQuoteVolumeInRange(Long.MAX_VALUE, 2));
+    }
+
+    @Test
+    void quote_volume_overflow_is_rejected() {
+        assertThrows(ArithmeticException.class, () -> FixedPoint.quoteVolume(Long.MAX_VALUE, 2));
+    }
+}
@@ -2,16 +2,20 @@ package com.valr.orderbook.util;
 
 import com.valr.orderbook.model.Order;
 import com.valr.orderbook.model.OrderBook;
+import com.valr.orderbook.model.Trade;
 import com.valr.orderbook.model.enumeration.Side;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 public class TestHelper {
     public static final String BTC_EUR = "BTCEUR";
     public static final String BTC_ZAR = "BTCZAR";
     public static final String BTC_USD = "BTCUSD";
     public static final String LTC_USD = "LTCUSD";
+    public static final String ETH_USD = "ETHUSD";
+    public static final Set<String> TRADED_CURRENCY_PAIRS = Set.of(BTC_EUR, BTC_ZAR, BTC_USD, ETH_USD);
 
     public static OrderBook createOrderBook() {
         return OrderBook.builder()
@@ -22,13 +26,13 @@ public class TestHelper {
 
     public static List<Order> createOrdersList(Side side) {
         return Arrays.asList(
-                new Order(side, 1.0, 1, BTC_ZAR),
-                new Order(side, 2.0, 2, BTC_EUR),
-                new Order(side, 3.0, 3, BTC_ZAR)
+                new Order(side, 100_000_000L, 1, BTC_ZAR),
+                new Order(side, 200_000_000L, 2, BTC_EUR),
+                new Order(side, 300_000_000L, 3, BTC_ZAR)
         );
     }
 
-    public static Order createOrder(Side side, double quantity, int price, String currencyPair) {
+    public static Order createOrder(Side side, long quantity, long price, String currencyPair) {
         return Order.builder()
                 .side(side)
                 .quantity(quantity)
@@ -36,4 +40,14 @@ public class TestHelper {
                 .currencyPair(currencyPair)
                 .build();
     }
+
+    public static Trade createTrade(Side takerSide, long quantity, long price, String currencyPair) {
+        return Trade.builder()
+                .takerSide(takerSide)
+                .quantity(quantity)
+                .price(price)
+                .currencyPair(currencyPair)
+                .quoteVolume(price * quantity)
+                .build();
+    }
 }